@@ -0,0 +1,24 @@
+package ch.openserum.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so each result comes with its allocation rate
+ * ({@code gc.alloc.rate.norm} is bytes per operation). Takes the usual JMH command line options, e.g. a benchmark
+ * regex or {@code -p leafCount=1024}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,306 @@
+package ch.openserum.benchmarks;
+
+import ch.openserum.mango.model.MangoGroupLayout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Account data used by the benchmarks, built offline.
+ *
+ * Each fixture is loaded from {@code /fixtures/<name>.bin} on the classpath if present (raw account data, e.g. from
+ * {@code solana account <address> --output-file <name>.bin}), otherwise it is generated from a fixed seed, with the
+ * same layout as the real account and large enough for everything its decoder reads. Runs never need network access.
+ */
+public final class Fixtures {
+
+    private static final long SEED = 0x5E12D4L;
+
+    private static final int SERUM_MARKET_SIZE = 388;
+    private static final int SERUM_OPEN_ORDERS_SIZE = 3228;
+    private static final int SLAB_HEADER_SIZE = 45;
+    private static final int SLAB_NODE_SIZE = 72;
+    private static final int EVENT_QUEUE_HEADER_SIZE = 37;
+    private static final int EVENT_SIZE = 88;
+
+    private static final int MANGO_MARGIN_ACCOUNT_SIZE = 232;
+    private static final int MANGO_V3_GROUP_SIZE = 10896;
+    private static final int MANGO_V3_ACCOUNT_SIZE = 4296;
+
+    private static final int PYTH_MAGIC = 0xa1b2c3d4;
+    private static final int PYTH_MAPPING_SIZE = 20536;
+    private static final int PYTH_MAPPING_HEADER_SIZE = 56;
+    private static final int PYTH_PRODUCT_SIZE = 512;
+    private static final int PYTH_PRODUCT_HEADER_SIZE = 48;
+    private static final int PYTH_PRICE_SIZE = 3312;
+    private static final int PYTH_PRICE_COMPONENTS_OFFSET = 240;
+    private static final int PYTH_PRICE_COMPONENT_SIZE = 96;
+
+    private Fixtures() {
+    }
+
+    public static byte[] serumMarket() {
+        return load("serum-market", () -> {
+            final ByteBuffer buffer = serumAccount(SERUM_MARKET_SIZE, 3); // initialized + market
+            final Random random = new Random(SEED);
+
+            // pubkeys, vault signer nonce, deposits and fees
+            for (int offset = 13; offset < 349; offset++) {
+                buffer.put(offset, (byte) random.nextInt());
+            }
+
+            buffer.putLong(349, 100); // base lot size
+            buffer.putLong(357, 10); // quote lot size
+            buffer.putLong(365, 22); // fee rate bps
+            return buffer.array();
+        });
+    }
+
+    /**
+     * Order book side holding {@code leafCount} orders over as many price levels as possible, 2 orders per level.
+     */
+    public static byte[] serumOrderBook(int leafCount, boolean bids) {
+        return load("serum-" + (bids ? "bids-" : "asks-") + leafCount, () -> {
+            final int nodeCount = leafCount == 0 ? 0 : (2 * leafCount) - 1;
+            final ByteBuffer buffer = serumAccount(
+                    SLAB_HEADER_SIZE + (Math.max(nodeCount, 1) * SLAB_NODE_SIZE) + 7,
+                    bids ? 33 : 65 // initialized + bids/asks
+            );
+            final Random random = new Random(SEED + leafCount);
+
+            buffer.putInt(13, nodeCount);
+            buffer.putInt(37, leafCount);
+
+            // leaves are written in key order, so inner nodes can bisect index ranges
+            for (int i = 0; i < leafCount; i++) {
+                int offset = SLAB_HEADER_SIZE + (i * SLAB_NODE_SIZE);
+                buffer.putInt(offset, 2);
+                buffer.put(offset + 4, (byte) (i % 128));
+                buffer.putLong(offset + 8, i);
+                buffer.putLong(offset + 16, 20000 + (i / 2));
+                for (int j = 0; j < 32; j++) {
+                    buffer.put(offset + 24 + j, (byte) random.nextInt());
+                }
+                buffer.putLong(offset + 56, 1 + random.nextInt(1000));
+                buffer.putLong(offset + 64, random.nextLong());
+            }
+
+            if (leafCount > 0) {
+                int[] nextInner = {leafCount};
+                buffer.putInt(33, linkSlabNodes(buffer, 0, leafCount, nextInner));
+            }
+
+            return buffer.array();
+        });
+    }
+
+    private static int linkSlabNodes(ByteBuffer buffer, int from, int to, int[] nextInner) {
+        if (to - from == 1) {
+            return from;
+        }
+
+        int node = nextInner[0]++;
+        int middle = (from + to) / 2;
+        int offset = SLAB_HEADER_SIZE + (node * SLAB_NODE_SIZE);
+        buffer.putInt(offset, 1);
+        buffer.putInt(offset + 24, linkSlabNodes(buffer, from, middle, nextInner));
+        buffer.putInt(offset + 28, linkSlabNodes(buffer, middle, to, nextInner));
+
+        return node;
+    }
+
+    /**
+     * Event queue with {@code allocLen} slots, {@code count} of them holding alternating maker/taker fills.
+     */
+    public static byte[] serumEventQueue(int allocLen, int count) {
+        return load("serum-event-queue-" + count, () -> {
+            final ByteBuffer buffer = serumAccount(
+                    EVENT_QUEUE_HEADER_SIZE + (allocLen * EVENT_SIZE) + 7,
+                    17 // initialized + event queue
+            );
+            final Random random = new Random(SEED + count);
+
+            buffer.putInt(21, count);
+            buffer.putInt(29, count);
+
+            for (int i = 0; i < count; i++) {
+                int offset = EVENT_QUEUE_HEADER_SIZE + (i * EVENT_SIZE);
+                buffer.put(offset, (byte) (i % 2 == 0 ? 9 : 5)); // fill + maker, fill + bid
+                buffer.put(offset + 1, (byte) (i % 128));
+                buffer.putLong(offset + 8, random.nextInt(100000));
+                buffer.putLong(offset + 16, 1 + random.nextInt(100000));
+                buffer.putLong(offset + 24, random.nextInt(100));
+                buffer.putLong(offset + 32, random.nextLong());
+                buffer.putLong(offset + 40, 20000 + random.nextInt(100));
+                for (int j = 0; j < 32; j++) {
+                    buffer.put(offset + 48 + j, (byte) random.nextInt());
+                }
+                buffer.putLong(offset + 80, random.nextLong());
+            }
+
+            return buffer.array();
+        });
+    }
+
+    /**
+     * Open orders account with the first {@code orderCount} slots in use.
+     */
+    public static byte[] serumOpenOrders(int orderCount) {
+        return load("serum-open-orders-" + orderCount, () -> {
+            final ByteBuffer buffer = serumAccount(SERUM_OPEN_ORDERS_SIZE, 5); // initialized + open orders
+            final Random random = new Random(SEED + orderCount);
+
+            // market, owner, balances
+            for (int offset = 13; offset < 109; offset++) {
+                buffer.put(offset, (byte) random.nextInt());
+            }
+
+            // free slot bits, set for unused slots
+            for (int i = orderCount; i < 128; i++) {
+                buffer.put(109 + (i / 8), (byte) (buffer.get(109 + (i / 8)) | (1 << (i % 8))));
+            }
+
+            for (int i = 0; i < orderCount; i++) {
+                buffer.putLong(141 + (i * 16), random.nextLong());
+                buffer.putLong(141 + (i * 16) + 8, 20000 + random.nextInt(100));
+                buffer.putLong(2189 + (i * 8), random.nextLong());
+            }
+
+            return buffer.array();
+        });
+    }
+
+    public static byte[] mangoGroup() {
+        return load("mango-group", () -> randomAccount(MangoGroupLayout.SIZE, 3)); // initialized + mango group
+    }
+
+    public static byte[] mangoMarginAccount() {
+        return load("mango-margin-account", () -> randomAccount(MANGO_MARGIN_ACCOUNT_SIZE, 5));
+    }
+
+    public static byte[] mangoV3Group() {
+        return load("mango-v3-group", () -> randomAccount(MANGO_V3_GROUP_SIZE, 1));
+    }
+
+    public static byte[] mangoV3Account() {
+        return load("mango-v3-account", () -> randomAccount(MANGO_V3_ACCOUNT_SIZE, 2));
+    }
+
+    public static byte[] pythMapping(int productCount) {
+        return load("pyth-mapping", () -> {
+            final ByteBuffer buffer = pythAccount(PYTH_MAPPING_SIZE, 1);
+            final Random random = new Random(SEED + productCount);
+
+            buffer.putInt(12, PYTH_MAPPING_HEADER_SIZE + (productCount * 32));
+            buffer.putInt(16, productCount);
+            for (int i = 0; i < productCount * 32; i++) {
+                buffer.put(PYTH_MAPPING_HEADER_SIZE + i, (byte) random.nextInt());
+            }
+
+            return buffer.array();
+        });
+    }
+
+    public static byte[] pythProduct() {
+        return load("pyth-product", () -> {
+            final ByteBuffer buffer = pythAccount(PYTH_PRODUCT_SIZE, 2);
+            final Random random = new Random(SEED);
+
+            for (int i = 0; i < 32; i++) {
+                buffer.put(16 + i, (byte) random.nextInt());
+            }
+
+            buffer.position(PYTH_PRODUCT_HEADER_SIZE);
+            final String[][] attributes = {
+                    {"symbol", "SOL/USD"},
+                    {"asset_type", "Crypto"},
+                    {"quote_currency", "USD"},
+                    {"description", "SOL/USD"},
+                    {"generic_symbol", "SOLUSD"},
+                    {"base", "SOL"}
+            };
+            for (String[] attribute : attributes) {
+                for (String value : attribute) {
+                    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    buffer.put((byte) bytes.length);
+                    buffer.put(bytes);
+                }
+            }
+
+            buffer.putInt(12, buffer.position());
+            return buffer.array();
+        });
+    }
+
+    /**
+     * Price account with {@code componentCount} publishers.
+     */
+    public static byte[] pythPrice(int componentCount) {
+        return load("pyth-price", () -> {
+            final ByteBuffer buffer = pythAccount(PYTH_PRICE_SIZE, 3);
+            final Random random = new Random(SEED + componentCount);
+
+            // everything after the header is prices, slots and pubkeys
+            for (int offset = 40; offset < PYTH_PRICE_COMPONENTS_OFFSET; offset++) {
+                buffer.put(offset, (byte) random.nextInt());
+            }
+
+            buffer.putInt(12, PYTH_PRICE_COMPONENTS_OFFSET + (componentCount * PYTH_PRICE_COMPONENT_SIZE));
+            buffer.putInt(16, 1); // price type
+            buffer.putInt(20, -8); // exponent
+            buffer.putInt(24, componentCount);
+
+            for (int offset = PYTH_PRICE_COMPONENTS_OFFSET;
+                 offset < PYTH_PRICE_COMPONENTS_OFFSET + (componentCount * PYTH_PRICE_COMPONENT_SIZE);
+                 offset++) {
+                buffer.put(offset, (byte) random.nextInt());
+            }
+
+            return buffer.array();
+        });
+    }
+
+    private static byte[] load(String name, Supplier<byte[]> synthetic) {
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".bin")) {
+            return inputStream == null ? synthetic.get() : inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serum account of {@code size} bytes, including the "serum" and "padding" markers.
+     */
+    private static ByteBuffer serumAccount(int size, int accountFlags) {
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("serum".getBytes(StandardCharsets.US_ASCII));
+        buffer.put(5, (byte) accountFlags);
+        buffer.position(size - 7);
+        buffer.put("padding".getBytes(StandardCharsets.US_ASCII));
+
+        return buffer;
+    }
+
+    private static ByteBuffer pythAccount(int size, int type) {
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, PYTH_MAGIC);
+        buffer.putInt(4, 2); // version
+        buffer.putInt(8, type);
+
+        return buffer;
+    }
+
+    private static byte[] randomAccount(int size, int accountFlags) {
+        final byte[] data = new byte[size];
+        new Random(SEED + size).nextBytes(data);
+        data[0] = (byte) accountFlags;
+
+        return data;
+    }
+}
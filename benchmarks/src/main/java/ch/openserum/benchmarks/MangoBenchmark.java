@@ -0,0 +1,81 @@
+package ch.openserum.benchmarks;
+
+import ch.openserum.mango.model.MangoGroup;
+import ch.openserum.mango.model.MangoGroupView;
+import ch.openserum.mango.model.MangoPerpAccount;
+import ch.openserum.mango.model.MangoPerpGroup;
+import ch.openserum.mango.model.MarginAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mango v2 and v3 group and account decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MangoBenchmark {
+
+    private final PublicKey publicKey = new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
+
+    private byte[] mangoGroupData;
+    private byte[] marginAccountData;
+    private byte[] mangoV3GroupData;
+    private byte[] mangoV3AccountData;
+    private MangoGroupView mangoGroupView;
+
+    @Setup
+    public void setup() {
+        mangoGroupData = Fixtures.mangoGroup();
+        marginAccountData = Fixtures.mangoMarginAccount();
+        mangoV3GroupData = Fixtures.mangoV3Group();
+        mangoV3AccountData = Fixtures.mangoV3Account();
+        mangoGroupView = new MangoGroupView();
+    }
+
+    @Benchmark
+    public MangoGroup readMangoGroup() {
+        return MangoGroup.readMangoGroup(mangoGroupData);
+    }
+
+    /**
+     * Reads the same fields as a signer lookup through the generated flyweight.
+     */
+    @Benchmark
+    public void readMangoGroupView(Blackhole blackhole) {
+        mangoGroupView.wrap(mangoGroupData);
+        blackhole.consume(mangoGroupView.getSignerNonce());
+        blackhole.consume(mangoGroupView.getSignerKey());
+        blackhole.consume(mangoGroupView.getDexProgramId());
+    }
+
+    @Benchmark
+    public MarginAccount readMarginAccount() {
+        return MarginAccount.readMarginAccount(publicKey, marginAccountData);
+    }
+
+    @Benchmark
+    public MangoPerpGroup readMangoPerpGroup() {
+        return MangoPerpGroup.readMangoPerpGroup(publicKey, mangoV3GroupData);
+    }
+
+    @Benchmark
+    public MangoPerpAccount readMangoPerpAccount() {
+        return MangoPerpAccount.readMangoPerpAccount(publicKey, mangoV3AccountData);
+    }
+}
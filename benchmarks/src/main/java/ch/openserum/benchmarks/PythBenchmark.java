@@ -0,0 +1,55 @@
+package ch.openserum.benchmarks;
+
+import ch.openserum.pyth.model.MappingAccount;
+import ch.openserum.pyth.model.PriceDataAccount;
+import ch.openserum.pyth.model.ProductAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pyth mapping, product and price account decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PythBenchmark {
+
+    private byte[] mappingData;
+    private byte[] productData;
+    private byte[] priceData;
+
+    @Setup
+    public void setup() {
+        mappingData = Fixtures.pythMapping(200);
+        productData = Fixtures.pythProduct();
+        priceData = Fixtures.pythPrice(16);
+    }
+
+    @Benchmark
+    public MappingAccount readMappingAccount() {
+        return MappingAccount.readMappingAccount(mappingData);
+    }
+
+    @Benchmark
+    public ProductAccount readProductAccount() {
+        return ProductAccount.readProductAccount(productData);
+    }
+
+    @Benchmark
+    public PriceDataAccount readPriceDataAccount() {
+        return PriceDataAccount.readPriceDataAccount(priceData);
+    }
+}
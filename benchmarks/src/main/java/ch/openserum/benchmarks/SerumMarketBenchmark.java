@@ -0,0 +1,93 @@
+package ch.openserum.benchmarks;
+
+import ch.openserum.serum.model.EventQueue;
+import ch.openserum.serum.model.LazyMarket;
+import ch.openserum.serum.model.Market;
+import ch.openserum.serum.model.OpenOrdersAccount;
+import ch.openserum.serum.model.OpenOrdersView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serum market, event queue and open orders decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerumMarketBenchmark {
+
+    // Slots of a 262144 byte event queue account
+    private static final int EVENT_QUEUE_ALLOC_LEN = 2978;
+
+    @Param({"16", "512"})
+    private int eventCount;
+
+    private byte[] marketData;
+    private byte[] eventQueueData;
+    private byte[] openOrdersData;
+    private EventQueue eventQueue;
+    private OpenOrdersView openOrdersView;
+
+    @Setup
+    public void setup() {
+        marketData = Fixtures.serumMarket();
+        eventQueueData = Fixtures.serumEventQueue(EVENT_QUEUE_ALLOC_LEN, eventCount);
+        openOrdersData = Fixtures.serumOpenOrders(16);
+        eventQueue = EventQueue.readEventQueue(eventQueueData, (byte) 9, (byte) 6, 100, 10);
+        openOrdersView = OpenOrdersView.readOpenOrdersView(openOrdersData);
+    }
+
+    @Benchmark
+    public Market readMarket() {
+        return Market.readMarket(marketData);
+    }
+
+    /**
+     * Only the fields needed to load order books and the event queue.
+     */
+    @Benchmark
+    public void readLazyMarketHotFields(Blackhole blackhole) {
+        final LazyMarket market = LazyMarket.readLazyMarket(marketData);
+        blackhole.consume(market.getBids());
+        blackhole.consume(market.getAsks());
+        blackhole.consume(market.getEventQueueKey());
+        blackhole.consume(market.getBaseLotSize());
+        blackhole.consume(market.getQuoteLotSize());
+    }
+
+    @Benchmark
+    public EventQueue readEventQueue() {
+        return EventQueue.readEventQueue(eventQueueData, (byte) 9, (byte) 6, 100, 10);
+    }
+
+    @Benchmark
+    public EventQueue reloadEventQueue() {
+        eventQueue.reload(eventQueueData);
+        return eventQueue;
+    }
+
+    @Benchmark
+    public OpenOrdersAccount readOpenOrdersAccount() {
+        return OpenOrdersAccount.readOpenOrdersAccount(openOrdersData);
+    }
+
+    @Benchmark
+    public OpenOrdersView reloadOpenOrdersView() {
+        return openOrdersView.reload(openOrdersData);
+    }
+}
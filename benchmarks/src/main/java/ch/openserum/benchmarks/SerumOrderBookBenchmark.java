@@ -0,0 +1,92 @@
+package ch.openserum.benchmarks;
+
+import ch.openserum.serum.model.Order;
+import ch.openserum.serum.model.OrderBook;
+import ch.openserum.serum.model.OrderBookColumns;
+import ch.openserum.serum.model.OrderBookLevels;
+import ch.openserum.serum.model.Slab;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order book decoding, from a nearly empty book to a full slab.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerumOrderBookBenchmark {
+
+    private static final int DEPTH = 20;
+
+    @Param({"8", "128", "1024"})
+    private int leafCount;
+
+    private byte[] bidData;
+    private OrderBook bids;
+    private OrderBookLevels levels;
+    private OrderBookColumns columns;
+
+    @Setup
+    public void setup() {
+        bidData = Fixtures.serumOrderBook(leafCount, true);
+        bids = readOrderBook();
+        levels = new OrderBookLevels(DEPTH);
+        columns = new OrderBookColumns(leafCount);
+    }
+
+    @Benchmark
+    public OrderBook readOrderBook() {
+        final OrderBook orderBook = OrderBook.readOrderBook(bidData);
+        orderBook.setBaseDecimals((byte) 9);
+        orderBook.setQuoteDecimals((byte) 6);
+        orderBook.setBaseLotSize(100);
+        orderBook.setQuoteLotSize(10);
+
+        return orderBook;
+    }
+
+    @Benchmark
+    public Slab readOrderBookSlab() {
+        return Slab.readOrderBookSlab(bidData);
+    }
+
+    @Benchmark
+    public List<Order> getOrders() {
+        return bids.getOrders();
+    }
+
+    @Benchmark
+    public List<Order> getSortedOrders() {
+        return bids.getSortedOrders();
+    }
+
+    @Benchmark
+    public Order getBestBid() {
+        return bids.getBestBid();
+    }
+
+    @Benchmark
+    public OrderBookLevels getLevels() {
+        return bids.getLevels(DEPTH, levels);
+    }
+
+    @Benchmark
+    public OrderBookColumns getColumns() {
+        return bids.getColumns(columns);
+    }
+}
@@ -0,0 +1,89 @@
+import ch.openserum.benchmarks.Fixtures;
+import ch.openserum.mango.model.MangoGroup;
+import ch.openserum.mango.model.MangoPerpAccount;
+import ch.openserum.mango.model.MangoPerpGroup;
+import ch.openserum.mango.model.MarginAccount;
+import ch.openserum.pyth.model.MappingAccount;
+import ch.openserum.pyth.model.PriceDataAccount;
+import ch.openserum.pyth.model.ProductAccount;
+import ch.openserum.serum.model.EventQueue;
+import ch.openserum.serum.model.Market;
+import ch.openserum.serum.model.OpenOrdersAccount;
+import ch.openserum.serum.model.OrderBook;
+import org.junit.Test;
+import org.p2p.solanaj.core.PublicKey;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that every benchmark fixture decodes into what it was built to hold.
+ */
+public class FixturesTest {
+
+    private final PublicKey publicKey = new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
+
+    @Test
+    public void serumFixturesTest() {
+        final Market market = Market.readMarket(Fixtures.serumMarket());
+        assertTrue(market.getAccountFlags().isMarket());
+        assertEquals(100, market.getBaseLotSize());
+        assertEquals(10, market.getQuoteLotSize());
+
+        final OrderBook bids = OrderBook.readOrderBook(Fixtures.serumOrderBook(128, true));
+        assertTrue(bids.isBids());
+        assertEquals(128, bids.getOrders().size());
+        assertEquals(128, bids.getSortedOrders().size());
+        assertEquals(20063, bids.getBestBid().getPrice());
+
+        final OrderBook asks = OrderBook.readOrderBook(Fixtures.serumOrderBook(128, false));
+        assertEquals(20000, asks.getBestAsk().getPrice());
+
+        final EventQueue eventQueue = EventQueue.readEventQueue(
+                Fixtures.serumEventQueue(2978, 512),
+                (byte) 9,
+                (byte) 6,
+                100,
+                10
+        );
+        assertEquals(512, eventQueue.getEvents().size());
+
+        final OpenOrdersAccount openOrdersAccount = OpenOrdersAccount.readOpenOrdersAccount(
+                Fixtures.serumOpenOrders(16)
+        );
+        assertTrue(openOrdersAccount.getAccountFlags().isOpenOrders());
+        assertEquals(16, openOrdersAccount.getOrders().size());
+    }
+
+    @Test
+    public void mangoFixturesTest() {
+        final MangoGroup mangoGroup = MangoGroup.readMangoGroup(Fixtures.mangoGroup());
+        assertTrue(mangoGroup.getAccountFlags().isMangoGroup());
+        assertEquals(5, mangoGroup.getIndexes().size());
+
+        final MarginAccount marginAccount = MarginAccount.readMarginAccount(publicKey, Fixtures.mangoMarginAccount());
+        assertEquals(5, marginAccount.getBorrows().size());
+
+        final MangoPerpGroup mangoPerpGroup = MangoPerpGroup.readMangoPerpGroup(publicKey, Fixtures.mangoV3Group());
+        assertNotNull(mangoPerpGroup.getDexProgramId());
+
+        final MangoPerpAccount mangoPerpAccount = MangoPerpAccount.readMangoPerpAccount(
+                publicKey,
+                Fixtures.mangoV3Account()
+        );
+        assertNotNull(mangoPerpAccount.getOwner());
+    }
+
+    @Test
+    public void pythFixturesTest() {
+        final MappingAccount mappingAccount = MappingAccount.readMappingAccount(Fixtures.pythMapping(200));
+        assertEquals(200, mappingAccount.getProductAccountKeys().size());
+
+        final ProductAccount productAccount = ProductAccount.readProductAccount(Fixtures.pythProduct());
+        assertEquals("SOL/USD", productAccount.getProductAttributes().get("symbol"));
+        assertEquals(6, productAccount.getProductAttributes().size());
+
+        final PriceDataAccount priceDataAccount = PriceDataAccount.readPriceDataAccount(Fixtures.pythPrice(16));
+        assertEquals(-8, priceDataAccount.getExponent());
+        assertEquals(16, priceDataAccount.getPriceComponents().size());
+    }
+}
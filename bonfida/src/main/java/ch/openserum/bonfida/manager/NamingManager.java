@@ -1,6 +1,7 @@
 package ch.openserum.bonfida.manager;
 
 import ch.openserum.bonfida.program.NamingServiceProgram;
+import ch.openserum.codec.LayoutCodec;
 import org.bitcoinj.core.Base58;
 import org.p2p.solanaj.core.Account;
 import org.p2p.solanaj.core.PublicKey;
@@ -193,10 +194,10 @@ public class NamingManager {
                 if (programAccountData.length == TWITTER_ACCOUNT_LENGTH) {
                     String twitterHandle = new String(
                             ByteUtils.trim(
-                                    Arrays.copyOfRange(
+                                    LayoutCodec.readBytes(
                                             programAccountData,
                                             TWITTER_HANDLE_START_OFFSET,
-                                            TWITTER_ACCOUNT_LENGTH)
+                                            TWITTER_ACCOUNT_LENGTH - TWITTER_HANDLE_START_OFFSET)
                             )
                     );
 
@@ -238,7 +239,7 @@ public class NamingManager {
 
         AccountInfo accountInfo = getAccountInfo(inputDomainKey);
         byte[] data = Base64.getDecoder().decode(accountInfo.getValue().getData().get(0));
-        PublicKey owner = PublicKey.readPubkey(data, 32);
+        PublicKey owner = LayoutCodec.readPublicKey(data, 32);
 
         return owner;
     }
@@ -0,0 +1,547 @@
+package ch.openserum.codec.processor;
+
+import ch.openserum.codec.layout.AccountLayout;
+import ch.openserum.codec.layout.LayoutField;
+import ch.openserum.codec.layout.LayoutType;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates {@code <Type>Layout} decoders and {@code <Type>View} flyweights for classes annotated with
+ * {@link AccountLayout}, see {@link LayoutField} for how fields are laid out.
+ *
+ * Offsets are resolved at compile time, so the generated decoders are straight-line reads at constant offsets with
+ * no reflection.
+ */
+@SupportedAnnotationTypes("ch.openserum.codec.layout.AccountLayout")
+public class LayoutProcessor extends AbstractProcessor {
+
+    private static final String CODEC = "ch.openserum.codec.LayoutCodec";
+
+    // Struct sizes resolved so far, by qualified name. -1 while a struct is being resolved.
+    private final Map<String, Integer> structSizes = new HashMap<>();
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(AccountLayout.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@AccountLayout can only be used on classes");
+                continue;
+            }
+
+            final TypeElement type = (TypeElement) element;
+            if (!generated.add(type.getQualifiedName().toString())) {
+                continue;
+            }
+
+            final List<Field> fields = resolveFields(type);
+            if (fields == null) {
+                continue;
+            }
+
+            int size = sizeOf(fields);
+            int expectedSize = type.getAnnotation(AccountLayout.class).size();
+            if (expectedSize >= 0 && expectedSize != size) {
+                error(type, "Layout fields add up to " + size + " bytes, expected " + expectedSize);
+                continue;
+            }
+
+            try {
+                writeLayout(type, fields, size);
+                writeView(type, fields);
+            } catch (IOException e) {
+                error(type, "Unable to write generated layout: " + e.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A resolved {@link LayoutField}.
+     */
+    private static class Field {
+        VariableElement element;
+        String name;
+        LayoutType layoutType;
+        int count;
+        boolean list;
+        int elementSize;
+        int offset;
+        // Java type of one element: a primitive keyword or a qualified class name
+        String elementType;
+        String elementSimpleName;
+        // Generated decoder of a nested @AccountLayout struct, or null
+        String nestedLayout;
+        // Whether the element type has a static read<SimpleName>(byte[], int)
+        boolean staticReader;
+    }
+
+    private List<Field> resolveFields(TypeElement type) {
+        final List<Field> fields = new ArrayList<>();
+        boolean valid = true;
+        int offset = 0;
+
+        for (Element member : type.getEnclosedElements()) {
+            final LayoutField layoutField = member.getAnnotation(LayoutField.class);
+            if (member.getKind() != ElementKind.FIELD || layoutField == null) {
+                continue;
+            }
+
+            if (member.getModifiers().contains(Modifier.STATIC)) {
+                error(member, "@LayoutField can't be used on static fields");
+                valid = false;
+                continue;
+            }
+
+            final Field field = new Field();
+            field.element = (VariableElement) member;
+            field.name = member.getSimpleName().toString();
+            field.layoutType = layoutField.value();
+            field.count = layoutField.count();
+
+            if (!resolveType(field, layoutField)) {
+                valid = false;
+                continue;
+            }
+
+            offset += layoutField.padding();
+            field.offset = offset;
+            offset += field.layoutType == LayoutType.BYTES ? field.count : field.count * field.elementSize;
+            fields.add(field);
+        }
+
+        return valid ? fields : null;
+    }
+
+    private boolean resolveType(Field field, LayoutField layoutField) {
+        TypeMirror typeMirror = field.element.asType();
+
+        if (field.layoutType == LayoutType.BYTES) {
+            if (typeMirror.getKind() != TypeKind.ARRAY
+                    || ((ArrayType) typeMirror).getComponentType().getKind() != TypeKind.BYTE) {
+                error(field.element, "BYTES fields must be byte[]");
+                return false;
+            }
+
+            field.elementType = "byte[]";
+            field.elementSize = 1;
+            return true;
+        }
+
+        if (field.count < 1) {
+            error(field.element, "count must be at least 1");
+            return false;
+        }
+
+        // Lists hold one element per count, anything else is a single value
+        if (isList(typeMirror)) {
+            final List<? extends TypeMirror> typeArguments = ((DeclaredType) typeMirror).getTypeArguments();
+            if (typeArguments.size() != 1) {
+                error(field.element, "List fields need an element type");
+                return false;
+            }
+
+            field.list = true;
+            typeMirror = typeArguments.get(0);
+        } else if (field.count != 1) {
+            error(field.element, "Fields with a count other than 1 must be a java.util.List");
+            return false;
+        }
+
+        if (typeMirror.getKind() == TypeKind.DECLARED) {
+            try {
+                typeMirror = processingEnv.getTypeUtils().unboxedType(typeMirror);
+            } catch (IllegalArgumentException e) {
+                // not a boxed primitive
+            }
+        }
+
+        if (typeMirror.getKind().isPrimitive()) {
+            field.elementType = typeMirror.toString();
+            field.elementSimpleName = field.elementType;
+        } else if (typeMirror.getKind() == TypeKind.DECLARED) {
+            final TypeElement typeElement = (TypeElement) ((DeclaredType) typeMirror).asElement();
+            field.elementType = typeElement.getQualifiedName().toString();
+            field.elementSimpleName = typeElement.getSimpleName().toString();
+        } else {
+            error(field.element, "Unsupported field type " + typeMirror);
+            return false;
+        }
+
+        if (field.layoutType == LayoutType.STRUCT && isAccountLayout(typeMirror)) {
+            final TypeElement typeElement = (TypeElement) ((DeclaredType) typeMirror).asElement();
+            field.elementSize = nestedStructSize(typeElement);
+            if (field.elementSize <= 0) {
+                error(field.element, "Unable to size nested layout " + field.elementType);
+                return false;
+            }
+            if (layoutField.size() > 0 && layoutField.size() != field.elementSize) {
+                error(field.element, "size " + layoutField.size() + " doesn't match the " + field.elementSize
+                        + " bytes of " + field.elementType);
+                return false;
+            }
+            if (!hasNoArgsConstructor(typeElement)) {
+                error(field.element, field.elementType + " needs a no-argument constructor to be nested");
+                return false;
+            }
+
+            field.nestedLayout = qualifiedName(packageOf(typeElement), typeElement.getSimpleName() + "Layout");
+        } else if (field.layoutType == LayoutType.STRUCT) {
+            field.elementSize = layoutField.size();
+            if (field.elementSize <= 0) {
+                error(field.element, "STRUCT fields need a size, unless their type is an @AccountLayout class");
+                return false;
+            }
+        } else {
+            field.elementSize = field.layoutType.getSize();
+        }
+
+        if (field.nestedLayout == null && typeMirror.getKind() == TypeKind.DECLARED) {
+            field.staticReader = hasStaticReader((TypeElement) ((DeclaredType) typeMirror).asElement());
+        }
+
+        if (readExpression(field, "offset") == null) {
+            if (field.layoutType == LayoutType.STRUCT || field.layoutType == LayoutType.I80F48
+                    || field.layoutType == LayoutType.U64F64) {
+                error(field.element, field.elementType + " has no static read" + field.elementSimpleName
+                        + "(byte[], int)");
+            } else {
+                error(field.element, field.layoutType + " can't be read into " + field.elementType);
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean isList(TypeMirror typeMirror) {
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+
+        final TypeElement typeElement = (TypeElement) ((DeclaredType) typeMirror).asElement();
+        return typeElement.getQualifiedName().contentEquals("java.util.List");
+    }
+
+    private static boolean isAccountLayout(TypeMirror typeMirror) {
+        return typeMirror.getKind() == TypeKind.DECLARED
+                && ((DeclaredType) typeMirror).asElement().getAnnotation(AccountLayout.class) != null;
+    }
+
+    /**
+     * Accepts Lombok's {@code @NoArgsConstructor}, whose constructor may not be generated yet in this round.
+     */
+    private static boolean hasNoArgsConstructor(TypeElement typeElement) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+
+        return typeElement.getAnnotationMirrors().stream().anyMatch(annotation ->
+                annotation.getAnnotationType().toString().equals("lombok.NoArgsConstructor"));
+    }
+
+    /**
+     * Looks for {@code static read<SimpleName>(byte[], int)}, the reader convention of I80F48, U64F64 and sized
+     * STRUCT element types.
+     */
+    private static boolean hasStaticReader(TypeElement typeElement) {
+        final String name = "read" + typeElement.getSimpleName();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getModifiers().contains(Modifier.STATIC)
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && method.getParameters().size() == 2
+                    && method.getParameters().get(0).asType().toString().equals("byte[]")
+                    && method.getParameters().get(1).asType().getKind() == TypeKind.INT) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int nestedStructSize(TypeElement typeElement) {
+        final String name = typeElement.getQualifiedName().toString();
+        final Integer known = structSizes.get(name);
+        if (known != null) {
+            return known;
+        }
+
+        // Guard against a struct containing itself
+        structSizes.put(name, -1);
+        final List<Field> fields = resolveFields(typeElement);
+        int size = fields == null ? -1 : sizeOf(fields);
+        structSizes.put(name, size);
+
+        return size;
+    }
+
+    private static int sizeOf(List<Field> fields) {
+        if (fields.isEmpty()) {
+            return 0;
+        }
+
+        final Field last = fields.get(fields.size() - 1);
+        return last.offset + (last.layoutType == LayoutType.BYTES ? last.count : last.count * last.elementSize);
+    }
+
+    /**
+     * Java expression reading one element of {@code field} at {@code offset}, or null if the field's Java type
+     * doesn't fit its layout type.
+     */
+    private static String readExpression(Field field, String offset) {
+        final String type = field.elementType;
+
+        switch (field.layoutType) {
+            case U8:
+                switch (type) {
+                    case "byte":
+                        return "data[" + offset + "]";
+                    case "int":
+                        return CODEC + ".readUint8(data, " + offset + ")";
+                    case "boolean":
+                        return CODEC + ".readBoolean(data, " + offset + ")";
+                    default:
+                        return null;
+                }
+            case BOOL:
+                return type.equals("boolean") ? CODEC + ".readBoolean(data, " + offset + ")" : null;
+            case I32:
+                return type.equals("int") ? CODEC + ".readInt32(data, " + offset + ")" : null;
+            case U32:
+                switch (type) {
+                    case "int":
+                        return CODEC + ".readInt32(data, " + offset + ")";
+                    case "long":
+                        return CODEC + ".readUint32(data, " + offset + ")";
+                    default:
+                        return null;
+                }
+            case I64:
+                return type.equals("long") ? CODEC + ".readInt64(data, " + offset + ")" : null;
+            case U64:
+                return type.equals("long") ? CODEC + ".readUint64(data, " + offset + ")" : null;
+            case PUBKEY:
+                return type.equals("org.p2p.solanaj.core.PublicKey")
+                        ? CODEC + ".readPublicKey(data, " + offset + ")"
+                        : null;
+            case BYTES:
+                return CODEC + ".readBytes(data, " + offset + ", " + field.count + ")";
+            case STRUCT:
+                if (field.nestedLayout != null) {
+                    return field.nestedLayout + ".decode(data, " + offset + ", new " + type + "())";
+                }
+                // fall through, sized structs use the same reader convention
+            case I80F48:
+            case U64F64:
+                return field.staticReader
+                        ? type + ".read" + field.elementSimpleName + "(data, " + offset + ")"
+                        : null;
+            default:
+                return null;
+        }
+    }
+
+    private void writeLayout(TypeElement type, List<Field> fields, int size) throws IOException {
+        final String packageName = packageOf(type);
+        final String typeName = type.getQualifiedName().toString();
+        final String className = type.getSimpleName() + "Layout";
+
+        final StringBuilder source = new StringBuilder();
+        header(source, packageName);
+        source.append("/**\n")
+                .append(" * Account layout of {@link ").append(typeName).append("}.\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(className).append(" {\n\n")
+                .append("    public static final int SIZE = ").append(size).append(";\n\n");
+
+        for (Field field : fields) {
+            final String constant = constantName(field.name);
+            source.append("    public static final int ").append(constant).append("_OFFSET = ")
+                    .append(field.offset).append(";\n");
+            if (field.list) {
+                source.append("    public static final int ").append(constant).append("_COUNT = ")
+                        .append(field.count).append(";\n");
+            }
+        }
+
+        source.append("\n    private ").append(className).append("() {\n    }\n\n")
+                .append("    /**\n")
+                .append("     * Decodes every layout field into {@code target} through its setters.\n")
+                .append("     *\n")
+                .append("     * @param data account data\n")
+                .append("     * @param offset position of the struct in {@code data}\n")
+                .append("     * @param target instance to fill\n")
+                .append("     * @return {@code target}\n")
+                .append("     */\n")
+                .append("    public static ").append(typeName).append(" decode(byte[] data, int offset, ")
+                .append(typeName).append(" target) {\n")
+                .append("        java.util.Objects.checkFromIndexSize(offset, SIZE, data.length);\n");
+
+        for (Field field : fields) {
+            final String constant = constantName(field.name) + "_OFFSET";
+            final String setter = "target.set" + capitalize(field.name);
+
+            if (field.list) {
+                final String local = field.name + "List";
+                source.append("\n        final java.util.List<").append(boxed(field.elementType)).append("> ")
+                        .append(local).append(" = new java.util.ArrayList<>(").append(field.count).append(");\n")
+                        .append("        for (int i = 0; i < ").append(field.count).append("; i++) {\n")
+                        .append("            ").append(local).append(".add(")
+                        .append(readExpression(field, "offset + " + constant + " + (i * " + field.elementSize + ")"))
+                        .append(");\n")
+                        .append("        }\n")
+                        .append("        ").append(setter).append("(").append(local).append(");\n");
+            } else {
+                source.append("        ").append(setter).append("(")
+                        .append(readExpression(field, "offset + " + constant)).append(");\n");
+            }
+        }
+
+        source.append("\n        return target;\n    }\n}\n");
+        write(packageName, className, source, type);
+    }
+
+    private void writeView(TypeElement type, List<Field> fields) throws IOException {
+        final String packageName = packageOf(type);
+        final String layoutName = type.getSimpleName() + "Layout";
+        final String className = type.getSimpleName() + "View";
+
+        final StringBuilder source = new StringBuilder();
+        header(source, packageName);
+        source.append("/**\n")
+                .append(" * Flyweight over {@link ").append(type.getQualifiedName())
+                .append("} account data. Accessors read straight from the wrapped bytes,\n")
+                .append(" * a single instance can be re-pointed at new data with {@link #wrap(byte[], int)}.\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(className).append(" {\n\n")
+                .append("    private byte[] data;\n")
+                .append("    private int offset;\n\n")
+                .append("    public ").append(className).append("() {\n    }\n\n")
+                .append("    public ").append(className).append("(byte[] data) {\n")
+                .append("        wrap(data, 0);\n    }\n\n")
+                .append("    public ").append(className).append(" wrap(byte[] data) {\n")
+                .append("        return wrap(data, 0);\n    }\n\n")
+                .append("    public ").append(className).append(" wrap(byte[] data, int offset) {\n")
+                .append("        java.util.Objects.checkFromIndexSize(offset, ").append(layoutName)
+                .append(".SIZE, data.length);\n")
+                .append("        this.data = data;\n")
+                .append("        this.offset = offset;\n")
+                .append("        return this;\n    }\n");
+
+        for (Field field : fields) {
+            final String constant = layoutName + "." + constantName(field.name) + "_OFFSET";
+            final String prefix = field.elementType.equals("boolean") ? "is" : "get";
+            final String accessor = prefix + capitalize(field.name);
+
+            source.append("\n");
+            if (field.list) {
+                source.append("    public ").append(field.elementType).append(" ").append(accessor)
+                        .append("(int index) {\n")
+                        .append("        java.util.Objects.checkIndex(index, ").append(field.count).append(");\n")
+                        .append("        return ")
+                        .append(readExpression(field, "offset + " + constant + " + (index * " + field.elementSize + ")"))
+                        .append(";\n    }\n");
+            } else {
+                source.append("    public ").append(field.elementType).append(" ").append(accessor).append("() {\n")
+                        .append("        return ").append(readExpression(field, "offset + " + constant))
+                        .append(";\n    }\n");
+            }
+        }
+
+        source.append("}\n");
+        write(packageName, className, source, type);
+    }
+
+    private void header(StringBuilder source, String packageName) {
+        source.append("// Generated by ").append(getClass().getSimpleName()).append(", do not edit.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n");
+        }
+        source.append("\n");
+    }
+
+    private void write(String packageName, String className, StringBuilder source, TypeElement origin)
+            throws IOException {
+        final String name = qualifiedName(packageName, className);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(name, origin).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private String packageOf(TypeElement type) {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private static String qualifiedName(String packageName, String className) {
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    private static String boxed(String type) {
+        switch (type) {
+            case "byte":
+                return "Byte";
+            case "boolean":
+                return "Boolean";
+            case "int":
+                return "Integer";
+            case "long":
+                return "Long";
+            default:
+                return type;
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * camelCase to UPPER_SNAKE_CASE, e.g. {@code signerNonce} to {@code SIGNER_NONCE}.
+     */
+    private static String constantName(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
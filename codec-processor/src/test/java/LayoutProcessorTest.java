@@ -0,0 +1,256 @@
+import ch.openserum.codec.layout.AccountLayout;
+import ch.openserum.codec.processor.LayoutProcessor;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class LayoutProcessorTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LayoutProcessorTest.class.getName());
+
+    private static final String SAMPLE_SOURCE = "package sample;\n" +
+            "import ch.openserum.codec.layout.*;\n" +
+            "import java.util.List;\n" +
+            "@AccountLayout(size = %d)\n" +
+            "public class Sample {\n" +
+            "    @LayoutField(LayoutType.U8) private int version;\n" +
+            "    @LayoutField(LayoutType.BOOL) private boolean active;\n" +
+            "    @LayoutField(value = LayoutType.U64, padding = 2) private long amount;\n" +
+            "    @LayoutField(value = LayoutType.U32, count = 3) private List<Long> slots;\n" +
+            "    @LayoutField(value = LayoutType.BYTES, count = 4) private byte[] tag;\n" +
+            "    private String ignored;\n" +
+            "    public int getVersion() { return version; }\n" +
+            "    public void setVersion(int version) { this.version = version; }\n" +
+            "    public boolean isActive() { return active; }\n" +
+            "    public void setActive(boolean active) { this.active = active; }\n" +
+            "    public long getAmount() { return amount; }\n" +
+            "    public void setAmount(long amount) { this.amount = amount; }\n" +
+            "    public List<Long> getSlots() { return slots; }\n" +
+            "    public void setSlots(List<Long> slots) { this.slots = slots; }\n" +
+            "    public byte[] getTag() { return tag; }\n" +
+            "    public void setTag(byte[] tag) { this.tag = tag; }\n" +
+            "}\n";
+
+    // 1 + 1 + 2 (padding) + 8 + (3 * 4) + 4
+    private static final int SAMPLE_SIZE = 28;
+
+    private static final String ENTRY_SOURCE = "package sample;\n" +
+            "import ch.openserum.codec.layout.*;\n" +
+            "@AccountLayout(size = 9)\n" +
+            "public class Entry {\n" +
+            "    @LayoutField(LayoutType.U8) private int kind;\n" +
+            "    @LayoutField(LayoutType.U64) private long amount;\n" +
+            "    public int getKind() { return kind; }\n" +
+            "    public void setKind(int kind) { this.kind = kind; }\n" +
+            "    public long getAmount() { return amount; }\n" +
+            "    public void setAmount(long amount) { this.amount = amount; }\n" +
+            "}\n";
+
+    private static final String BOOK_SOURCE = "package sample;\n" +
+            "import ch.openserum.codec.layout.*;\n" +
+            "import java.util.List;\n" +
+            "@AccountLayout(size = 19)\n" +
+            "public class Book {\n" +
+            "    @LayoutField(LayoutType.BOOL) private boolean open;\n" +
+            "    @LayoutField(value = LayoutType.STRUCT, count = 2) private List<Entry> entries;\n" +
+            "    public boolean isOpen() { return open; }\n" +
+            "    public void setOpen(boolean open) { this.open = open; }\n" +
+            "    public List<Entry> getEntries() { return entries; }\n" +
+            "    public void setEntries(List<Entry> entries) { this.entries = entries; }\n" +
+            "}\n";
+
+    private static final String UNREADABLE_SOURCE = "package sample;\n" +
+            "import ch.openserum.codec.layout.*;\n" +
+            "@AccountLayout\n" +
+            "public class Unreadable {\n" +
+            "    @LayoutField(value = LayoutType.STRUCT, size = 4) private StringBuilder value;\n" +
+            "    public void setValue(StringBuilder value) { this.value = value; }\n" +
+            "}\n";
+
+    @Test
+    public void generatedLayoutTest() throws Exception {
+        final Path output = Files.createTempDirectory("layout-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                output,
+                Map.of("Sample", String.format(SAMPLE_SOURCE, SAMPLE_SIZE))
+        );
+        assertTrue(
+                diagnostics.getDiagnostics().toString(),
+                diagnostics.getDiagnostics().stream().noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        );
+
+        final byte[] data = new byte[SAMPLE_SIZE + 3];
+        final int offset = 3;
+        data[offset] = (byte) 200;
+        data[offset + 1] = 1;
+        data[offset + 4] = 0x10;
+        data[offset + 5] = 0x27;
+        data[offset + 12] = 7;
+        data[offset + 16] = (byte) 0xFF;
+        data[offset + 17] = (byte) 0xFF;
+        data[offset + 18] = (byte) 0xFF;
+        data[offset + 19] = (byte) 0xFF;
+        data[offset + 20] = 9;
+        data[offset + 24] = 'a';
+        data[offset + 27] = 'd';
+
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{output.toUri().toURL()},
+                LayoutProcessorTest.class.getClassLoader()
+        )) {
+            final Class<?> sampleClass = classLoader.loadClass("sample.Sample");
+            final Class<?> layoutClass = classLoader.loadClass("sample.SampleLayout");
+            final Class<?> viewClass = classLoader.loadClass("sample.SampleView");
+
+            assertEquals(SAMPLE_SIZE, layoutClass.getField("SIZE").getInt(null));
+            assertEquals(4, layoutClass.getField("AMOUNT_OFFSET").getInt(null));
+            assertEquals(12, layoutClass.getField("SLOTS_OFFSET").getInt(null));
+            assertEquals(3, layoutClass.getField("SLOTS_COUNT").getInt(null));
+            assertEquals(24, layoutClass.getField("TAG_OFFSET").getInt(null));
+
+            final Object sample = layoutClass.getMethod("decode", byte[].class, int.class, sampleClass)
+                    .invoke(null, data, offset, sampleClass.getConstructor().newInstance());
+
+            assertEquals(200, sampleClass.getMethod("getVersion").invoke(sample));
+            assertEquals(true, sampleClass.getMethod("isActive").invoke(sample));
+            assertEquals(10000L, sampleClass.getMethod("getAmount").invoke(sample));
+            assertEquals(Arrays.asList(7L, 4294967295L, 9L), sampleClass.getMethod("getSlots").invoke(sample));
+            assertArrayEquals(new byte[]{'a', 0, 0, 'd'}, (byte[]) sampleClass.getMethod("getTag").invoke(sample));
+
+            final Object view = viewClass.getConstructor().newInstance();
+            viewClass.getMethod("wrap", byte[].class, int.class).invoke(view, data, offset);
+
+            assertEquals(200, viewClass.getMethod("getVersion").invoke(view));
+            assertEquals(true, viewClass.getMethod("isActive").invoke(view));
+            assertEquals(10000L, viewClass.getMethod("getAmount").invoke(view));
+            assertEquals(4294967295L, viewClass.getMethod("getSlots", int.class).invoke(view, 1));
+            LOGGER.info("Decoded " + sampleClass.getMethod("getSlots").invoke(sample));
+        }
+    }
+
+    @Test
+    public void sizeMismatchTest() throws Exception {
+        final Path output = Files.createTempDirectory("layout-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                output,
+                Map.of("Sample", String.format(SAMPLE_SOURCE, 32))
+        );
+
+        final boolean reported = diagnostics.getDiagnostics().stream()
+                .anyMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR
+                        && diagnostic.getMessage(null).contains("add up to " + SAMPLE_SIZE + " bytes, expected 32"));
+        assertTrue(diagnostics.getDiagnostics().toString(), reported);
+    }
+
+    /**
+     * Verifies that nested {@code @AccountLayout} structs are sized and decoded with their generated layout.
+     */
+    @Test
+    public void nestedStructTest() throws Exception {
+        final Path output = Files.createTempDirectory("layout-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                output,
+                Map.of("Entry", ENTRY_SOURCE, "Book", BOOK_SOURCE)
+        );
+        assertTrue(
+                diagnostics.getDiagnostics().toString(),
+                diagnostics.getDiagnostics().stream().noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        );
+
+        final byte[] data = new byte[19];
+        data[0] = 1;
+        data[1] = 7;
+        data[2] = 42;
+        data[10] = 8;
+        data[11] = 1;
+        data[12] = 1;
+
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{output.toUri().toURL()},
+                LayoutProcessorTest.class.getClassLoader()
+        )) {
+            final Class<?> bookClass = classLoader.loadClass("sample.Book");
+            final Class<?> entryClass = classLoader.loadClass("sample.Entry");
+            final Class<?> layoutClass = classLoader.loadClass("sample.BookLayout");
+
+            assertEquals(1, layoutClass.getField("ENTRIES_OFFSET").getInt(null));
+
+            final Object book = layoutClass.getMethod("decode", byte[].class, int.class, bookClass)
+                    .invoke(null, data, 0, bookClass.getConstructor().newInstance());
+            final List<?> entries = (List<?>) bookClass.getMethod("getEntries").invoke(book);
+
+            assertEquals(2, entries.size());
+            assertEquals(7, entryClass.getMethod("getKind").invoke(entries.get(0)));
+            assertEquals(42L, entryClass.getMethod("getAmount").invoke(entries.get(0)));
+            assertEquals(8, entryClass.getMethod("getKind").invoke(entries.get(1)));
+            assertEquals(257L, entryClass.getMethod("getAmount").invoke(entries.get(1)));
+        }
+    }
+
+    @Test
+    public void missingReaderTest() throws Exception {
+        final Path output = Files.createTempDirectory("layout-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(output, Map.of("Unreadable", UNREADABLE_SOURCE));
+
+        final boolean reported = diagnostics.getDiagnostics().stream()
+                .anyMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR
+                        && diagnostic.getMessage(null).contains("has no static readStringBuilder(byte[], int)"));
+        assertTrue(diagnostics.getDiagnostics().toString(), reported);
+    }
+
+    /**
+     * Compiles classes of the {@code sample} package, by simple name, with the layout processor.
+     */
+    private static DiagnosticCollector<JavaFileObject> compile(Path output, Map<String, String> sources)
+            throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        // Only the annotations are needed on the classpath, the sample doesn't use anything else
+        final String classPath = new File(
+                AccountLayout.class.getProtectionDomain().getCodeSource().getLocation().toURI()
+        ).getPath();
+
+        final List<JavaFileObject> sourceFiles = new ArrayList<>();
+        sources.forEach((name, source) -> sourceFiles.add(new SimpleJavaFileObject(
+                URI.create("string:///sample/" + name + ".java"),
+                JavaFileObject.Kind.SOURCE
+        ) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        }));
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(
+                null,
+                null,
+                diagnostics,
+                List.of("-classpath", classPath, "-d", output.toString(), "-s", output.toString()),
+                null,
+                sourceFiles
+        );
+        task.setProcessors(List.of(new LayoutProcessor()));
+        task.call();
+
+        return diagnostics;
+    }
+}
@@ -0,0 +1,183 @@
+package ch.openserum.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Primitive fixed-point decimals: a {@code long} mantissa and a scale, the value being {@code mantissa / 10^scale}.
+ *
+ * Nothing is boxed, every conversion is integer math against precomputed power-of-ten tables instead of
+ * {@link Math#pow(double, double)}. Native token amounts already are fixed-point values, with the mint's decimals as
+ * scale. Scales range from 0 to {@link #MAX_SCALE}.
+ */
+public final class FixedPoint {
+
+    public static final int MAX_SCALE = 18;
+
+    // 10^0 to 10^18, the largest power of ten that fits in a long
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+    private static final double[] POW10_DOUBLE = new double[MAX_SCALE + 1];
+
+    static {
+        long pow = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POW10[i] = pow;
+            POW10_DOUBLE[i] = pow;
+            pow *= 10;
+        }
+    }
+
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @param exponent 0 to {@link #MAX_SCALE}
+     * @return 10^exponent
+     */
+    public static long pow10(int exponent) {
+        return POW10[exponent];
+    }
+
+    /**
+     * @param exponent 0 to {@link #MAX_SCALE}
+     * @return 10^exponent, exact since every power of ten up to 10^22 is a double
+     */
+    public static double pow10Double(int exponent) {
+        return POW10_DOUBLE[exponent];
+    }
+
+    /**
+     * Converts to the nearest double, with a single correctly rounded division.
+     */
+    public static double toDouble(long mantissa, int scale) {
+        return mantissa / POW10_DOUBLE[scale];
+    }
+
+    /**
+     * Converts a double to the nearest mantissa at the given scale.
+     */
+    public static long fromDouble(double value, int scale) {
+        return Math.round(value * POW10_DOUBLE[scale]);
+    }
+
+    /**
+     * Changes the scale of a value. Upscaling is exact, downscaling rounds half away from zero.
+     *
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public static long rescale(long mantissa, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(mantissa, POW10[toScale - fromScale]);
+        }
+
+        return divideRounded(mantissa, POW10[fromScale - toScale]);
+    }
+
+    /**
+     * Computes {@code a * b / c} rounded half away from zero, without overflowing on the intermediate product.
+     *
+     * @throws ArithmeticException if {@code c} is 0 or the result overflows a long
+     */
+    public static long multiplyDivide(long a, long b, long c) {
+        final long high = Math.multiplyHigh(a, b);
+        final long low = a * b;
+
+        // The product fits in a long if the high word only holds its sign
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideRounded(low, c);
+        }
+
+        return BigDecimal.valueOf(a)
+                .multiply(BigDecimal.valueOf(b))
+                .divide(BigDecimal.valueOf(c), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Computes {@code a * b * 10^exponent / c} rounded half away from zero, for any exponent. A result that does not
+     * fit in a long saturates to {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE} instead of throwing, so decoders
+     * never fail on extreme but legal values.
+     *
+     * @throws ArithmeticException if {@code c} is 0
+     */
+    public static long multiplyDivideSaturated(long a, long b, long c, int exponent) {
+        if (exponent >= 0 && exponent <= MAX_SCALE) {
+            final long factor = POW10[exponent];
+            if (fits(b, factor) && fits(a, b * factor)) {
+                return divideRounded(a * (b * factor), c);
+            }
+        } else if (exponent < 0 && exponent >= -MAX_SCALE) {
+            final long factor = POW10[-exponent];
+            if (fits(a, b) && fits(c, factor)) {
+                return divideRounded(a * b, c * factor);
+            }
+        }
+
+        final BigDecimal result = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                .scaleByPowerOfTen(exponent)
+                .divide(BigDecimal.valueOf(c), 0, RoundingMode.HALF_UP);
+        if (result.compareTo(LONG_MAX) > 0) {
+            return Long.MAX_VALUE;
+        }
+
+        return result.compareTo(LONG_MIN) < 0 ? Long.MIN_VALUE : result.longValue();
+    }
+
+    /**
+     * Computes {@code value * 10^exponent} for any exponent, rounding half away from zero when it is negative.
+     *
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public static long scaleByPowerOfTen(long value, int exponent) {
+        if (exponent >= 0) {
+            return Math.multiplyExact(value, POW10[exponent]);
+        }
+
+        return exponent < -MAX_SCALE ? 0 : divideRounded(value, POW10[-exponent]);
+    }
+
+    /**
+     * Formats a value exactly, e.g. {@code toString(-1050, 3)} returns {@code "-1.050"}.
+     */
+    public static String toString(long mantissa, int scale) {
+        return new BigDecimal(BigInteger.valueOf(mantissa), scale).toPlainString();
+    }
+
+    /**
+     * Parses a decimal string into a mantissa at the given scale, rounding half away from zero.
+     *
+     * @throws NumberFormatException if the string is not a decimal number
+     * @throws ArithmeticException if the result overflows a long
+     */
+    public static long parse(String value, int scale) {
+        return new BigDecimal(value).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return the value as a {@link BigDecimal}, for display or off the hot path
+     */
+    public static BigDecimal toBigDecimal(long mantissa, int scale) {
+        return BigDecimal.valueOf(mantissa, scale);
+    }
+
+    // The product x * y fits in a long if its high word only holds the sign of the low word
+    private static boolean fits(long x, long y) {
+        return Math.multiplyHigh(x, y) == ((x * y) >> 63);
+    }
+
+    private static long divideRounded(long dividend, long divisor) {
+        final long quotient = dividend / divisor;
+        final long remainder = dividend % divisor;
+
+        // Round half away from zero, comparing without overflowing on 2 * remainder
+        if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            return quotient + ((dividend < 0) == (divisor < 0) ? 1 : -1);
+        }
+
+        return quotient;
+    }
+}
@@ -0,0 +1,115 @@
+package ch.openserum.codec;
+
+import org.p2p.solanaj.core.PublicKey;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Little-endian reads of Solana account layouts (u8, u32, u64, i64, u128, pubkey) straight from decoded account data.
+ *
+ * Multi-byte reads go through {@link VarHandle} byte array views, so they compile down to a single bounds-checked
+ * load instead of wrapping a {@link java.nio.ByteBuffer} or going through {@link BigInteger}. Every read throws
+ * {@link IndexOutOfBoundsException} if the field does not fit in the array.
+ */
+public final class LayoutCodec {
+
+    public static final int U8_SIZE = 1;
+    public static final int U32_SIZE = 4;
+    public static final int U64_SIZE = 8;
+    public static final int U128_SIZE = 16;
+    public static final int PUBKEY_SIZE = PublicKey.PUBLIC_KEY_LENGTH;
+
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private LayoutCodec() {
+    }
+
+    public static int readUint8(byte[] data, int offset) {
+        return data[offset] & 0xFF;
+    }
+
+    public static boolean readBoolean(byte[] data, int offset) {
+        return data[offset] != 0;
+    }
+
+    public static int readInt32(byte[] data, int offset) {
+        return (int) INT_LE.get(data, offset);
+    }
+
+    public static long readUint32(byte[] data, int offset) {
+        return readInt32(data, offset) & 0xFFFFFFFFL;
+    }
+
+    public static long readInt64(byte[] data, int offset) {
+        return (long) LONG_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a u64. Values above {@link Long#MAX_VALUE} come back negative, use the {@code Long.*Unsigned} methods
+     * to compare or print them.
+     */
+    public static long readUint64(byte[] data, int offset) {
+        return readInt64(data, offset);
+    }
+
+    /**
+     * Reads the lower 64 bits of a u128.
+     */
+    public static long readUint128Low(byte[] data, int offset) {
+        return readInt64(data, offset);
+    }
+
+    /**
+     * Reads the upper 64 bits of a u128.
+     */
+    public static long readUint128High(byte[] data, int offset) {
+        return readInt64(data, offset + U64_SIZE);
+    }
+
+    /**
+     * Reads a full u128. Allocates, prefer {@link #readUint128Low(byte[], int)} and
+     * {@link #readUint128High(byte[], int)} on hot paths.
+     */
+    public static BigInteger readUint128(byte[] data, int offset) {
+        byte[] bigEndian = new byte[U128_SIZE + 1];
+        for (int i = 0; i < U128_SIZE; i++) {
+            bigEndian[U128_SIZE - i] = data[offset + i];
+        }
+
+        return new BigInteger(bigEndian);
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset}.
+     */
+    public static byte[] readBytes(byte[] data, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        return Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    /**
+     * Copies the 32 bytes of a pubkey into the given array, without allocating.
+     */
+    public static void readPubkeyBytes(byte[] data, int offset, byte[] destination, int destinationOffset) {
+        Objects.checkFromIndexSize(offset, PUBKEY_SIZE, data.length);
+        System.arraycopy(data, offset, destination, destinationOffset, PUBKEY_SIZE);
+    }
+
+    public static PublicKey readPublicKey(byte[] data, int offset) {
+        Objects.checkFromIndexSize(offset, PUBKEY_SIZE, data.length);
+        return PublicKey.readPubkey(data, offset);
+    }
+
+    /**
+     * Compares the pubkey at {@code offset} against raw pubkey bytes, without allocating.
+     */
+    public static boolean pubkeyEquals(byte[] data, int offset, byte[] pubkey) {
+        return Arrays.equals(data, offset, offset + PUBKEY_SIZE, pubkey, 0, PUBKEY_SIZE);
+    }
+}
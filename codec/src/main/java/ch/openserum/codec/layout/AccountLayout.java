@@ -0,0 +1,29 @@
+package ch.openserum.codec.layout;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model class whose account layout is declared with {@link LayoutField}s.
+ *
+ * For a class {@code Foo}, the layout processor generates, in the same package:
+ * <ul>
+ *     <li>{@code FooLayout}: {@code SIZE}, one {@code *_OFFSET} constant per field, and a straight-line
+ *     {@code decode(byte[] data, int offset, Foo target)} that fills {@code target} through its setters</li>
+ *     <li>{@code FooView}: a flyweight with one accessor per field, reading straight from the wrapped bytes</li>
+ * </ul>
+ *
+ * Kept in class files, so that models compiled in another module can be nested as {@link LayoutType#STRUCT}s.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface AccountLayout {
+
+    /**
+     * Expected total size in bytes. Compilation fails if the declared fields add up to a different size.
+     * Unchecked if negative.
+     */
+    int size() default -1;
+}
@@ -0,0 +1,36 @@
+package ch.openserum.codec.layout;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares where a field of an {@link AccountLayout} class lives in the account data.
+ *
+ * Fields are laid out back to back in declaration order, starting at offset 0. Fields without this annotation
+ * are not part of the layout.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface LayoutField {
+
+    LayoutType value();
+
+    /**
+     * Number of consecutive elements. Fields with a count other than 1 must be a {@link java.util.List},
+     * except {@link LayoutType#BYTES} where this is the length of the {@code byte[]}.
+     */
+    int count() default 1;
+
+    /**
+     * Size in bytes of one {@link LayoutType#STRUCT} element. Left out if the element type is itself an
+     * {@link AccountLayout} class, which then needs a no-argument constructor.
+     */
+    int size() default -1;
+
+    /**
+     * Unused bytes between the previous field and this one.
+     */
+    int padding() default 0;
+}
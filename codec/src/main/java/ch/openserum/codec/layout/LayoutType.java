@@ -0,0 +1,45 @@
+package ch.openserum.codec.layout;
+
+/**
+ * Wire types of a {@link LayoutField}, all little-endian.
+ */
+public enum LayoutType {
+    /** 1 byte, into a {@code byte}, {@code int} (unsigned) or {@code boolean} field */
+    U8(1),
+    /** 1 byte, non-zero is true */
+    BOOL(1),
+    /** 4 bytes, into an {@code int} field */
+    I32(4),
+    /** 4 bytes, into an {@code int} field (raw bits) or a {@code long} field */
+    U32(4),
+    /** 8 bytes, into a {@code long} field */
+    I64(8),
+    /** 8 bytes, into a {@code long} field (raw bits) */
+    U64(8),
+    /** 32 bytes, into a {@code PublicKey} field */
+    PUBKEY(32),
+    /** 16 bytes, read with the field type's static {@code readI80F48(byte[], int)} */
+    I80F48(16),
+    /** 16 bytes, read with the field type's static {@code readU64F64(byte[], int)} */
+    U64F64(16),
+    /** {@code count} bytes, copied into a {@code byte[]} field */
+    BYTES(1),
+    /**
+     * Nested struct. {@link AccountLayout} types are decoded with their generated {@code <Type>Layout.decode} into a
+     * new instance, other types of {@code size} bytes with their static {@code read<SimpleName>(byte[], int)}
+     */
+    STRUCT(-1);
+
+    private final int size;
+
+    LayoutType(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return size in bytes of one element, -1 for {@link #STRUCT}
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,98 @@
+import ch.openserum.codec.FixedPoint;
+import ch.openserum.codec.LayoutCodec;
+import org.junit.Test;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class LayoutCodecTest {
+
+    @Test
+    public void readPrimitivesTest() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(0, (byte) 0xFE);
+        buffer.putInt(1, -2);
+        buffer.putLong(5, Long.MIN_VALUE + 1);
+        buffer.putLong(13, 0x0102030405060708L); // u128 low
+        buffer.putLong(21, 1L); // u128 high
+        final byte[] data = buffer.array();
+
+        assertEquals(254, LayoutCodec.readUint8(data, 0));
+        assertTrue(LayoutCodec.readBoolean(data, 0));
+        assertEquals(-2, LayoutCodec.readInt32(data, 1));
+        assertEquals(4294967294L, LayoutCodec.readUint32(data, 1));
+        assertEquals(Long.MIN_VALUE + 1, LayoutCodec.readInt64(data, 5));
+        assertEquals("9223372036854775809", Long.toUnsignedString(LayoutCodec.readUint64(data, 5)));
+
+        assertEquals(0x0102030405060708L, LayoutCodec.readUint128Low(data, 13));
+        assertEquals(1L, LayoutCodec.readUint128High(data, 13));
+        assertEquals(
+                BigInteger.ONE.shiftLeft(64).add(BigInteger.valueOf(0x0102030405060708L)),
+                LayoutCodec.readUint128(data, 13)
+        );
+    }
+
+    @Test
+    public void readPubkeyTest() {
+        final PublicKey publicKey = new PublicKey("9xQeWvG816bUx9EPjHmaT23yvVM2ZWbrrpZb9PusVFin");
+        final byte[] data = new byte[40];
+        System.arraycopy(publicKey.toByteArray(), 0, data, 8, PublicKey.PUBLIC_KEY_LENGTH);
+
+        assertEquals(publicKey, LayoutCodec.readPublicKey(data, 8));
+        assertTrue(LayoutCodec.pubkeyEquals(data, 8, publicKey.toByteArray()));
+        assertFalse(LayoutCodec.pubkeyEquals(data, 7, publicKey.toByteArray()));
+
+        final byte[] destination = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+        LayoutCodec.readPubkeyBytes(data, 8, destination, 0);
+        assertArrayEquals(publicKey.toByteArray(), destination);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBoundsTest() {
+        LayoutCodec.readInt64(new byte[12], 5);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pubkeyOutOfBoundsTest() {
+        LayoutCodec.readPublicKey(new byte[40], 9);
+    }
+
+    @Test
+    public void fixedPointTest() {
+        assertEquals(1L, FixedPoint.pow10(0));
+        assertEquals(1_000_000_000_000_000_000L, FixedPoint.pow10(FixedPoint.MAX_SCALE));
+
+        assertEquals(12345, FixedPoint.rescale(1234500, 4, 2));
+        assertEquals(12346, FixedPoint.rescale(1234550, 4, 2));
+        assertEquals(-12346, FixedPoint.rescale(-1234550, 4, 2));
+        assertEquals(1234500, FixedPoint.rescale(12345, 2, 4));
+        assertEquals(35, FixedPoint.scaleByPowerOfTen(345, -1));
+        assertEquals(0, FixedPoint.scaleByPowerOfTen(345, -30));
+
+        // The intermediate product overflows a long, the result does not
+        assertEquals(Long.MAX_VALUE / 3, FixedPoint.multiplyDivide(Long.MAX_VALUE / 3, 1_000_000, 1_000_000));
+        assertEquals(7, FixedPoint.multiplyDivide(20, 1, 3));
+        assertEquals(-7, FixedPoint.multiplyDivide(-20, 1, 3));
+
+        // Saturating variant, with any power of ten
+        assertEquals(6_667, FixedPoint.multiplyDivideSaturated(20, 1, 3, 3));
+        assertEquals(-7, FixedPoint.multiplyDivideSaturated(-20_000, 1, 3, -3));
+        assertEquals(Long.MAX_VALUE / 3, FixedPoint.multiplyDivideSaturated(Long.MAX_VALUE / 3, 1_000, 1_000_000, 3));
+        assertEquals(Long.MAX_VALUE, FixedPoint.multiplyDivideSaturated(Long.MAX_VALUE, 10, 1, 0));
+        assertEquals(Long.MIN_VALUE, FixedPoint.multiplyDivideSaturated(-1, 1, 1, 30));
+        assertEquals(0, FixedPoint.multiplyDivideSaturated(1, 1, 1, -30));
+
+        // 0.1 + 0.2 is exact in fixed point
+        final long sum = FixedPoint.parse("0.1", 2) + FixedPoint.parse("0.2", 2);
+        assertEquals("0.30", FixedPoint.toString(sum, 2));
+        assertEquals("-1.050", FixedPoint.toString(-1050, 3));
+        assertEquals(0.3, FixedPoint.toDouble(sum, 2), 0);
+        assertEquals(4237512, FixedPoint.fromDouble(42375.12, 2));
+        assertEquals(new BigDecimal("42375.12"), FixedPoint.toBigDecimal(4237512, 2));
+    }
+}
@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.*;
 import org.p2p.solanaj.utils.ByteUtils;
 
@@ -8,7 +9,6 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
 
 @Getter
 @Setter
@@ -22,7 +22,7 @@ public class I80F48 {
     private byte[] data;
 
     public static I80F48 readI80F48(byte[] data, int offset) {
-        return new I80F48(Arrays.copyOfRange(data, offset, offset + I80F48_LENGTH));
+        return new I80F48(LayoutCodec.readBytes(data, offset, I80F48_LENGTH));
     }
 
     public float decodeFloat() {
@@ -18,10 +18,14 @@ public class MangoAccountMetadata {
     private boolean isInitialized;
 
     public static MangoAccountMetadata readMangoAccountMetadata(byte[] data) {
+        return readMangoAccountMetadata(data, 0);
+    }
+
+    public static MangoAccountMetadata readMangoAccountMetadata(byte[] data, int offset) {
         return MangoAccountMetadata.builder()
-                .dataType(data[0])
-                .version(data[1])
-                .isInitialized(data[2] == 1)
+                .dataType(data[offset])
+                .version(data[offset + 1])
+                .isInitialized(data[offset + 2] == 1)
                 .build();
     }
 }
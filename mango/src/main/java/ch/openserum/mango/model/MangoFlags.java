@@ -14,4 +14,18 @@ public class MangoFlags {
     boolean mangoGroup;
     boolean marginAccount;
     boolean mangoSrmAccount;
+
+    /**
+     * Mango accounts only store 4 booleans currently, so only the first byte of the flags is read.
+     */
+    public static MangoFlags readMangoFlags(byte[] data, int offset) {
+        byte flags = data[offset];
+
+        return MangoFlags.builder()
+                .initialized((flags & 1) == 1)
+                .mangoGroup((flags & 2) == 2)
+                .marginAccount((flags & 4) == 4)
+                .mangoSrmAccount((flags & 8) == 8)
+                .build();
+    }
 }
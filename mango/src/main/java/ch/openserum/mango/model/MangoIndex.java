@@ -1,16 +1,31 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.layout.AccountLayout;
+import ch.openserum.codec.layout.LayoutField;
+import ch.openserum.codec.layout.LayoutType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+@AccountLayout(size = 40)
 @Builder
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class MangoIndex {
 
+    @LayoutField(LayoutType.U64)
     private long lastUpdate;
+    @LayoutField(LayoutType.U64F64)
     private U64F64 borrow;
+    @LayoutField(LayoutType.U64F64)
     private U64F64 deposit;
 
+    public static MangoIndex readMangoIndex(byte[] data, int offset) {
+        return MangoIndexLayout.decode(data, offset, new MangoIndex());
+    }
+
 }
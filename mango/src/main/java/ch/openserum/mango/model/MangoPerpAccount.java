@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,7 +8,6 @@ import lombok.ToString;
 import org.p2p.solanaj.core.PublicKey;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 @Builder
@@ -43,16 +43,10 @@ public class MangoPerpAccount {
         final MangoPerpAccount mangoPerpAccount = MangoPerpAccount.builder()
                 .publicKey(publicKey)
                 .metaData(
-                        MangoAccountMetadata.readMangoAccountMetadata(
-                                Arrays.copyOfRange(
-                                        data,
-                                        METADATA_OFFSET,
-                                        METADATA_OFFSET + MangoAccountMetadata.METADATA_LAYOUT_SIZE
-                                )
-                        )
+                        MangoAccountMetadata.readMangoAccountMetadata(data, METADATA_OFFSET)
                 )
-                .mangoGroup(PublicKey.readPubkey(data, MANGO_GROUP_OFFSET))
-                .owner(PublicKey.readPubkey(data, OWNER_OFFSET))
+                .mangoGroup(LayoutCodec.readPublicKey(data, MANGO_GROUP_OFFSET))
+                .owner(LayoutCodec.readPublicKey(data, OWNER_OFFSET))
                 .numInMarginBasket(data[NUM_IN_MARGIN_BASKET_OFFSET])
                 .build();
 
@@ -1,10 +1,10 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 
 @Builder
@@ -37,17 +37,21 @@ public class MangoPerpMarketInfo {
 
 
     public static MangoPerpMarketInfo readMangoPerpMarketInfo(byte[] data) {
+        return readMangoPerpMarketInfo(data, 0);
+    }
+
+    public static MangoPerpMarketInfo readMangoPerpMarketInfo(byte[] data, int offset) {
         final MangoPerpMarketInfo mangoPerpMarketInfo = MangoPerpMarketInfo.builder()
                 .build();
 
-        mangoPerpMarketInfo.setPerpMarket(PublicKey.readPubkey(data, SPOT_MARKET_OFFSET));
-        mangoPerpMarketInfo.setMaintAssetWeight(I80F48.readI80F48(data, MAINT_ASSET_WEIGHT_OFFSET));
-        mangoPerpMarketInfo.setInitAssetWeight(I80F48.readI80F48(data, INIT_ASSET_WEIGHT_OFFSET));
-        mangoPerpMarketInfo.setMaintLiabWeight(I80F48.readI80F48(data, MAINT_LIAB_WEIGHT_OFFSET));
-        mangoPerpMarketInfo.setInitLiabWeight(I80F48.readI80F48(data, INIT_LIAB_WEIGHT_OFFSET));
-        mangoPerpMarketInfo.setLiquidationFee(I80F48.readI80F48(data, LIQUIDATION_FEE_OFFSET));
-        mangoPerpMarketInfo.setBaseLotSize(Utils.readInt64(data, BASE_LOT_SIZE_OFFSET));
-        mangoPerpMarketInfo.setQuoteLotSize(Utils.readInt64(data, QUOTE_LOT_SIZE_OFFSET));
+        mangoPerpMarketInfo.setPerpMarket(LayoutCodec.readPublicKey(data, offset + SPOT_MARKET_OFFSET));
+        mangoPerpMarketInfo.setMaintAssetWeight(I80F48.readI80F48(data, offset + MAINT_ASSET_WEIGHT_OFFSET));
+        mangoPerpMarketInfo.setInitAssetWeight(I80F48.readI80F48(data, offset + INIT_ASSET_WEIGHT_OFFSET));
+        mangoPerpMarketInfo.setMaintLiabWeight(I80F48.readI80F48(data, offset + MAINT_LIAB_WEIGHT_OFFSET));
+        mangoPerpMarketInfo.setInitLiabWeight(I80F48.readI80F48(data, offset + INIT_LIAB_WEIGHT_OFFSET));
+        mangoPerpMarketInfo.setLiquidationFee(I80F48.readI80F48(data, offset + LIQUIDATION_FEE_OFFSET));
+        mangoPerpMarketInfo.setBaseLotSize(LayoutCodec.readInt64(data, offset + BASE_LOT_SIZE_OFFSET));
+        mangoPerpMarketInfo.setQuoteLotSize(LayoutCodec.readInt64(data, offset + QUOTE_LOT_SIZE_OFFSET));
 
         return mangoPerpMarketInfo;
     }
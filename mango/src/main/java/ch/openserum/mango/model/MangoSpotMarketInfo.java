@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -30,15 +31,19 @@ public class MangoSpotMarketInfo {
 
 
     public static MangoSpotMarketInfo readMangoSpotMarketInfo(byte[] data) {
+        return readMangoSpotMarketInfo(data, 0);
+    }
+
+    public static MangoSpotMarketInfo readMangoSpotMarketInfo(byte[] data, int offset) {
         final MangoSpotMarketInfo mangoSpotMarketInfo = MangoSpotMarketInfo.builder()
                 .build();
 
-        mangoSpotMarketInfo.setSpotMarket(PublicKey.readPubkey(data, SPOT_MARKET_OFFSET));
-        mangoSpotMarketInfo.setMaintAssetWeight(I80F48.readI80F48(data, MAINT_ASSET_WEIGHT_OFFSET));
-        mangoSpotMarketInfo.setInitAssetWeight(I80F48.readI80F48(data, INIT_ASSET_WEIGHT_OFFSET));
-        mangoSpotMarketInfo.setMaintLiabWeight(I80F48.readI80F48(data, MAINT_LIAB_WEIGHT_OFFSET));
-        mangoSpotMarketInfo.setInitLiabWeight(I80F48.readI80F48(data, INIT_LIAB_WEIGHT_OFFSET));
-        mangoSpotMarketInfo.setLiquidationFee(I80F48.readI80F48(data, LIQUIDATION_FEE_OFFSET));
+        mangoSpotMarketInfo.setSpotMarket(LayoutCodec.readPublicKey(data, offset + SPOT_MARKET_OFFSET));
+        mangoSpotMarketInfo.setMaintAssetWeight(I80F48.readI80F48(data, offset + MAINT_ASSET_WEIGHT_OFFSET));
+        mangoSpotMarketInfo.setInitAssetWeight(I80F48.readI80F48(data, offset + INIT_ASSET_WEIGHT_OFFSET));
+        mangoSpotMarketInfo.setMaintLiabWeight(I80F48.readI80F48(data, offset + MAINT_LIAB_WEIGHT_OFFSET));
+        mangoSpotMarketInfo.setInitLiabWeight(I80F48.readI80F48(data, offset + INIT_LIAB_WEIGHT_OFFSET));
+        mangoSpotMarketInfo.setLiquidationFee(I80F48.readI80F48(data, offset + LIQUIDATION_FEE_OFFSET));
 
 
         return mangoSpotMarketInfo;
@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -22,15 +23,19 @@ public class MangoTokenInfo {
     private byte decimals;
 
     public static MangoTokenInfo readMangoTokenInfo(byte[] data) {
+        return readMangoTokenInfo(data, 0);
+    }
+
+    public static MangoTokenInfo readMangoTokenInfo(byte[] data, int offset) {
         return MangoTokenInfo.builder()
                 .mint(
-                        PublicKey.readPubkey(data, MINT_OFFSET)
+                        LayoutCodec.readPublicKey(data, offset + MINT_OFFSET)
                 )
                 .rootBank(
-                        PublicKey.readPubkey(data, ROOT_BANK_OFFSET)
+                        LayoutCodec.readPublicKey(data, offset + ROOT_BANK_OFFSET)
                 )
                 .decimals(
-                        data[DECIMALS_OFFSET]
+                        data[offset + DECIMALS_OFFSET]
                 )
                 .build();
     }
@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -43,19 +44,10 @@ public class MarginAccount {
                 .publicKey(publicKey)
                 .build();
 
-        byte marginAccountFlags = data[0];
+        marginAccount.setAccountFlags(MangoFlags.readMangoFlags(data, 0));
 
-        marginAccount.setAccountFlags(
-                MangoFlags.builder()
-                        .initialized((marginAccountFlags & 1) == 1)
-                        .mangoGroup((marginAccountFlags & 2) == 2)
-                        .marginAccount((marginAccountFlags & 4) == 4)
-                        .mangoSrmAccount((marginAccountFlags & 8) == 8)
-                        .build()
-        );
-
-        marginAccount.setMangoGroup(PublicKey.readPubkey(data, MANGO_GROUP_OFFSET));
-        marginAccount.setOwner(PublicKey.readPubkey(data, OWNER_OFFSET));
+        marginAccount.setMangoGroup(LayoutCodec.readPublicKey(data, MANGO_GROUP_OFFSET));
+        marginAccount.setOwner(LayoutCodec.readPublicKey(data, OWNER_OFFSET));
 
         marginAccount.setDeposits(new ArrayList<>());
         for (int i = 0; i < NUM_TOKENS; i++) {
@@ -1,5 +1,6 @@
 package ch.openserum.mango.model;
 
+import ch.openserum.codec.LayoutCodec;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -11,7 +12,6 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
 
 @Getter
 @Setter
@@ -23,7 +23,7 @@ public class U64F64 {
     private byte[] data;
 
     public static U64F64 readU64F64(byte[] data, int offset) {
-        return new U64F64(Arrays.copyOfRange(data, offset, offset + U64F64_LENGTH));
+        return new U64F64(LayoutCodec.readBytes(data, offset, U64F64_LENGTH));
     }
 
     public float decodeFloat() {
@@ -306,4 +306,35 @@ public class MangoTest {
         PublicKey pubkey2 = PublicKey.readPubkey(rawData2, 0);
         LOGGER.info("Pubkey2 = " + pubkey2.toBase58());
     }
+
+    @Test
+    public void mangoGroupLayoutTest() {
+        final byte[] data = new byte[MangoGroupLayout.SIZE];
+        data[0] = 3;
+        for (int i = 0; i < MangoGroupLayout.INDEXES_COUNT; i++) {
+            // lastUpdate of each index, 40 bytes apart
+            data[MangoGroupLayout.INDEXES_OFFSET + (i * MangoIndexLayout.SIZE)] = (byte) (i + 1);
+        }
+        data[MangoGroupLayout.SIGNER_NONCE_OFFSET] = 42;
+        data[MangoGroupLayout.MINT_DECIMALS_OFFSET + 4] = 6;
+
+        final MangoGroup mangoGroup = MangoGroup.readMangoGroup(data);
+        final MangoGroupView mangoGroupView = new MangoGroupView(data);
+
+        assertTrue(mangoGroup.getAccountFlags().isInitialized());
+        assertTrue(mangoGroup.getAccountFlags().isMangoGroup());
+        assertFalse(mangoGroup.getAccountFlags().isMarginAccount());
+
+        for (int i = 0; i < MangoGroupLayout.INDEXES_COUNT; i++) {
+            assertEquals(i + 1, mangoGroup.getIndexes().get(i).getLastUpdate());
+            assertEquals(i + 1, mangoGroupView.getIndexes(i).getLastUpdate());
+        }
+
+        assertEquals(42, mangoGroup.getSignerNonce());
+        assertEquals(42, mangoGroupView.getSignerNonce());
+        assertEquals(6, (byte) mangoGroup.getMintDecimals().get(4));
+        assertEquals(6, mangoGroupView.getMintDecimals(4));
+        assertEquals(MangoGroupLayout.TOKENS_COUNT, mangoGroup.getTokens().size());
+        assertEquals(MangoGroupLayout.ORACLE_DECIMALS_COUNT, mangoGroup.getOracleDecimals().size());
+    }
 }
@@ -1,5 +1,6 @@
 package ch.openserum.pyth.model;
 
+import ch.openserum.codec.LayoutCodec;
 import ch.openserum.pyth.utils.PythUtils;
 import lombok.Builder;
 import lombok.Getter;
@@ -37,21 +38,21 @@ public class MappingAccount {
 
     public static MappingAccount readMappingAccount(byte[] data) {
         final MappingAccount mappingAccount = MappingAccount.builder()
-                .magicNumber(PythUtils.readInt32(data, MAGIC_NUMBER_OFFSET))
-                .version(PythUtils.readInt32(data, VERSION_OFFSET))
-                .type(PythUtils.readInt32(data, TYPE_OFFSET))
-                .size(PythUtils.readInt32(data, SIZE_OFFSET))
-                .numProducts(PythUtils.readInt32(data, NUM_PRODUCTS_OFFSET))
+                .magicNumber(LayoutCodec.readInt32(data, MAGIC_NUMBER_OFFSET))
+                .version(LayoutCodec.readInt32(data, VERSION_OFFSET))
+                .type(LayoutCodec.readInt32(data, TYPE_OFFSET))
+                .size(LayoutCodec.readInt32(data, SIZE_OFFSET))
+                .numProducts(LayoutCodec.readInt32(data, NUM_PRODUCTS_OFFSET))
                 .build();
 
-        final PublicKey nextMappingAccount = PublicKey.readPubkey(data, NEXT_MAPPING_ACCOUNT_OFFSET);
+        final PublicKey nextMappingAccount = LayoutCodec.readPublicKey(data, NEXT_MAPPING_ACCOUNT_OFFSET);
         if (!nextMappingAccount.toBase58().equalsIgnoreCase(PythUtils.EMPTY_PUBKEY)){
             mappingAccount.setNextMappingAccount(nextMappingAccount);
         }
 
         mappingAccount.setProductAccountKeys(new ArrayList<>());
         for (int i = 0; i < mappingAccount.getNumProducts(); i++) {
-            final PublicKey productAccountKey = PublicKey.readPubkey(
+            final PublicKey productAccountKey = LayoutCodec.readPublicKey(
                     data,
                     PRODUCT_ACCOUNT_KEYS_OFFSET + (i * 32)
             );
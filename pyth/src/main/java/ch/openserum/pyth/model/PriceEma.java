@@ -1,11 +1,11 @@
 package ch.openserum.pyth.model;
 
+import ch.openserum.codec.LayoutCodec;
 import ch.openserum.pyth.utils.PythUtils;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 
 @Builder
 @Getter
@@ -25,10 +25,14 @@ public class PriceEma {
     private long denominator;
 
     public static PriceEma readPriceEma(byte[] data, int exponent) {
+        return readPriceEma(data, 0, exponent);
+    }
+
+    public static PriceEma readPriceEma(byte[] data, int offset, int exponent) {
         final PriceEma priceEma = PriceEma.builder()
-                .valueComponent(Utils.readInt64(data, VALUE_COMPONENT_OFFSET))
-                .numerator(Utils.readInt64(data, NUMERATOR_OFFSET))
-                .denominator(Utils.readInt64(data, DENOMINATOR_OFFSET))
+                .valueComponent(LayoutCodec.readInt64(data, offset + VALUE_COMPONENT_OFFSET))
+                .numerator(LayoutCodec.readInt64(data, offset + NUMERATOR_OFFSET))
+                .denominator(LayoutCodec.readInt64(data, offset + DENOMINATOR_OFFSET))
                 .build();
 
         priceEma.setValue((float) priceEma.getValueComponent() * (float) Math.pow(10, exponent));
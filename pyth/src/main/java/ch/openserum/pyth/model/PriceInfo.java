@@ -1,11 +1,11 @@
 package ch.openserum.pyth.model;
 
+import ch.openserum.codec.LayoutCodec;
 import ch.openserum.pyth.utils.PythUtils;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 
 @Builder
 @Getter
@@ -28,12 +28,16 @@ public class PriceInfo {
     private long publishSlot;
 
     public static PriceInfo readPriceInfo(byte[] data, int exponent) {
+        return readPriceInfo(data, 0, exponent);
+    }
+
+    public static PriceInfo readPriceInfo(byte[] data, int offset, int exponent) {
         final PriceInfo priceInfo = PriceInfo.builder()
-                .priceComponent(Utils.readInt64(data, PRICE_COMPONENT_OFFSET))
-                .confidenceComponent(Utils.readInt64(data, CONFIDENCE_COMPONENT_OFFSET))
-                .status(PythUtils.readInt32(data, STATUS_OFFSET))
-                .corporateAction(PythUtils.readInt32(data, CORPORATE_ACTION_OFFSET))
-                .publishSlot(Utils.readInt64(data, PUBLISH_SLOT_OFFSET))
+                .priceComponent(LayoutCodec.readInt64(data, offset + PRICE_COMPONENT_OFFSET))
+                .confidenceComponent(LayoutCodec.readInt64(data, offset + CONFIDENCE_COMPONENT_OFFSET))
+                .status(LayoutCodec.readInt32(data, offset + STATUS_OFFSET))
+                .corporateAction(LayoutCodec.readInt32(data, offset + CORPORATE_ACTION_OFFSET))
+                .publishSlot(LayoutCodec.readInt64(data, offset + PUBLISH_SLOT_OFFSET))
                 .build();
 
         // Calculate necessary values for setters
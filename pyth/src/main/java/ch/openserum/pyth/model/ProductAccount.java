@@ -1,5 +1,6 @@
 package ch.openserum.pyth.model;
 
+import ch.openserum.codec.LayoutCodec;
 import ch.openserum.pyth.utils.PythUtils;
 import lombok.Builder;
 import lombok.Getter;
@@ -8,7 +9,6 @@ import lombok.ToString;
 import org.p2p.solanaj.core.PublicKey;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,11 +36,11 @@ public class ProductAccount {
 
     public static ProductAccount readProductAccount(byte[] data) {
         final ProductAccount productAccount = ProductAccount.builder()
-                .magicNumber(PythUtils.readInt32(data, MAGIC_NUMBER_OFFSET))
-                .version(PythUtils.readInt32(data, VERSION_OFFSET))
-                .type(PythUtils.readInt32(data, TYPE_OFFSET))
-                .size(PythUtils.readInt32(data, SIZE_OFFSET))
-                .priceAccountKey(PublicKey.readPubkey(data, PRICE_ACCOUNT_KEY_OFFSET))
+                .magicNumber(LayoutCodec.readInt32(data, MAGIC_NUMBER_OFFSET))
+                .version(LayoutCodec.readInt32(data, VERSION_OFFSET))
+                .type(LayoutCodec.readInt32(data, TYPE_OFFSET))
+                .size(LayoutCodec.readInt32(data, SIZE_OFFSET))
+                .priceAccountKey(LayoutCodec.readPublicKey(data, PRICE_ACCOUNT_KEY_OFFSET))
                 .build();
 
         productAccount.setProductAttributes(new HashMap<>());
@@ -49,19 +49,13 @@ public class ProductAccount {
             int keyLength = data[index];
             index++;
             if (keyLength > 0) {
-                String key = new String(
-                        Arrays.copyOfRange(data, index, index + keyLength),
-                        StandardCharsets.UTF_8
-                );
+                String key = new String(data, index, keyLength, StandardCharsets.UTF_8);
                 index += keyLength;
 
                 int valueLength = data[index];
                 index++;
 
-                String value = new String(
-                        Arrays.copyOfRange(data, index, index + valueLength),
-                        StandardCharsets.UTF_8
-                );
+                String value = new String(data, index, valueLength, StandardCharsets.UTF_8);
                 index+= valueLength;
 
                 productAccount.getProductAttributes().put(key, value);
@@ -1,8 +1,6 @@
 package ch.openserum.pyth.utils;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Arrays;
+import ch.openserum.codec.LayoutCodec;
 
 public class PythUtils {
 
@@ -11,25 +9,11 @@ public class PythUtils {
     public static final int PRICE_INFO_SIZE = 32;
     public static final String EMPTY_PUBKEY = "11111111111111111111111111111111";
 
-    // TODO - Deduplicate this from Slab
+    /**
+     * @deprecated use {@link LayoutCodec#readInt32(byte[], int)}
+     */
+    @Deprecated
     public static int readInt32(byte[] data, int offset) {
-        // convert 4 bytes into an int.
-        // create a byte buffer and wrap the array
-        ByteBuffer bb = ByteBuffer.wrap(
-                Arrays.copyOfRange(
-                        data,
-                        offset,
-                        offset + 4
-                )
-        );
-
-        // if the file uses little endian as apposed to network
-        // (big endian, Java's native) format,
-        // then set the byte order of the ByteBuffer
-        bb.order(ByteOrder.LITTLE_ENDIAN);
-
-        // read your integers using ByteBuffer's getInt().
-        // four bytes converted into an integer!
-        return bb.getInt(0);
+        return LayoutCodec.readInt32(data, offset);
     }
 }
@@ -0,0 +1,395 @@
+package ch.openserum.serum.manager;
+
+import ch.openserum.serum.model.EventQueueCursor;
+import ch.openserum.serum.model.Market;
+import ch.openserum.serum.model.OrderBook;
+import ch.openserum.serum.model.SerumUtils;
+import ch.openserum.serum.model.TradeEvent;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a {@link Market}'s order books current from {@code accountSubscribe} notifications on its bids, asks and
+ * event queue, instead of polling with {@link ch.openserum.serum.model.MarketBuilder#build()}.
+ *
+ * Each notification is decoded into the market's existing {@link OrderBook}s, double buffered like
+ * {@link ch.openserum.serum.model.MarketBuilder#setReuseBuffers(boolean)}, and new fills are read with an
+ * {@link EventQueueCursor}. {@link Listener}s are called on the websocket thread, with the slot of the update.
+ *
+ * A background thread checks the connection every {@code reconnectIntervalMillis}, reconnects with the connector and
+ * subscribes again. Fills pushed while disconnected are still delivered, unless the event queue wrapped around in the
+ * meantime. Given an {@link RpcClient}, the order books are also fetched once after each reconnect, so they do not
+ * stay stale until their next change.
+ */
+public class MarketStream implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MarketStream.class.getName());
+    public static final long DEFAULT_RECONNECT_INTERVAL_MILLIS = 1_000L;
+
+    /**
+     * Receives the updates of a {@link MarketStream}. The slot is -1 when the websocket client does not report it.
+     */
+    public interface Listener {
+
+        /**
+         * Called when an order book changed. The previous data of this side stays valid until its next update, e.g.
+         * for {@link ch.openserum.serum.model.OrderBookDiff}.
+         */
+        default void onOrderBook(OrderBook orderBook, long slot) {
+        }
+
+        /**
+         * Called with the fills pushed to the event queue since its previous update, oldest first. The list and its
+         * {@link TradeEvent}s are reused by the next update, copy them to keep them longer.
+         */
+        default void onFills(List<TradeEvent> fills, long slot) {
+        }
+    }
+
+    private final Market market;
+    private final Supplier<SubscriptionWebSocketClient> connector;
+    private final RpcClient client;
+    private final long reconnectIntervalMillis;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final EventQueueCursor eventQueueCursor;
+
+    private final AccountState bids;
+    private final AccountState asks;
+    private final AccountState eventQueue;
+
+    // Notifications of older subscriptions are ignored
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicLong reconnects = new AtomicLong();
+    private volatile SubscriptionWebSocketClient webSocketClient;
+    private volatile long slot = -1;
+    private ScheduledExecutorService scheduler;
+
+    // Guarded by this stream's lock, a connection opened after close() is closed right away
+    private boolean closed;
+
+    public MarketStream(Market market, Supplier<SubscriptionWebSocketClient> connector) {
+        this(market, connector, null, DEFAULT_RECONNECT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param market market built with its decimals, e.g. with {@code setRetrieveDecimalsOnly(true)}. Its order books
+     *               are updated in place, do not build it again while streaming
+     * @param connector opens a new websocket connection, e.g.
+     *                  {@code () -> SubscriptionWebSocketClient.getInstance(Cluster.MAINNET.getEndpoint())}
+     * @param client RPC client fetching the order books after each reconnect, or null to wait for notifications
+     * @param reconnectIntervalMillis how often the connection is checked
+     */
+    public MarketStream(Market market, Supplier<SubscriptionWebSocketClient> connector, RpcClient client,
+                        long reconnectIntervalMillis) {
+        if (reconnectIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid reconnect interval: " + reconnectIntervalMillis);
+        }
+
+        this.market = market;
+        this.connector = connector;
+        this.client = client;
+        this.reconnectIntervalMillis = reconnectIntervalMillis;
+        this.eventQueueCursor = new EventQueueCursor(
+                market.getBaseDecimals(),
+                market.getQuoteDecimals(),
+                market.getBaseLotSize(),
+                market.getQuoteLotSize()
+        );
+
+        bids = new AccountState(market.getBids());
+        asks = new AccountState(market.getAsks());
+        eventQueue = new AccountState(market.getEventQueueKey());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Connects and subscribes in the background, then keeps reconnecting whenever the connection drops.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            throw new IllegalStateException("Market stream already started");
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "market-stream-" + market.getOwnAddress());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkConnection, 0, reconnectIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops reconnecting and closes the connection. Notifications still in flight are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        generation.incrementAndGet();
+        closeQuietly(webSocketClient);
+        webSocketClient = null;
+    }
+
+    /**
+     * Applies account data of the market's bids, asks or event queue, e.g. from a feed reporting slots. Data older
+     * than the last update of the same account is dropped, when both slots are known.
+     *
+     * @param account bids, asks or event queue address
+     * @param slot slot of the data, or -1 if unknown
+     * @param data account data, kept as order book data afterwards
+     * @return false if the data was older than the current state
+     */
+    public synchronized boolean onAccountData(PublicKey account, long slot, byte[] data) {
+        final AccountState state = getAccountState(account);
+        if (slot >= 0 && slot < state.slot) {
+            return false;
+        }
+
+        if (slot >= 0) {
+            state.slot = slot;
+            if (slot > this.slot) {
+                this.slot = slot;
+            }
+        }
+        state.updates++;
+
+        if (state == eventQueue) {
+            updateFills(data, slot);
+        } else {
+            updateOrderBook(state, data, slot);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return listener decoding {@code accountSubscribe} notifications of an account into this stream
+     */
+    public NotificationEventListener newListener(PublicKey account) {
+        return newListener(getAccountState(account), generation.get());
+    }
+
+    public Market getMarket() {
+        return market;
+    }
+
+    /**
+     * @return highest slot applied so far, or -1 if none was reported
+     */
+    public long getSlot() {
+        return slot;
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    public boolean isConnected() {
+        final SubscriptionWebSocketClient current = webSocketClient;
+        return current != null && current.isOpen();
+    }
+
+    private void checkConnection() {
+        synchronized (this) {
+            final SubscriptionWebSocketClient current = webSocketClient;
+            if (closed || (current != null && current.isOpen())) {
+                return;
+            }
+
+            if (current != null) {
+                reconnects.incrementAndGet();
+                LOGGER.info("Reconnecting market stream of " + market.getOwnAddress());
+                closeQuietly(current);
+                webSocketClient = null;
+            }
+        }
+
+        try {
+            // Connecting may block, so it runs without the lock
+            final SubscriptionWebSocketClient next = connector.get();
+            synchronized (this) {
+                if (closed) {
+                    closeQuietly(next);
+                    return;
+                }
+
+                webSocketClient = next;
+                subscribe(next);
+            }
+            resync();
+        } catch (RuntimeException e) {
+            LOGGER.warning("Unable to subscribe to market " + market.getOwnAddress() + ": " + e.getMessage());
+        }
+    }
+
+    private void subscribe(SubscriptionWebSocketClient webSocketClient) {
+        final int subscription = generation.incrementAndGet();
+
+        for (AccountState state : List.of(bids, asks, eventQueue)) {
+            webSocketClient.accountSubscribe(state.account.toBase58(), newListener(state, subscription));
+        }
+    }
+
+    /**
+     * Fetches both order books, skipping a side that was already notified since the new subscription.
+     */
+    private void resync() {
+        if (client == null) {
+            return;
+        }
+
+        final long bidUpdates;
+        final long askUpdates;
+        synchronized (this) {
+            bidUpdates = bids.updates;
+            askUpdates = asks.updates;
+        }
+
+        final Map<PublicKey, String> data = SerumUtils.getMultipleAccountsData(client, List.of(bids.account, asks.account));
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (bids.updates == bidUpdates && data.containsKey(bids.account)) {
+                onAccountData(bids.account, -1, SerumUtils.decodeBase64(data.get(bids.account), bids.spareData));
+            }
+            if (asks.updates == askUpdates && data.containsKey(asks.account)) {
+                onAccountData(asks.account, -1, SerumUtils.decodeBase64(data.get(asks.account), asks.spareData));
+            }
+        }
+    }
+
+    private NotificationEventListener newListener(AccountState state, int subscription) {
+        return data -> {
+            if (data == null || subscription != generation.get()) {
+                return;
+            }
+
+            Map<String, Object> objectMap = (Map<String, Object>) data;
+            long notificationSlot = -1;
+
+            // solanaj passes the account value only, slot-aware clients the whole result with its context
+            if (objectMap.get("context") instanceof Map) {
+                notificationSlot = ((Number) ((Map<String, Object>) objectMap.get("context")).get("slot")).longValue();
+                objectMap = (Map<String, Object>) objectMap.get("value");
+            }
+
+            final String base64 = (String) ((List) objectMap.get("data")).get(0);
+
+            try {
+                synchronized (this) {
+                    onAccountData(state.account, notificationSlot, SerumUtils.decodeBase64(base64, state.spareData));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warning("Unable to apply update of " + state.account + ": " + e.getMessage());
+            }
+        };
+    }
+
+    private void updateOrderBook(AccountState state, byte[] data, long slot) {
+        final boolean isBids = state == bids;
+        OrderBook orderBook = isBids ? market.getBidOrderBook() : market.getAskOrderBook();
+
+        if (orderBook == null) {
+            orderBook = OrderBook.readOrderBook(data);
+            orderBook.setBaseDecimals(market.getBaseDecimals());
+            orderBook.setQuoteDecimals(market.getQuoteDecimals());
+            orderBook.setBaseLotSize(market.getBaseLotSize());
+            orderBook.setQuoteLotSize(market.getQuoteLotSize());
+
+            if (isBids) {
+                market.setBidOrderBook(orderBook);
+            } else {
+                market.setAskOrderBook(orderBook);
+            }
+        } else {
+            final byte[] current = orderBook.getSlabView().getData();
+            if (Arrays.equals(data, current)) {
+                state.spareData = data;
+                return;
+            }
+
+            orderBook.wrap(data);
+            state.spareData = current;
+        }
+
+        for (Listener listener : listeners) {
+            listener.onOrderBook(orderBook, slot);
+        }
+    }
+
+    private void updateFills(byte[] data, long slot) {
+        final List<TradeEvent> fills = eventQueueCursor.poll(data);
+        eventQueue.spareData = data;
+
+        if (!fills.isEmpty()) {
+            for (Listener listener : listeners) {
+                listener.onFills(fills, slot);
+            }
+        }
+    }
+
+    private AccountState getAccountState(PublicKey account) {
+        if (bids.account.equals(account)) {
+            return bids;
+        } else if (asks.account.equals(account)) {
+            return asks;
+        } else if (eventQueue.account.equals(account)) {
+            return eventQueue;
+        }
+
+        throw new IllegalArgumentException("Not an account of market " + market.getOwnAddress() + ": " + account);
+    }
+
+    private static void closeQuietly(SubscriptionWebSocketClient webSocketClient) {
+        if (webSocketClient == null) {
+            return;
+        }
+
+        try {
+            webSocketClient.close();
+        } catch (RuntimeException e) {
+            LOGGER.fine("Unable to close websocket: " + e.getMessage());
+        }
+    }
+
+    // Guarded by the stream's lock
+    private static final class AccountState {
+
+        private final PublicKey account;
+        private long slot = -1;
+        private long updates;
+
+        // Decode target of the next update
+        private byte[] spareData;
+
+        private AccountState(PublicKey account) {
+            this.account = account;
+        }
+    }
+}
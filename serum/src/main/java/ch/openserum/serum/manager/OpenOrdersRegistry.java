@@ -0,0 +1,290 @@
+package ch.openserum.serum.manager;
+
+import ch.openserum.serum.model.OpenOrdersAccount;
+import ch.openserum.serum.model.SerumUtils;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the open orders account of each (market, owner) pair, so order entry does not issue a
+ * {@code getProgramAccounts} call every time.
+ *
+ * The open orders pubkey never changes once found and is kept for good. The decoded account is kept for
+ * {@code ttlMillis}, then refreshed with a single {@code getAccountInfo} on its known pubkey. {@link SerumManager}
+ * invalidates the decoded account after each of its own transactions, and {@link #subscribe} keeps it current from
+ * account notifications instead. Thread-safe.
+ */
+public class OpenOrdersRegistry {
+
+    public static final long DEFAULT_TTL_MILLIS = 5_000L;
+
+    private final RpcClient client;
+    private final long ttlMillis;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public OpenOrdersRegistry(RpcClient client) {
+        this(client, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param client RPC client used on cache misses
+     * @param ttlMillis how long a decoded account is served before it is fetched again
+     */
+    public OpenOrdersRegistry(RpcClient client, long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("Invalid TTL: " + ttlMillis);
+        }
+
+        this.client = client;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the open orders pubkey of an owner on a market, searching with {@code getProgramAccounts} only the
+     * first time.
+     *
+     * @param market market address
+     * @param owner owner wallet
+     * @return open orders pubkey, or null if the owner has no open orders account on this market
+     */
+    public PublicKey getOpenOrdersKey(PublicKey market, PublicKey owner) {
+        final Entry entry = entries.get(new Key(market, owner));
+        if (entry != null) {
+            return entry.openOrdersKey;
+        }
+
+        final OpenOrdersAccount openOrdersAccount = lookup(market, owner);
+        return openOrdersAccount == null ? null : openOrdersAccount.getOwnPubkey();
+    }
+
+    /**
+     * Returns the decoded open orders account of an owner on a market. Served from the cache while fresh, otherwise
+     * fetched with {@code getAccountInfo} if its pubkey is known, or searched with {@code getProgramAccounts} if not.
+     *
+     * @param market market address
+     * @param owner owner wallet
+     * @return open orders account, or null if the owner has no open orders account on this market
+     * @throws RuntimeException if the pubkey is known but the account can't be fetched, so callers never mistake a
+     * failed fetch for a missing account and create a second one
+     */
+    public OpenOrdersAccount getOpenOrdersAccount(PublicKey market, PublicKey owner) {
+        final Entry entry = entries.get(new Key(market, owner));
+        if (entry == null) {
+            return lookup(market, owner);
+        }
+
+        final OpenOrdersAccount cached = entry.openOrdersAccount;
+        if (cached != null && System.currentTimeMillis() - entry.loadedAtMillis < ttlMillis) {
+            return cached;
+        }
+
+        return update(market, owner, entry.openOrdersKey, getAccountData(entry.openOrdersKey));
+    }
+
+    /**
+     * Caches the open orders accounts of an owner on every market with a single {@code getProgramAccounts} call,
+     * e.g. at startup. When the owner has several open orders accounts on a market, the first one is cached, like
+     * {@link SerumUtils#findOpenOrdersAccountForOwner} does.
+     *
+     * @param owner owner wallet
+     * @return every open orders account of the owner, by market
+     */
+    public Map<PublicKey, List<OpenOrdersAccount>> preload(PublicKey owner) {
+        final Map<PublicKey, List<OpenOrdersAccount>> openOrdersAccounts =
+                SerumUtils.findOpenOrdersAccountsForOwner(client, owner);
+        putAll(owner, openOrdersAccounts);
+
+        return openOrdersAccounts;
+    }
+
+    /**
+     * Caches the first open orders account of each market, e.g. from
+     * {@link SerumUtils#readOpenOrdersAccounts(Map)}.
+     *
+     * @param owner owner wallet
+     * @param openOrdersAccounts open orders accounts of the owner, by market
+     */
+    public void putAll(PublicKey owner, Map<PublicKey, List<OpenOrdersAccount>> openOrdersAccounts) {
+        openOrdersAccounts.forEach((market, accounts) -> {
+            if (!accounts.isEmpty()) {
+                store(market, owner, accounts.get(0));
+            }
+        });
+    }
+
+    /**
+     * Records the open orders pubkey of an owner on a market, e.g. right after creating the account.
+     */
+    public void putOpenOrdersKey(PublicKey market, PublicKey owner, PublicKey openOrdersKey) {
+        entries.compute(new Key(market, owner), (key, entry) ->
+                entry != null && entry.openOrdersKey.equals(openOrdersKey) ? entry : new Entry(openOrdersKey)
+        );
+    }
+
+    /**
+     * Caches a decoded open orders account, whose own pubkey must be set.
+     */
+    public void put(OpenOrdersAccount openOrdersAccount) {
+        Objects.requireNonNull(openOrdersAccount.getOwnPubkey(), "Open orders account has no own pubkey");
+        store(openOrdersAccount.getMarket(), openOrdersAccount.getOwner(), openOrdersAccount);
+    }
+
+    /**
+     * Decodes and caches fresh open orders account data, e.g. from an account notification.
+     *
+     * @return decoded account
+     */
+    public OpenOrdersAccount update(PublicKey market, PublicKey owner, PublicKey openOrdersKey, byte[] data) {
+        final OpenOrdersAccount openOrdersAccount = OpenOrdersAccount.readOpenOrdersAccount(data);
+        openOrdersAccount.setOwnPubkey(openOrdersKey);
+
+        store(market, owner, openOrdersAccount);
+        return openOrdersAccount;
+    }
+
+    /**
+     * Drops the decoded account of an owner on a market, keeping its pubkey. The next
+     * {@link #getOpenOrdersAccount} fetches it again.
+     */
+    public void invalidate(PublicKey market, PublicKey owner) {
+        final Entry entry = entries.get(new Key(market, owner));
+        if (entry != null) {
+            entry.openOrdersAccount = null;
+        }
+    }
+
+    /**
+     * Drops the decoded account with the given open orders pubkey, keeping the pubkey.
+     */
+    public void invalidate(PublicKey openOrdersKey) {
+        for (Entry entry : entries.values()) {
+            if (entry.openOrdersKey.equals(openOrdersKey)) {
+                entry.openOrdersAccount = null;
+            }
+        }
+    }
+
+    /**
+     * Forgets an owner's open orders account on a market entirely, e.g. after closing it.
+     */
+    public void remove(PublicKey market, PublicKey owner) {
+        entries.remove(new Key(market, owner));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Keeps the decoded account of an owner on a market current from {@code accountSubscribe} notifications.
+     *
+     * @param webSocketClient subscription client
+     * @param market market address
+     * @param owner owner wallet
+     * @return false if the owner has no open orders account on this market
+     */
+    public boolean subscribe(SubscriptionWebSocketClient webSocketClient, PublicKey market, PublicKey owner) {
+        final PublicKey openOrdersKey = getOpenOrdersKey(market, owner);
+        if (openOrdersKey == null) {
+            return false;
+        }
+
+        webSocketClient.accountSubscribe(openOrdersKey.toBase58(), newListener(market, owner, openOrdersKey));
+        return true;
+    }
+
+    /**
+     * @return listener that decodes each account notification into this registry
+     */
+    public NotificationEventListener newListener(PublicKey market, PublicKey owner, PublicKey openOrdersKey) {
+        return data -> {
+            if (data != null) {
+                final Map<String, Object> objectMap = (Map<String, Object>) data;
+                final String base64 = (String) ((List) objectMap.get("data")).get(0);
+
+                update(market, owner, openOrdersKey, Base64.getDecoder().decode(base64));
+            }
+        };
+    }
+
+    private OpenOrdersAccount lookup(PublicKey market, PublicKey owner) {
+        final OpenOrdersAccount openOrdersAccount = SerumUtils.findOpenOrdersAccountForOwner(client, market, owner);
+        if (openOrdersAccount != null) {
+            store(market, owner, openOrdersAccount);
+        }
+
+        return openOrdersAccount;
+    }
+
+    private void store(PublicKey market, PublicKey owner, OpenOrdersAccount openOrdersAccount) {
+        final Entry entry = new Entry(openOrdersAccount.getOwnPubkey());
+        entry.loadedAtMillis = System.currentTimeMillis();
+        entry.openOrdersAccount = openOrdersAccount;
+        entries.put(new Key(market, owner), entry);
+    }
+
+    private byte[] getAccountData(PublicKey publicKey) {
+        final AccountInfo accountInfo;
+
+        try {
+            accountInfo = client.getApi().getAccountInfo(publicKey);
+        } catch (RpcException e) {
+            throw new RuntimeException("Unable to read open orders account " + publicKey, e);
+        }
+
+        if (accountInfo == null || accountInfo.getValue() == null) {
+            throw new RuntimeException("Unable to read open orders account " + publicKey);
+        }
+
+        return Base64.getDecoder().decode(accountInfo.getValue().getData().get(0));
+    }
+
+    private static final class Entry {
+
+        private final PublicKey openOrdersKey;
+        private volatile OpenOrdersAccount openOrdersAccount;
+        private volatile long loadedAtMillis;
+
+        private Entry(PublicKey openOrdersKey) {
+            this.openOrdersKey = openOrdersKey;
+        }
+    }
+
+    private static final class Key {
+
+        private final PublicKey market;
+        private final PublicKey owner;
+
+        private Key(PublicKey market, PublicKey owner) {
+            this.market = Objects.requireNonNull(market);
+            this.owner = Objects.requireNonNull(owner);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return market.equals(key.market) && owner.equals(key.owner);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * market.hashCode() + owner.hashCode();
+        }
+    }
+}
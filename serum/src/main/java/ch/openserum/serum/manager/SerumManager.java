@@ -20,6 +20,7 @@ import java.util.List;
 public class SerumManager {
 
     private final RpcClient client;
+    private final OpenOrdersRegistry openOrdersRegistry;
 
     // getMinimumBalanceForRentExemption(165) = 2039280
     private static final long MINIMUM_BALANCE_FOR_RENT_EXEMPTION_165 = 2039280L;
@@ -28,12 +29,26 @@ public class SerumManager {
     private static final long OPEN_ORDERS_MINIMUM_BALANCE_FOR_RENT_EXEMPTION = 23357760L;
 
     public SerumManager(final RpcClient client) {
+        this(client, new OpenOrdersRegistry(client));
+    }
+
+    /**
+     * @param client RPC client used to send transactions
+     * @param openOrdersRegistry cache of open orders accounts, shared with other managers or subscriptions
+     */
+    public SerumManager(final RpcClient client, final OpenOrdersRegistry openOrdersRegistry) {
         this.client = client;
+        this.openOrdersRegistry = openOrdersRegistry;
+    }
+
+    public OpenOrdersRegistry getOpenOrdersRegistry() {
+        return openOrdersRegistry;
     }
 
     /**
      * Places order at the specified {@link Market} with the given {@link Order}
-     * This method looks up the open orders account each time, which slows it down.
+     * The open orders account is looked up through the {@link OpenOrdersRegistry}, so only the first order on a market
+     * searches for it.
      *
      * @param account private key for the signer
      * @param market market being traded on
@@ -45,8 +60,7 @@ public class SerumManager {
     public String placeOrder(Account account, Market market, Order order, PublicKey baseWallet, PublicKey quoteWallet) {
         validateOrder(order);
 
-        final OpenOrdersAccount openOrders = SerumUtils.findOpenOrdersAccountForOwner(
-                client,
+        final OpenOrdersAccount openOrders = openOrdersRegistry.getOpenOrdersAccount(
                 market.getOwnAddress(),
                 account.getPublicKey()
         );
@@ -219,7 +233,13 @@ public class SerumManager {
             );
         }
 
-        return sendTransactionWithSigners(transaction, signers);
+        final String transactionId = sendTransactionWithSigners(transaction, signers);
+        if (null == openOrdersAccount && transactionId != null) {
+            openOrdersRegistry.putOpenOrdersKey(market.getOwnAddress(), account.getPublicKey(), openOrdersAddress);
+        }
+        openOrdersRegistry.invalidate(market.getOwnAddress(), account.getPublicKey());
+
+        return transactionId;
     }
 
     /**
@@ -299,7 +319,7 @@ public class SerumManager {
             );
         }
 
-        return sendTransactionWithSigners(transaction, signers);
+        return sendAndInvalidate(transaction, signers, openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -328,7 +348,10 @@ public class SerumManager {
                 )
         );
 
-        return sendTransactionWithSigners(transaction, List.of(account));
+        final String transactionId = sendTransactionWithSigners(transaction, List.of(account));
+        openOrdersAccounts.forEach(openOrdersRegistry::invalidate);
+
+        return transactionId;
     }
 
     /**
@@ -444,7 +467,7 @@ public class SerumManager {
             );
         }
 
-        return sendTransactionWithSigners(transaction, signers);
+        return sendAndInvalidate(transaction, signers, openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -470,7 +493,7 @@ public class SerumManager {
                 )
         );
 
-        return sendTransactionWithSigners(transaction, List.of(owner));
+        return sendAndInvalidate(transaction, List.of(owner), openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -511,7 +534,7 @@ public class SerumManager {
                 )
         );
 
-        return sendTransactionWithSigners(transaction, List.of(owner));
+        return sendAndInvalidate(transaction, List.of(owner), openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -526,22 +549,25 @@ public class SerumManager {
         final Transaction transaction = new Transaction();
 
         // Get Open orders public key
-        final OpenOrdersAccount openOrdersAccount = SerumUtils.findOpenOrdersAccountForOwner(
-                client,
+        final PublicKey openOrdersKey = openOrdersRegistry.getOpenOrdersKey(
                 market.getOwnAddress(),
                 owner.getPublicKey()
         );
 
+        if (openOrdersKey == null) {
+            throw new RuntimeException("Unable to find open orders account.");
+        }
+
         transaction.addInstruction(
                 SerumProgram.cancelOrderByClientId(
                         market,
-                        openOrdersAccount.getOwnPubkey(),
+                        openOrdersKey,
                         owner.getPublicKey(),
                         clientId
                 )
         );
 
-        return sendTransactionWithSigners(transaction, List.of(owner));
+        return sendAndInvalidate(transaction, List.of(owner), openOrdersKey);
     }
 
     public String cancelAllOrdersAndSettle(Account owner,
@@ -633,7 +659,7 @@ public class SerumManager {
             );
         }
 
-        return sendTransactionWithSigners(transaction, signers);
+        return sendAndInvalidate(transaction, signers, openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -664,7 +690,7 @@ public class SerumManager {
                 )
         );
 
-        return sendTransactionWithSigners(transaction, List.of(owner));
+        return sendAndInvalidate(transaction, List.of(owner), openOrdersAccount.getOwnPubkey());
     }
 
     /**
@@ -697,8 +723,7 @@ public class SerumManager {
      * @return Solana transaction ID
      */
     public String settleFunds(Market market, Account account, PublicKey baseWallet, PublicKey quoteWallet) {
-        final OpenOrdersAccount openOrdersAccount = SerumUtils.findOpenOrdersAccountForOwner(
-                client,
+        final OpenOrdersAccount openOrdersAccount = openOrdersRegistry.getOpenOrdersAccount(
                 market.getOwnAddress(),
                 account.getPublicKey()
         );
@@ -720,29 +745,23 @@ public class SerumManager {
     }
 
     public void setOrderPrices(Order order, Market market) {
-        long longPrice = SerumUtils.priceNumberToLots(
-                order.getFloatPrice(),
-                market
-        );
+        final MarketScale marketScale = market.getMarketScale();
 
-        long longQuantity = SerumUtils.baseSizeNumberToLots(
-                order.getFloatQuantity(),
-                market.getBaseDecimals(),
-                market.getBaseLotSize()
-        );
+        order.setPrice(marketScale.priceNumberToLots(order.getFloatPrice()));
+        order.setQuantity(marketScale.baseSizeNumberToLots(order.getFloatQuantity()));
+        order.setMaxQuoteQuantity(marketScale.getMaxQuoteQuantity(order.getFloatPrice(), order.getFloatQuantity()));
+    }
 
-        long maxQuoteQuantity = SerumUtils.getMaxQuoteQuantity(
-                order.getFloatPrice(),
-                order.getFloatQuantity(),
-                market
-        );
+    /**
+     * Sends a transaction, then drops the cached contents of the open orders account it changes.
+     */
+    private String sendAndInvalidate(Transaction transaction, List<Account> signers, PublicKey openOrdersKey) {
+        final String transactionId = sendTransactionWithSigners(transaction, signers);
+        openOrdersRegistry.invalidate(openOrdersKey);
 
-        order.setPrice(longPrice);
-        order.setQuantity(longQuantity);
-        order.setMaxQuoteQuantity(maxQuoteQuantity);
+        return transactionId;
     }
 
-
     private String sendTransactionWithSigners(Transaction transaction, List<Account> signers) {
         String result = null;
         try {
@@ -1,7 +1,5 @@
 package ch.openserum.serum.model;
 
-import java.util.Arrays;
-
 /**
  * Class to represent a Serum account's flags
  */
@@ -22,6 +20,10 @@ public class AccountFlags {
         this.bitMask = bitMask;
     }
 
+    public byte getBitMask() {
+        return bitMask;
+    }
+
     public boolean isInitialized() {
         return ((bitMask & INITIALIZED) == INITIALIZED);
     }
@@ -51,11 +53,11 @@ public class AccountFlags {
     }
 
     public static AccountFlags readAccountFlags(byte[] data) {
-        return new AccountFlags(Arrays.copyOfRange(data, 5, 12)[0]);
+        return new AccountFlags(data[5]);
     }
 
     public static AccountFlags readAccountFlags(byte[] data, int offset) {
-        return new AccountFlags(Arrays.copyOfRange(data, offset, offset + 7)[0]);
+        return new AccountFlags(data[offset]);
     }
 
     @Override
@@ -0,0 +1,439 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.FixedPoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds rolling OHLCV bars from the fills of one Serum market, at several intervals at once.
+ *
+ * Fills are deduplicated by event sequence number, so overlapping {@link EventQueue} snapshots can be fed as they
+ * come: only fills newer than the last one seen are counted. Serum pushes one maker fill per match, at that maker's
+ * price, and a single taker fill per order at its average price, so only maker fills are counted.
+ *
+ * The first snapshot passed to {@link #onTrades(List, long)} only sets where counting starts: the fills still in the
+ * queue may be long past and would all land in the current bars. When feeding {@link #onTrade(TradeEvent, long)}
+ * directly, e.g. from an {@link EventQueueCursor}'s first poll, {@link #seed(long)} does the same.
+ *
+ * Bars are built from the exact {@link FixedPoint} price and quantity of each fill, at the scales of the first fill
+ * counted, and kept in preallocated primitive rings, {@code history} bars per interval. Not thread-safe, feed it from
+ * one thread, e.g. a {@link TradeTape.Consumer}.
+ */
+public class CandleAggregator {
+
+    public static final long[] DEFAULT_INTERVALS = {1_000L, 60_000L, 300_000L, 3_600_000L};
+
+    private static final long U32_MASK = 0xFFFFFFFFL;
+    private static final long U32_HALF = 0x80000000L;
+
+    private final List<CandleSeries> series = new ArrayList<>();
+    private final List<BarListener> listeners = new ArrayList<>();
+
+    private boolean started;
+    private long lastSeqNum;
+
+    // Scales of every bar, set by the first fill counted
+    private int priceScale = -1;
+    private int quantityScale = -1;
+
+    /**
+     * Keeps 1s, 1m, 5m and 1h bars.
+     *
+     * @param history number of bars kept per interval
+     */
+    public CandleAggregator(int history) {
+        this(history, DEFAULT_INTERVALS);
+    }
+
+    /**
+     * @param history number of bars kept per interval
+     * @param intervalMillis bar intervals, in milliseconds
+     */
+    public CandleAggregator(int history, long... intervalMillis) {
+        if (history < 1) {
+            throw new IllegalArgumentException("History must hold at least one bar: " + history);
+        }
+
+        for (long interval : intervalMillis) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("Invalid interval: " + interval);
+            }
+            series.add(new CandleSeries(interval, history));
+        }
+    }
+
+    public void addListener(BarListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BarListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a fill to the current bar of every interval, closing bars that ended before {@code timestampMillis}.
+     *
+     * @param tradeEvent decoded fill
+     * @param timestampMillis time of the fill, e.g. when the snapshot holding it was fetched
+     * @return true if the fill was counted, false for taker fills and fills seen before
+     */
+    public boolean onTrade(TradeEvent tradeEvent, long timestampMillis) {
+        // seqNum is a u32, a fill is new if it is less than half the sequence space ahead
+        final long seqNum = tradeEvent.getSeqNum();
+        final long distance = (seqNum - lastSeqNum) & U32_MASK;
+        if (started && (distance == 0 || distance >= U32_HALF)) {
+            return false;
+        }
+
+        started = true;
+        lastSeqNum = seqNum;
+
+        if (tradeEvent.getEventQueueFlags() == null || !tradeEvent.getEventQueueFlags().isMaker()) {
+            return false;
+        }
+
+        if (priceScale < 0) {
+            priceScale = tradeEvent.getPriceScale();
+            quantityScale = tradeEvent.getQuantityScale();
+        }
+
+        final long price = rescale(tradeEvent.getFixedPrice(), tradeEvent.getPriceScale(), priceScale);
+        final long quantity = rescale(tradeEvent.getFixedQuantity(), tradeEvent.getQuantityScale(), quantityScale);
+        final long quoteQuantity = FixedPoint.multiplyDivideSaturated(price, quantity, 1, -quantityScale);
+        for (int i = 0; i < series.size(); i++) {
+            final CandleSeries candleSeries = series.get(i);
+            if (candleSeries.roll(timestampMillis)) {
+                notifyBarClose(candleSeries);
+            }
+            candleSeries.add(timestampMillis, price, quantity, quoteQuantity);
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds every new maker fill of a snapshot, oldest first. Lists from {@link EventQueue#getEvents()} (newest first)
+     * and from {@link EventQueueCursor#poll(byte[])} (oldest first) are both accepted. The first snapshot only seeds
+     * the last sequence number, none of its fills are counted.
+     *
+     * @param tradeEvents fills of one snapshot
+     * @param timestampMillis time of the snapshot
+     * @return number of fills counted
+     */
+    public int onTrades(List<TradeEvent> tradeEvents, long timestampMillis) {
+        final int size = tradeEvents.size();
+        final boolean newestFirst = size > 1
+                && ((tradeEvents.get(0).getSeqNum() - tradeEvents.get(size - 1).getSeqNum()) & U32_MASK) < U32_HALF;
+
+        if (!started) {
+            if (size > 0) {
+                seed(tradeEvents.get(newestFirst ? 0 : size - 1).getSeqNum());
+            }
+            return 0;
+        }
+
+        int counted = 0;
+        for (int i = 0; i < size; i++) {
+            if (onTrade(tradeEvents.get(newestFirst ? size - 1 - i : i), timestampMillis)) {
+                counted++;
+            }
+        }
+
+        return counted;
+    }
+
+    /**
+     * Skips every fill up to {@code seqNum}, only fills pushed after it are counted.
+     *
+     * @param seqNum sequence number of the newest fill already accounted for
+     */
+    public void seed(long seqNum) {
+        started = true;
+        lastSeqNum = seqNum & U32_MASK;
+    }
+
+    /**
+     * Closes every bar that ended before {@code nowMillis}, so bar close listeners fire even when no fill follows.
+     *
+     * @param nowMillis current time
+     */
+    public void advance(long nowMillis) {
+        for (int i = 0; i < series.size(); i++) {
+            final CandleSeries candleSeries = series.get(i);
+            if (candleSeries.roll(nowMillis)) {
+                notifyBarClose(candleSeries);
+            }
+        }
+    }
+
+    /**
+     * @return bars of every interval, in the order they were passed to the constructor
+     */
+    public List<CandleSeries> getSeries() {
+        return Collections.unmodifiableList(series);
+    }
+
+    /**
+     * @param intervalMillis bar interval
+     * @return bars of the given interval, or null if it is not aggregated
+     */
+    public CandleSeries getSeries(long intervalMillis) {
+        for (CandleSeries candleSeries : series) {
+            if (candleSeries.getIntervalMillis() == intervalMillis) {
+                return candleSeries;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return sequence number of the newest fill seen, -1 before the first fill
+     */
+    public long getLastSeqNum() {
+        return started ? lastSeqNum : -1;
+    }
+
+    // A market's scales never change, this only guards against fills of mixed origin
+    private static long rescale(long mantissa, int fromScale, int toScale) {
+        return fromScale == toScale ? mantissa : FixedPoint.multiplyDivideSaturated(mantissa, 1, 1, toScale - fromScale);
+    }
+
+    private static long addSaturated(long a, long b) {
+        final long sum = a + b;
+
+        // Overflow if both operands have the sign opposite to the sum
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+
+        return sum;
+    }
+
+    private void notifyBarClose(CandleSeries candleSeries) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onBarClose(candleSeries);
+        }
+    }
+
+    /**
+     * Called when a bar closes.
+     */
+    @FunctionalInterface
+    public interface BarListener {
+
+        /**
+         * @param candleSeries series of the closed bar, which is its most recent bar ({@code ago = 0})
+         */
+        void onBarClose(CandleSeries candleSeries);
+    }
+
+    /**
+     * Bars of one interval, newest first: accessors take the number of bars {@code ago}, 0 being the most recent one.
+     */
+    public class CandleSeries {
+
+        private final long intervalMillis;
+
+        // Prices at priceScale, volumes in base tokens at quantityScale and in quote tokens at priceScale
+        private final long[] openTime;
+        private final long[] open;
+        private final long[] high;
+        private final long[] low;
+        private final long[] close;
+        private final long[] volume;
+        private final long[] quoteVolume;
+        private final int[] tradeCount;
+
+        // Ring index of the most recent bar, and whether it still takes fills
+        private int last = -1;
+        private int size;
+        private boolean lastOpen;
+
+        CandleSeries(long intervalMillis, int history) {
+            this.intervalMillis = intervalMillis;
+            this.openTime = new long[history];
+            this.open = new long[history];
+            this.high = new long[history];
+            this.low = new long[history];
+            this.close = new long[history];
+            this.volume = new long[history];
+            this.quoteVolume = new long[history];
+            this.tradeCount = new int[history];
+        }
+
+        /**
+         * Closes the most recent bar if it ended before {@code timestampMillis}.
+         *
+         * @return true if a bar was closed
+         */
+        boolean roll(long timestampMillis) {
+            if (lastOpen && timestampMillis >= openTime[last] + intervalMillis) {
+                lastOpen = false;
+                return true;
+            }
+
+            return false;
+        }
+
+        void add(long timestampMillis, long price, long quantity, long quoteQuantity) {
+            if (!lastOpen) {
+                last = (last + 1) % openTime.length;
+                size = Math.min(size + 1, openTime.length);
+                lastOpen = true;
+
+                openTime[last] = timestampMillis - Math.floorMod(timestampMillis, intervalMillis);
+                open[last] = price;
+                high[last] = price;
+                low[last] = price;
+                volume[last] = 0;
+                quoteVolume[last] = 0;
+                tradeCount[last] = 0;
+            }
+
+            high[last] = Math.max(high[last], price);
+            low[last] = Math.min(low[last], price);
+            close[last] = price;
+            volume[last] = addSaturated(volume[last], quantity);
+            quoteVolume[last] = addSaturated(quoteVolume[last], quoteQuantity);
+            tradeCount[last]++;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        /**
+         * @return number of bars held, at most {@code history}
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return true if the bar {@code ago} bars back is complete
+         */
+        public boolean isClosed(int ago) {
+            index(ago);
+            return ago > 0 || !lastOpen;
+        }
+
+        /**
+         * @return start of the bar, in milliseconds, aligned to the interval
+         */
+        public long getOpenTime(int ago) {
+            return openTime[index(ago)];
+        }
+
+        public double getOpen(int ago) {
+            return FixedPoint.toDouble(getFixedOpen(ago), priceScale);
+        }
+
+        public double getHigh(int ago) {
+            return FixedPoint.toDouble(getFixedHigh(ago), priceScale);
+        }
+
+        public double getLow(int ago) {
+            return FixedPoint.toDouble(getFixedLow(ago), priceScale);
+        }
+
+        public double getClose(int ago) {
+            return FixedPoint.toDouble(getFixedClose(ago), priceScale);
+        }
+
+        /**
+         * @return traded quantity, in base tokens
+         */
+        public double getVolume(int ago) {
+            return FixedPoint.toDouble(getFixedVolume(ago), quantityScale);
+        }
+
+        /**
+         * @return traded value, in quote tokens
+         */
+        public double getQuoteVolume(int ago) {
+            return FixedPoint.toDouble(getFixedQuoteVolume(ago), priceScale);
+        }
+
+        /**
+         * @return volume weighted average price of the bar
+         */
+        public double getVwap(int ago) {
+            final int index = index(ago);
+            return volume[index] == 0
+                    ? getClose(ago)
+                    : FixedPoint.toDouble(quoteVolume[index], priceScale) / FixedPoint.toDouble(volume[index], quantityScale);
+        }
+
+        /**
+         * @return open price at {@link #getPriceScale()}
+         */
+        public long getFixedOpen(int ago) {
+            return open[index(ago)];
+        }
+
+        public long getFixedHigh(int ago) {
+            return high[index(ago)];
+        }
+
+        public long getFixedLow(int ago) {
+            return low[index(ago)];
+        }
+
+        public long getFixedClose(int ago) {
+            return close[index(ago)];
+        }
+
+        /**
+         * @return traded quantity in base tokens, at {@link #getQuantityScale()}
+         */
+        public long getFixedVolume(int ago) {
+            return volume[index(ago)];
+        }
+
+        /**
+         * @return traded value in quote tokens, at {@link #getPriceScale()}
+         */
+        public long getFixedQuoteVolume(int ago) {
+            return quoteVolume[index(ago)];
+        }
+
+        /**
+         * @return volume weighted average price at {@link #getPriceScale()}, rounded half away from zero
+         */
+        public long getFixedVwap(int ago) {
+            final int index = index(ago);
+            return volume[index] == 0
+                    ? close[index]
+                    : FixedPoint.multiplyDivideSaturated(quoteVolume[index], 1, volume[index], quantityScale);
+        }
+
+        /**
+         * @return {@link FixedPoint} scale of the prices and quote volumes, -1 before the first fill
+         */
+        public int getPriceScale() {
+            return priceScale;
+        }
+
+        /**
+         * @return {@link FixedPoint} scale of the volumes, -1 before the first fill
+         */
+        public int getQuantityScale() {
+            return quantityScale;
+        }
+
+        public int getTradeCount(int ago) {
+            return tradeCount[index(ago)];
+        }
+
+        private int index(int ago) {
+            if (ago < 0 || ago >= size) {
+                throw new IndexOutOfBoundsException("Bar out of range: " + ago + ", size: " + size);
+            }
+
+            return Math.floorMod(last - ago, openTime.length);
+        }
+    }
+}
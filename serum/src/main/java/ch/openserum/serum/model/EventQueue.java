@@ -1,10 +1,10 @@
 package ch.openserum.serum.model;
 
+import ch.openserum.codec.LayoutCodec;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
-import org.p2p.solanaj.utils.ByteUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -56,21 +56,24 @@ const EVENT = struct([
 public class EventQueue {
 
     // sizes
-    private static final int HEADER_LAYOUT_SPAN = 37;
-    private static final int NODE_LAYOUT_SPAN = 88;
+    static final int HEADER_LAYOUT_SPAN = 37;
+    static final int NODE_LAYOUT_SPAN = 88;
 
     // offsets
-    private static final int HEAD_OFFSET = 13;
-    private static final int COUNT_OFFSET = 21;
-    private static final int SEQ_NUM_OFFSET = 29;
+    static final int HEAD_OFFSET = 13;
+    static final int COUNT_OFFSET = 21;
+    static final int SEQ_NUM_OFFSET = 29;
 
     // event offsets
-    private static final int NATIVE_QUANTITY_RELEASED_OFFSET = 8;
-    private static final int NATIVE_QUANTITY_PAID_OFFSET = NATIVE_QUANTITY_RELEASED_OFFSET + U64_SIZE_BYTES;
-    private static final int NATIVE_FEE_OR_REBATE_OFFSET = NATIVE_QUANTITY_PAID_OFFSET + U64_SIZE_BYTES;
-    private static final int ORDER_ID_OFFSET = NATIVE_FEE_OR_REBATE_OFFSET + U64_SIZE_BYTES;
-    private static final int OPEN_ORDERS_OFFSET = ORDER_ID_OFFSET + U128_SIZE_BYTES;
-    private static final int CLIENT_ORDER_ID_OFFSET = OPEN_ORDERS_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int EVENT_FLAGS_OFFSET = 0;
+    static final int OPEN_ORDERS_SLOT_OFFSET = 1;
+    static final int FEE_TIER_OFFSET = 2;
+    static final int NATIVE_QUANTITY_RELEASED_OFFSET = 8;
+    static final int NATIVE_QUANTITY_PAID_OFFSET = NATIVE_QUANTITY_RELEASED_OFFSET + U64_SIZE_BYTES;
+    static final int NATIVE_FEE_OR_REBATE_OFFSET = NATIVE_QUANTITY_PAID_OFFSET + U64_SIZE_BYTES;
+    static final int ORDER_ID_OFFSET = NATIVE_FEE_OR_REBATE_OFFSET + U64_SIZE_BYTES;
+    static final int OPEN_ORDERS_OFFSET = ORDER_ID_OFFSET + U128_SIZE_BYTES;
+    static final int CLIENT_ORDER_ID_OFFSET = OPEN_ORDERS_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
 
     private AccountFlags accountFlags;
     private int head;
@@ -78,111 +81,214 @@ public class EventQueue {
     private int seqNum;
     private List<TradeEvent> events;
 
+    // Every TradeEvent decoded so far, reused by reload()
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<TradeEvent> tradeEventPool = new ArrayList<>();
+
     private long baseLotSize;
     private long quoteLotSize;
     private byte baseDecimals;
     private byte quoteDecimals;
 
+    // Derived from the decimals and lot sizes, computed by getPriceScale() and reset by their setters
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int priceScale = -1;
+
     /**
      * Returns an {@link EventQueue} object which is built from binary data.
      *
      * @param eventQueueData binary data
      * @return built {@link EventQueue} object
      */
-    @SuppressWarnings("DuplicatedCode")
     public static EventQueue readEventQueue(byte[] eventQueueData, byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        return readEventQueue(eventQueueData, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize, null);
+    }
+
+    /**
+     * Same as {@link #readEventQueue(byte[], byte, byte, long, long)}, but only decodes the fills accepted by
+     * {@code filter}.
+     *
+     * @param eventQueueData binary data
+     * @param filter raw event filter, or null to decode every fill
+     * @return built {@link EventQueue} object
+     */
+    public static EventQueue readEventQueue(byte[] eventQueueData, byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize, EventQueueFilter filter) {
         EventQueue eventQueue = new EventQueue();
-        List<TradeEvent> events = new ArrayList<>();
-        eventQueue.setEvents(events);
+        eventQueue.setEvents(new ArrayList<>());
 
         eventQueue.setBaseDecimals(baseDecimals);
         eventQueue.setQuoteDecimals(quoteDecimals);
         eventQueue.setBaseLotSize(baseLotSize);
         eventQueue.setQuoteLotSize(quoteLotSize);
 
+        eventQueue.reload(eventQueueData, filter);
+        return eventQueue;
+    }
+
+    /**
+     * Decodes new event queue data into this {@link EventQueue}, reusing its events list and {@link TradeEvent}
+     * objects. Events previously returned by {@link #getEvents()} are overwritten.
+     *
+     * @param eventQueueData binary data
+     */
+    public void reload(byte[] eventQueueData) {
+        reload(eventQueueData, null);
+    }
+
+    /**
+     * Same as {@link #reload(byte[])}, but only decodes the fills accepted by {@code filter}. Rejected events are
+     * skipped on their raw bytes, nothing is allocated for them.
+     *
+     * @param eventQueueData binary data
+     * @param filter raw event filter, or null to decode every fill
+     */
+    public void reload(byte[] eventQueueData, EventQueueFilter filter) {
         // Verify that the "serum" padding exists
         SerumUtils.validateSerumData(eventQueueData);
 
-        // Read account flags
-        AccountFlags accountFlags = AccountFlags.readAccountFlags(eventQueueData);
-        eventQueue.setAccountFlags(accountFlags);
+        // Read account flags, they never change after initialization
+        if (accountFlags == null) {
+            accountFlags = AccountFlags.readAccountFlags(eventQueueData);
+        }
 
         // Read rest of EVENT_QUEUE_HEADER (head, count, seqNum ints)
-        int head = (int) Utils.readUint32(eventQueueData, HEAD_OFFSET);
-        int count = (int) Utils.readUint32(eventQueueData, COUNT_OFFSET);
-        int seqNum = (int) Utils.readUint32(eventQueueData, SEQ_NUM_OFFSET);
-
-        eventQueue.setHead(head);
-        eventQueue.setCount(count);
-        eventQueue.setSeqNum(seqNum);
+        head = LayoutCodec.readInt32(eventQueueData, HEAD_OFFSET);
+        count = LayoutCodec.readInt32(eventQueueData, COUNT_OFFSET);
+        seqNum = LayoutCodec.readInt32(eventQueueData, SEQ_NUM_OFFSET);
 
         // allocLen = number of elements
         int allocLen = (eventQueueData.length - HEADER_LAYOUT_SPAN) / NODE_LAYOUT_SPAN;
+        int eventCount = 0;
+        int priceScale = getPriceScale();
 
         for (int i = 0; i < allocLen; ++i) {
             int nodeIndex = (head + count + allocLen - 1 - i) % allocLen;
             int eventOffset = HEADER_LAYOUT_SPAN + (nodeIndex * NODE_LAYOUT_SPAN);
 
-            // read in 88 bytes of event queue data
-            byte[] eventData = Arrays.copyOfRange(eventQueueData, eventOffset, eventOffset + NODE_LAYOUT_SPAN);
-            byte eventFlags = eventData[0];
-            boolean fill = (eventFlags & 1) == 1;
-            boolean out = (eventFlags & 2) == 2;
-            boolean bid = (eventFlags & 4) == 4;
-            boolean maker = (eventFlags & 8) == 8;
-
-            EventQueueFlags eventQueueFlags = new EventQueueFlags(fill, out, bid, maker);
-
-            byte openOrdersSlot = eventData[1];
-            byte feeTier = eventData[2];
-
-            // blob = 3-7 - ignore
-            // Amount the user received (quantity)
-            long nativeQuantityReleased = ByteUtils.readUint64(eventData, NATIVE_QUANTITY_RELEASED_OFFSET).longValue();
-
-            // Amount the user paid (price)
-            long nativeQuantityPaid = ByteUtils.readUint64(eventData, NATIVE_QUANTITY_PAID_OFFSET).longValue();
-
-            long nativeFeeOrRebate = ByteUtils.readUint64(eventData, NATIVE_FEE_OR_REBATE_OFFSET).longValue();
-            byte[] orderId = Arrays.copyOfRange(eventData, ORDER_ID_OFFSET, OPEN_ORDERS_OFFSET);
-            PublicKey openOrders = PublicKey.readPubkey(eventData, OPEN_ORDERS_OFFSET);
-            long clientOrderId = ByteUtils.readUint64(eventData, CLIENT_ORDER_ID_OFFSET).longValue();
-
-            if (fill && nativeQuantityPaid > 0) {
-                TradeEvent tradeEvent = new TradeEvent();
-                tradeEvent.setOpenOrders(openOrders);
-                tradeEvent.setNativeQuantityPaid(nativeQuantityPaid);
-                tradeEvent.setOrderId(orderId);
-                tradeEvent.setEventQueueFlags(eventQueueFlags);
-                tradeEvent.setOpenOrdersSlot(openOrdersSlot);
-                tradeEvent.setFeeTier(feeTier);
-                tradeEvent.setNativeQuantityReleased(nativeQuantityReleased);
-                tradeEvent.setNativeFeeOrRebate(nativeFeeOrRebate);
-                tradeEvent.setClientOrderId(clientOrderId);
-
-                if (bid) {
-                    double priceBeforeFees = maker ? nativeQuantityPaid + nativeFeeOrRebate : nativeQuantityPaid - nativeFeeOrRebate;
-                    double top = priceBeforeFees * SerumUtils.getBaseSplTokenMultiplier(baseDecimals);
-                    double bottom = SerumUtils.getQuoteSplTokenMultiplier(quoteDecimals) * nativeQuantityReleased;
-                    float price = (float) (top / bottom);
-
-                    tradeEvent.setFloatPrice(price);
-                    tradeEvent.setFloatQuantity((float) (nativeQuantityReleased / SerumUtils.getBaseSplTokenMultiplier(baseDecimals)));
-
+            if (isTradeEvent(eventQueueData, eventOffset) && (filter == null || filter.test(eventQueueData, eventOffset))) {
+                TradeEvent tradeEvent;
+                if (eventCount < tradeEventPool.size()) {
+                    tradeEvent = tradeEventPool.get(eventCount);
                 } else {
-                    double priceBeforeFees = maker ? nativeQuantityReleased - nativeFeeOrRebate : nativeQuantityReleased + nativeFeeOrRebate;
-                    double top = priceBeforeFees * SerumUtils.getBaseSplTokenMultiplier(baseDecimals);
-                    double bottom = SerumUtils.getQuoteSplTokenMultiplier(quoteDecimals) * nativeQuantityPaid;
-                    float price = (float) (top / bottom);
-
-                    tradeEvent.setFloatPrice(price);
-                    tradeEvent.setFloatQuantity((float) (nativeQuantityPaid / SerumUtils.getBaseSplTokenMultiplier(baseDecimals)));
+                    tradeEvent = new TradeEvent();
+                    tradeEventPool.add(tradeEvent);
                 }
+                eventCount++;
 
-                eventQueue.getEvents().add(tradeEvent);
+                // the newest event has sequence number seqNum - 1
+                long eventSeqNum = Integer.toUnsignedLong(seqNum - 1 - i);
+                readTradeEvent(eventQueueData, eventOffset, eventSeqNum, baseDecimals, quoteDecimals, priceScale, tradeEvent);
             }
         }
 
-        return eventQueue;
+        events.clear();
+        events.addAll(tradeEventPool.subList(0, eventCount));
+    }
+
+    public void setBaseDecimals(byte baseDecimals) {
+        this.baseDecimals = baseDecimals;
+        priceScale = -1;
+    }
+
+    public void setQuoteDecimals(byte quoteDecimals) {
+        this.quoteDecimals = quoteDecimals;
+        priceScale = -1;
+    }
+
+    public void setBaseLotSize(long baseLotSize) {
+        this.baseLotSize = baseLotSize;
+        priceScale = -1;
+    }
+
+    public void setQuoteLotSize(long quoteLotSize) {
+        this.quoteLotSize = quoteLotSize;
+        priceScale = -1;
+    }
+
+    /**
+     * @return {@link ch.openserum.codec.FixedPoint} scale of {@link TradeEvent#getFixedPrice()}, see
+     * {@link OrderBook#getPriceScale()}. Computed once, until the decimals or lot sizes change.
+     */
+    public int getPriceScale() {
+        if (priceScale < 0) {
+            priceScale = SerumUtils.getPriceScale(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+        }
+
+        return priceScale;
+    }
+
+    /**
+     * Decodes the fill event at {@code eventOffset} into {@code tradeEvent}, with its fixed-point price at
+     * {@code priceScale}.
+     */
+    static void readTradeEvent(byte[] eventQueueData, int eventOffset, long eventSeqNum, byte baseDecimals,
+                               byte quoteDecimals, int priceScale, TradeEvent tradeEvent) {
+        byte eventFlags = eventQueueData[eventOffset + EVENT_FLAGS_OFFSET];
+        long nativeQuantityPaid = LayoutCodec.readInt64(eventQueueData, eventOffset + NATIVE_QUANTITY_PAID_OFFSET);
+        boolean bid = (eventFlags & 4) == 4;
+        boolean maker = (eventFlags & 8) == 8;
+
+        // blob = 3-7 - ignore
+        // Amount the user received (quantity)
+        long nativeQuantityReleased = LayoutCodec.readInt64(eventQueueData, eventOffset + NATIVE_QUANTITY_RELEASED_OFFSET);
+        long nativeFeeOrRebate = LayoutCodec.readInt64(eventQueueData, eventOffset + NATIVE_FEE_OR_REBATE_OFFSET);
+
+        tradeEvent.setOpenOrders(readOpenOrders(eventQueueData, eventOffset + OPEN_ORDERS_OFFSET, tradeEvent.getOpenOrders()));
+        tradeEvent.setNativeQuantityPaid(nativeQuantityPaid);
+        tradeEvent.setOrderId(readOrderId(eventQueueData, eventOffset + ORDER_ID_OFFSET, tradeEvent.getOrderId()));
+        tradeEvent.setEventQueueFlags(EventQueueFlags.of(eventFlags));
+        tradeEvent.setOpenOrdersSlot(eventQueueData[eventOffset + OPEN_ORDERS_SLOT_OFFSET]);
+        tradeEvent.setFeeTier(eventQueueData[eventOffset + FEE_TIER_OFFSET]);
+        tradeEvent.setNativeQuantityReleased(nativeQuantityReleased);
+        tradeEvent.setNativeFeeOrRebate(nativeFeeOrRebate);
+        tradeEvent.setClientOrderId(LayoutCodec.readInt64(eventQueueData, eventOffset + CLIENT_ORDER_ID_OFFSET));
+        tradeEvent.setSeqNum(eventSeqNum);
+
+        // Bids pay quote and receive base, asks the other way around
+        long nativeQuote = bid ? nativeQuantityPaid : nativeQuantityReleased;
+        long nativeBase = bid ? nativeQuantityReleased : nativeQuantityPaid;
+
+        // Fees are taken from (or rebates added to) the quote side, undo them to get the order's price
+        boolean feeAddedToQuote = bid == maker;
+        long priceBeforeFees = feeAddedToQuote ? nativeQuote + nativeFeeOrRebate : nativeQuote - nativeFeeOrRebate;
+
+        tradeEvent.setFixedPrice(SerumUtils.nativeRatioToFixed(priceBeforeFees, nativeBase, priceScale, baseDecimals, quoteDecimals));
+        tradeEvent.setPriceScale(priceScale);
+        tradeEvent.setFixedQuantity(nativeBase);
+        tradeEvent.setQuantityScale(baseDecimals);
+
+        double top = priceBeforeFees * SerumUtils.getBaseSplTokenMultiplier(baseDecimals);
+        double bottom = SerumUtils.getQuoteSplTokenMultiplier(quoteDecimals) * nativeBase;
+        tradeEvent.setFloatPrice((float) (top / bottom));
+        tradeEvent.setFloatQuantity((float) (nativeBase / SerumUtils.getBaseSplTokenMultiplier(baseDecimals)));
+    }
+
+    /**
+     * @return true if the event at {@code eventOffset} is a fill that should be decoded as a {@link TradeEvent}
+     */
+    static boolean isTradeEvent(byte[] eventQueueData, int eventOffset) {
+        boolean fill = (eventQueueData[eventOffset] & 1) == 1;
+        return fill && LayoutCodec.readInt64(eventQueueData, eventOffset + NATIVE_QUANTITY_PAID_OFFSET) > 0;
+    }
+
+    /**
+     * Reads an open orders pubkey, keeping the previous {@link PublicKey} instance if the bytes match.
+     */
+    private static PublicKey readOpenOrders(byte[] data, int offset, PublicKey previous) {
+        if (previous != null && Arrays.equals(
+                previous.toByteArray(), 0, PublicKey.PUBLIC_KEY_LENGTH,
+                data, offset, offset + PublicKey.PUBLIC_KEY_LENGTH)) {
+            return previous;
+        }
+
+        return LayoutCodec.readPublicKey(data, offset);
+    }
+
+    private static byte[] readOrderId(byte[] data, int offset, byte[] previous) {
+        byte[] orderId = previous != null && previous.length == U128_SIZE_BYTES ? previous : new byte[U128_SIZE_BYTES];
+        System.arraycopy(data, offset, orderId, 0, U128_SIZE_BYTES);
+        return orderId;
     }
 }
@@ -0,0 +1,201 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static ch.openserum.serum.model.EventQueue.COUNT_OFFSET;
+import static ch.openserum.serum.model.EventQueue.HEADER_LAYOUT_SPAN;
+import static ch.openserum.serum.model.EventQueue.HEAD_OFFSET;
+import static ch.openserum.serum.model.EventQueue.NODE_LAYOUT_SPAN;
+import static ch.openserum.serum.model.EventQueue.SEQ_NUM_OFFSET;
+
+/**
+ * Follows a Serum event queue across polls, decoding only the fills pushed since the previous poll instead of the
+ * whole ring buffer.
+ *
+ * Events are located through the queue's sequence number: the event with sequence number {@code s} sits
+ * {@code seqNum - s} slots behind {@code head + count}. Slots keep their data after being consumed, so events that
+ * were already cranked are still returned, as long as they were not overwritten. If more than {@code allocLen}
+ * events were pushed between two polls, the oldest ones are lost and counted in {@link #getMissedEvents()}.
+ *
+ * Not thread-safe, one cursor per queue.
+ */
+public class EventQueueCursor {
+
+    private static final long U32_MASK = 0xFFFFFFFFL;
+
+    private final byte baseDecimals;
+    private final byte quoteDecimals;
+    private final int priceScale;
+
+    private boolean started;
+    private int head;
+    private long seqNum;
+    private long missedEvents;
+
+    // Queue header of the poll in progress, see locateNewEvents()
+    private int allocLen;
+    private int latestHead;
+    private long latestSeqNum;
+    private int firstSlot;
+
+    private final List<TradeEvent> events = new ArrayList<>();
+
+    // Every TradeEvent decoded so far, reused by each poll
+    private final List<TradeEvent> tradeEventPool = new ArrayList<>();
+
+    /**
+     * Cursor whose fixed-point prices use {@code quoteDecimals} as scale, see
+     * {@link #EventQueueCursor(byte, byte, long, long)} for exact prices.
+     */
+    public EventQueueCursor(byte baseDecimals, byte quoteDecimals) {
+        this(baseDecimals, quoteDecimals, 0, 0);
+    }
+
+    /**
+     * Cursor whose fixed-point prices use the market's price scale, at which every tick is exact.
+     */
+    public EventQueueCursor(byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        this.baseDecimals = baseDecimals;
+        this.quoteDecimals = quoteDecimals;
+        this.priceScale = SerumUtils.getPriceScale(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+    }
+
+    /**
+     * Decodes the fills pushed to the queue since the previous poll, oldest first. The first poll returns the events
+     * currently in the queue.
+     *
+     * The returned list and its {@link TradeEvent}s are reused by the next poll, copy them to keep them longer.
+     *
+     * @param eventQueueData event queue account data
+     * @return new {@link TradeEvent}s, oldest first
+     */
+    public List<TradeEvent> poll(byte[] eventQueueData) {
+        return poll(eventQueueData, null);
+    }
+
+    /**
+     * Same as {@link #poll(byte[])}, but only decodes the new fills accepted by {@code filter}.
+     *
+     * @param eventQueueData event queue account data
+     * @param filter raw event filter, or null to decode every fill
+     * @return new {@link TradeEvent}s accepted by the filter, oldest first
+     */
+    public List<TradeEvent> poll(byte[] eventQueueData, EventQueueFilter filter) {
+        final long newEvents = locateNewEvents(eventQueueData);
+        int eventCount = 0;
+
+        for (int i = 0; i < newEvents; i++) {
+            int eventOffset = HEADER_LAYOUT_SPAN + (((firstSlot + i) % allocLen) * NODE_LAYOUT_SPAN);
+            if (!EventQueue.isTradeEvent(eventQueueData, eventOffset)
+                    || (filter != null && !filter.test(eventQueueData, eventOffset))) {
+                continue;
+            }
+
+            TradeEvent tradeEvent;
+            if (eventCount < tradeEventPool.size()) {
+                tradeEvent = tradeEventPool.get(eventCount);
+            } else {
+                tradeEvent = new TradeEvent();
+                tradeEventPool.add(tradeEvent);
+            }
+            eventCount++;
+
+            long eventSeqNum = (latestSeqNum - newEvents + i) & U32_MASK;
+            EventQueue.readTradeEvent(eventQueueData, eventOffset, eventSeqNum, baseDecimals, quoteDecimals, priceScale, tradeEvent);
+        }
+
+        events.clear();
+        events.addAll(tradeEventPool.subList(0, eventCount));
+
+        advance();
+        return events;
+    }
+
+    /**
+     * Visits every event pushed to the queue since the previous poll, oldest first, fills and outs alike. Nothing is
+     * decoded up front: {@code eventView} is re-pointed at each new event before being passed to {@code consumer}.
+     *
+     * @param eventQueueData event queue account data
+     * @param eventView view to re-point at each event
+     * @param consumer called once per new event
+     * @return number of events visited
+     */
+    public int poll(byte[] eventQueueData, EventView eventView, Consumer<EventView> consumer) {
+        final long newEvents = locateNewEvents(eventQueueData);
+
+        for (int i = 0; i < newEvents; i++) {
+            long eventSeqNum = (latestSeqNum - newEvents + i) & U32_MASK;
+            consumer.accept(eventView.wrapSlot(eventQueueData, (firstSlot + i) % allocLen, eventSeqNum));
+        }
+
+        advance();
+        return (int) newEvents;
+    }
+
+    /**
+     * Reads the queue header and finds the events pushed since the previous poll, starting at {@link #firstSlot}.
+     *
+     * @return number of new events still readable
+     */
+    private long locateNewEvents(byte[] eventQueueData) {
+        SerumUtils.validateSerumData(eventQueueData);
+
+        allocLen = (eventQueueData.length - HEADER_LAYOUT_SPAN) / NODE_LAYOUT_SPAN;
+        latestHead = LayoutCodec.readInt32(eventQueueData, HEAD_OFFSET);
+        final int count = LayoutCodec.readInt32(eventQueueData, COUNT_OFFSET);
+        latestSeqNum = LayoutCodec.readUint32(eventQueueData, SEQ_NUM_OFFSET);
+
+        // seqNum is a u32, so count new events modulo 2^32
+        long newEvents = started ? (latestSeqNum - seqNum) & U32_MASK : count;
+        missedEvents = 0;
+        if (newEvents > allocLen) {
+            missedEvents = newEvents - allocLen;
+            newEvents = allocLen;
+        }
+
+        firstSlot = Math.floorMod(latestHead + count - (int) newEvents, allocLen);
+        return newEvents;
+    }
+
+    private void advance() {
+        started = true;
+        head = latestHead;
+        seqNum = latestSeqNum;
+    }
+
+    /**
+     * Forgets the queue position, the next poll starts over from the events currently in the queue.
+     */
+    public void reset() {
+        started = false;
+        head = 0;
+        seqNum = 0;
+        missedEvents = 0;
+        events.clear();
+    }
+
+    /**
+     * @return queue head seen by the last poll
+     */
+    public int getHead() {
+        return head;
+    }
+
+    /**
+     * @return queue sequence number seen by the last poll, i.e. the sequence number of the next event
+     */
+    public long getSeqNum() {
+        return seqNum;
+    }
+
+    /**
+     * @return number of events overwritten before the last poll could read them
+     */
+    public long getMissedEvents() {
+        return missedEvents;
+    }
+}
@@ -0,0 +1,148 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+
+import static ch.openserum.serum.model.EventQueue.EVENT_FLAGS_OFFSET;
+import static ch.openserum.serum.model.EventQueue.NATIVE_QUANTITY_PAID_OFFSET;
+import static ch.openserum.serum.model.EventQueue.NATIVE_QUANTITY_RELEASED_OFFSET;
+import static ch.openserum.serum.model.EventQueue.OPEN_ORDERS_OFFSET;
+
+/**
+ * Selects event queue fills on their raw bytes, before any {@link TradeEvent}, {@link PublicKey} or order id is
+ * built. Pass it to {@link EventQueue#reload(byte[], EventQueueFilter)} or
+ * {@link EventQueueCursor#poll(byte[], EventQueueFilter)}.
+ *
+ * Conditions are combined with AND, an empty filter accepts every fill. Not thread-safe while being configured,
+ * can be shared afterwards.
+ */
+public class EventQueueFilter {
+
+    // Open orders keys sorted by their first 8 bytes, with those 8 bytes alongside for a quick reject
+    private long[] openOrdersPrefixes = new long[0];
+    private byte[][] openOrders = new byte[0][];
+
+    private int requiredFlags;
+    private int excludedFlags;
+    private long minBaseQuantity;
+
+    /**
+     * Only accepts fills of the given open orders account. Can be called several times to accept any of them.
+     *
+     * @param openOrdersAccount open orders account to accept
+     * @return this filter
+     */
+    public EventQueueFilter addOpenOrders(PublicKey openOrdersAccount) {
+        final byte[] key = openOrdersAccount.toByteArray();
+        final long prefix = LayoutCodec.readInt64(key, 0);
+
+        int index = Arrays.binarySearch(openOrdersPrefixes, prefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        openOrdersPrefixes = insert(openOrdersPrefixes, index, prefix);
+        final byte[][] keys = new byte[openOrders.length + 1][];
+        System.arraycopy(openOrders, 0, keys, 0, index);
+        keys[index] = Arrays.copyOf(key, PublicKey.PUBLIC_KEY_LENGTH);
+        System.arraycopy(openOrders, index, keys, index + 1, openOrders.length - index);
+        openOrders = keys;
+
+        return this;
+    }
+
+    /**
+     * Only accepts fills with all of the given flags set.
+     *
+     * @param flags combination of {@link EventQueueFlags#FILL}, {@link EventQueueFlags#OUT},
+     *              {@link EventQueueFlags#BID} and {@link EventQueueFlags#MAKER}
+     * @return this filter
+     */
+    public EventQueueFilter requireFlags(int flags) {
+        requiredFlags |= flags;
+        return this;
+    }
+
+    /**
+     * Only accepts fills with none of the given flags set, e.g. {@code excludeFlags(EventQueueFlags.MAKER)} for
+     * taker fills only.
+     *
+     * @param flags combination of {@link EventQueueFlags} bits
+     * @return this filter
+     */
+    public EventQueueFilter excludeFlags(int flags) {
+        excludedFlags |= flags;
+        return this;
+    }
+
+    /**
+     * Only accepts fills of at least {@code minBaseQuantity} native base units: the quantity released for bids,
+     * paid for asks.
+     *
+     * @param minBaseQuantity minimum fill size in native base units
+     * @return this filter
+     */
+    public EventQueueFilter setMinBaseQuantity(long minBaseQuantity) {
+        this.minBaseQuantity = minBaseQuantity;
+        return this;
+    }
+
+    /**
+     * Tests the raw event at {@code eventOffset}.
+     *
+     * @param eventQueueData event queue account data
+     * @param eventOffset offset of an 88 byte event node
+     * @return true if the event should be decoded
+     */
+    public boolean test(byte[] eventQueueData, int eventOffset) {
+        final int flags = eventQueueData[eventOffset + EVENT_FLAGS_OFFSET];
+        if ((flags & requiredFlags) != requiredFlags || (flags & excludedFlags) != 0) {
+            return false;
+        }
+
+        if (minBaseQuantity > 0) {
+            final boolean bid = (flags & EventQueueFlags.BID) != 0;
+            final long baseQuantity = LayoutCodec.readInt64(
+                    eventQueueData,
+                    eventOffset + (bid ? NATIVE_QUANTITY_RELEASED_OFFSET : NATIVE_QUANTITY_PAID_OFFSET)
+            );
+            if (baseQuantity < minBaseQuantity) {
+                return false;
+            }
+        }
+
+        return openOrders.length == 0 || isOpenOrdersAccepted(eventQueueData, eventOffset + OPEN_ORDERS_OFFSET);
+    }
+
+    private boolean isOpenOrdersAccepted(byte[] eventQueueData, int offset) {
+        final long prefix = LayoutCodec.readInt64(eventQueueData, offset);
+
+        int index = Arrays.binarySearch(openOrdersPrefixes, prefix);
+        if (index < 0) {
+            return false;
+        }
+
+        // binarySearch lands on any of the keys sharing this prefix
+        while (index > 0 && openOrdersPrefixes[index - 1] == prefix) {
+            index--;
+        }
+
+        for (; index < openOrdersPrefixes.length && openOrdersPrefixes[index] == prefix; index++) {
+            if (LayoutCodec.pubkeyEquals(eventQueueData, offset, openOrders[index])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        final long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
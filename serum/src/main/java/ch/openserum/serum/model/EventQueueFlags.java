@@ -12,9 +12,34 @@ import lombok.ToString;
 @AllArgsConstructor
 public class EventQueueFlags {
 
+    // Bits of an event's flags byte
+    public static final int FILL = 1;
+    public static final int OUT = 2;
+    public static final int BID = 4;
+    public static final int MAKER = 8;
+
+    // Every combination of the 4 flags, so decoding an event never allocates
+    private static final EventQueueFlags[] FLAGS = new EventQueueFlags[16];
+
+    static {
+        for (int i = 0; i < FLAGS.length; i++) {
+            FLAGS[i] = new EventQueueFlags((i & FILL) != 0, (i & OUT) != 0, (i & BID) != 0, (i & MAKER) != 0);
+        }
+    }
+
     private boolean fill;
     private boolean out;
     private boolean bid;
     private boolean maker;
 
+    /**
+     * Returns the shared, immutable {@link EventQueueFlags} for an event's flags byte.
+     *
+     * @param eventFlags first byte of an event
+     * @return flags of the event
+     */
+    public static EventQueueFlags of(byte eventFlags) {
+        return FLAGS[eventFlags & 0xF];
+    }
+
 }
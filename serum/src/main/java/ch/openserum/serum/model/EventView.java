@@ -0,0 +1,211 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import org.p2p.solanaj.core.PublicKey;
+
+import static ch.openserum.serum.model.EventQueue.*;
+
+/**
+ * Flyweight view over one event of a Serum {@link EventQueue}, fills and outs alike.
+ *
+ * {@link EventQueue} only decodes fills into {@link TradeEvent}s. This view exposes every event kind straight from
+ * the account data, so order state can be followed from the queue alone: a fill reduces an order, an out removes
+ * it (cancelled, expired or fully filled). A single instance can be re-pointed at another event with
+ * {@link #wrap(byte[], int)}, reading an event does not allocate.
+ */
+public class EventView {
+
+    private byte[] data;
+    private int slot;
+    private int offset;
+    private long seqNum;
+
+    /**
+     * Points this view at the event {@code position} places after the queue head, i.e. the
+     * {@code position}th event still waiting to be consumed.
+     *
+     * @param eventQueueData event queue account data
+     * @param position 0 for the oldest unconsumed event, up to {@link #getCount(byte[])} - 1
+     * @return this view
+     */
+    public EventView wrap(byte[] eventQueueData, int position) {
+        final int count = getCount(eventQueueData);
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("Event position out of range: " + position + ", count: " + count);
+        }
+
+        final int head = LayoutCodec.readInt32(eventQueueData, HEAD_OFFSET);
+        final long queueSeqNum = LayoutCodec.readUint32(eventQueueData, SEQ_NUM_OFFSET);
+
+        return wrapSlot(
+                eventQueueData,
+                (head + position) % getAllocLen(eventQueueData),
+                (queueSeqNum - count + position) & 0xFFFFFFFFL
+        );
+    }
+
+    /**
+     * Points this view at a ring buffer slot, for callers that already know the slot's sequence number.
+     */
+    EventView wrapSlot(byte[] eventQueueData, int slot, long seqNum) {
+        this.data = eventQueueData;
+        this.slot = slot;
+        this.offset = HEADER_LAYOUT_SPAN + (slot * NODE_LAYOUT_SPAN);
+        this.seqNum = seqNum;
+        return this;
+    }
+
+    /**
+     * @return number of events in the queue that were not consumed yet
+     */
+    public static int getCount(byte[] eventQueueData) {
+        return LayoutCodec.readInt32(eventQueueData, COUNT_OFFSET);
+    }
+
+    /**
+     * @return number of event slots in the queue's ring buffer
+     */
+    public static int getAllocLen(byte[] eventQueueData) {
+        return (eventQueueData.length - HEADER_LAYOUT_SPAN) / NODE_LAYOUT_SPAN;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return ring buffer slot of the current event
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return position of the current event in the queue's history, see {@link TradeEvent#getSeqNum()}
+     */
+    public long getSeqNum() {
+        return seqNum;
+    }
+
+    /**
+     * @return raw flags byte, a combination of {@link EventQueueFlags#FILL}, {@link EventQueueFlags#OUT},
+     * {@link EventQueueFlags#BID} and {@link EventQueueFlags#MAKER}
+     */
+    public int getFlags() {
+        return data[offset + EVENT_FLAGS_OFFSET] & 0xFF;
+    }
+
+    public EventQueueFlags getEventQueueFlags() {
+        return EventQueueFlags.of(data[offset + EVENT_FLAGS_OFFSET]);
+    }
+
+    public boolean isFill() {
+        return (getFlags() & EventQueueFlags.FILL) != 0;
+    }
+
+    public boolean isOut() {
+        return (getFlags() & EventQueueFlags.OUT) != 0;
+    }
+
+    public boolean isBid() {
+        return (getFlags() & EventQueueFlags.BID) != 0;
+    }
+
+    public boolean isMaker() {
+        return (getFlags() & EventQueueFlags.MAKER) != 0;
+    }
+
+    /**
+     * @return slot of the order in its open orders account
+     */
+    public int getOpenOrdersSlot() {
+        return data[offset + OPEN_ORDERS_SLOT_OFFSET] & 0xFF;
+    }
+
+    public int getFeeTier() {
+        return data[offset + FEE_TIER_OFFSET] & 0xFF;
+    }
+
+    /**
+     * Native amount received by the order owner. For out events, the amount unlocked in the open orders account.
+     */
+    public long getNativeQuantityReleased() {
+        return LayoutCodec.readInt64(data, offset + NATIVE_QUANTITY_RELEASED_OFFSET);
+    }
+
+    /**
+     * Native amount paid by the order owner. For out events, the amount still locked in the open orders account.
+     */
+    public long getNativeQuantityPaid() {
+        return LayoutCodec.readInt64(data, offset + NATIVE_QUANTITY_PAID_OFFSET);
+    }
+
+    public long getNativeFeeOrRebate() {
+        return LayoutCodec.readInt64(data, offset + NATIVE_FEE_OR_REBATE_OFFSET);
+    }
+
+    /**
+     * Lower 64 bits of the order id. Bids store the bitwise complement of the order's sequence number here.
+     */
+    public long getOrderSeqNum() {
+        return LayoutCodec.readInt64(data, offset + ORDER_ID_OFFSET);
+    }
+
+    /**
+     * Upper 64 bits of the order id, the order's limit price in lots.
+     */
+    public long getOrderPrice() {
+        return LayoutCodec.readInt64(data, offset + ORDER_ID_OFFSET + SerumUtils.U64_SIZE_BYTES);
+    }
+
+    /**
+     * Copies the 16 byte order id into the given array, in the same byte order as {@link TradeEvent#getOrderId()}.
+     */
+    public void readOrderId(byte[] destination, int destinationOffset) {
+        System.arraycopy(data, offset + ORDER_ID_OFFSET, destination, destinationOffset, SerumUtils.U128_SIZE_BYTES);
+    }
+
+    /**
+     * Compares the open orders account of the current event against raw pubkey bytes, without allocating.
+     *
+     * @param openOrders 32 byte pubkey
+     * @return true if the event belongs to the given open orders account
+     */
+    public boolean openOrdersEquals(byte[] openOrders) {
+        return LayoutCodec.pubkeyEquals(data, offset + OPEN_ORDERS_OFFSET, openOrders);
+    }
+
+    /**
+     * Copies the 32 byte open orders account of the current event into the given array.
+     */
+    public void readOpenOrders(byte[] destination, int destinationOffset) {
+        LayoutCodec.readPubkeyBytes(data, offset + OPEN_ORDERS_OFFSET, destination, destinationOffset);
+    }
+
+    /**
+     * Builds a {@link PublicKey} for the open orders account of the current event. Allocates, prefer
+     * {@link #openOrdersEquals(byte[])} or {@link #readOpenOrders(byte[], int)} on hot paths.
+     */
+    public PublicKey getOpenOrders() {
+        return LayoutCodec.readPublicKey(data, offset + OPEN_ORDERS_OFFSET);
+    }
+
+    public long getClientOrderId() {
+        return LayoutCodec.readInt64(data, offset + CLIENT_ORDER_ID_OFFSET);
+    }
+
+    @Override
+    public String toString() {
+        return "EventView{" +
+                "seqNum=" + seqNum +
+                ", slot=" + slot +
+                ", eventQueueFlags=" + getEventQueueFlags() +
+                ", openOrdersSlot=" + getOpenOrdersSlot() +
+                ", nativeQuantityReleased=" + getNativeQuantityReleased() +
+                ", nativeQuantityPaid=" + getNativeQuantityPaid() +
+                ", nativeFeeOrRebate=" + getNativeFeeOrRebate() +
+                ", orderPrice=" + getOrderPrice() +
+                ", clientOrderId=" + getClientOrderId() +
+                '}';
+    }
+}
@@ -0,0 +1,369 @@
+package ch.openserum.serum.model;
+
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * {@link Market} that keeps the raw market account data and decodes each field the first time it is read, instead
+ * of building every {@link PublicKey} up front. Decoded values are memoized, and a value set explicitly is never
+ * overwritten by the account data.
+ *
+ * Order books, event queue and decimals are not part of the market account and behave as in {@link Market}.
+ * Like {@link Market}, not thread-safe.
+ */
+public class LazyMarket extends Market {
+
+    private static final int ACCOUNT_FLAGS = 1 << 0;
+    private static final int OWN_ADDRESS = 1 << 1;
+    private static final int VAULT_SIGNER_NONCE = 1 << 2;
+    private static final int BASE_MINT = 1 << 3;
+    private static final int QUOTE_MINT = 1 << 4;
+    private static final int BASE_VAULT = 1 << 5;
+    private static final int BASE_DEPOSITS_TOTAL = 1 << 6;
+    private static final int BASE_FEES_ACCRUED = 1 << 7;
+    private static final int QUOTE_VAULT = 1 << 8;
+    private static final int QUOTE_DEPOSITS_TOTAL = 1 << 9;
+    private static final int QUOTE_FEES_ACCRUED = 1 << 10;
+    private static final int QUOTE_DUST_THRESHOLD = 1 << 11;
+    private static final int REQUEST_QUEUE = 1 << 12;
+    private static final int EVENT_QUEUE_KEY = 1 << 13;
+    private static final int BIDS = 1 << 14;
+    private static final int ASKS = 1 << 15;
+    private static final int BASE_LOT_SIZE = 1 << 16;
+    private static final int QUOTE_LOT_SIZE = 1 << 17;
+    private static final int FEE_RATE_BPS = 1 << 18;
+    private static final int REFERRER_REBATES_ACCRUED = 1 << 19;
+
+    private final byte[] data;
+
+    // Bit set of the fields that were decoded or set
+    private int decodedFields;
+
+    public LazyMarket(byte[] data) {
+        this.data = data;
+    }
+
+    public static LazyMarket readLazyMarket(byte[] data) {
+        return new LazyMarket(data);
+    }
+
+    /**
+     * @return the market account data this market decodes from
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Marks {@code field} as decoded.
+     *
+     * @return true if it still had to be decoded
+     */
+    private boolean decode(int field) {
+        if ((decodedFields & field) != 0) {
+            return false;
+        }
+
+        decodedFields |= field;
+        return true;
+    }
+
+    @Override
+    public AccountFlags getAccountFlags() {
+        if (decode(ACCOUNT_FLAGS)) {
+            super.setAccountFlags(AccountFlags.readAccountFlags(data));
+        }
+
+        return super.getAccountFlags();
+    }
+
+    @Override
+    public void setAccountFlags(AccountFlags accountFlags) {
+        decodedFields |= ACCOUNT_FLAGS;
+        super.setAccountFlags(accountFlags);
+    }
+
+    @Override
+    public PublicKey getOwnAddress() {
+        if (decode(OWN_ADDRESS)) {
+            super.setOwnAddress(SerumUtils.readOwnAddressPubkey(data));
+        }
+
+        return super.getOwnAddress();
+    }
+
+    @Override
+    public void setOwnAddress(PublicKey ownAddress) {
+        decodedFields |= OWN_ADDRESS;
+        super.setOwnAddress(ownAddress);
+    }
+
+    @Override
+    public long getVaultSignerNonce() {
+        if (decode(VAULT_SIGNER_NONCE)) {
+            super.setVaultSignerNonce(SerumUtils.readVaultSignerNonce(data));
+        }
+
+        return super.getVaultSignerNonce();
+    }
+
+    @Override
+    public void setVaultSignerNonce(long vaultSignerNonce) {
+        decodedFields |= VAULT_SIGNER_NONCE;
+        super.setVaultSignerNonce(vaultSignerNonce);
+    }
+
+    @Override
+    public PublicKey getBaseMint() {
+        if (decode(BASE_MINT)) {
+            super.setBaseMint(SerumUtils.readBaseMintPubkey(data));
+        }
+
+        return super.getBaseMint();
+    }
+
+    @Override
+    public void setBaseMint(PublicKey baseMint) {
+        decodedFields |= BASE_MINT;
+        super.setBaseMint(baseMint);
+    }
+
+    @Override
+    public PublicKey getQuoteMint() {
+        if (decode(QUOTE_MINT)) {
+            super.setQuoteMint(SerumUtils.readQuoteMintPubkey(data));
+        }
+
+        return super.getQuoteMint();
+    }
+
+    @Override
+    public void setQuoteMint(PublicKey quoteMint) {
+        decodedFields |= QUOTE_MINT;
+        super.setQuoteMint(quoteMint);
+    }
+
+    @Override
+    public PublicKey getBaseVault() {
+        if (decode(BASE_VAULT)) {
+            super.setBaseVault(SerumUtils.readBaseVaultPubkey(data));
+        }
+
+        return super.getBaseVault();
+    }
+
+    @Override
+    public void setBaseVault(PublicKey baseVault) {
+        decodedFields |= BASE_VAULT;
+        super.setBaseVault(baseVault);
+    }
+
+    @Override
+    public long getBaseDepositsTotal() {
+        if (decode(BASE_DEPOSITS_TOTAL)) {
+            super.setBaseDepositsTotal(SerumUtils.readBaseDepositsTotal(data));
+        }
+
+        return super.getBaseDepositsTotal();
+    }
+
+    @Override
+    public void setBaseDepositsTotal(long baseDepositsTotal) {
+        decodedFields |= BASE_DEPOSITS_TOTAL;
+        super.setBaseDepositsTotal(baseDepositsTotal);
+    }
+
+    @Override
+    public long getBaseFeesAccrued() {
+        if (decode(BASE_FEES_ACCRUED)) {
+            super.setBaseFeesAccrued(SerumUtils.readBaseFeesAccrued(data));
+        }
+
+        return super.getBaseFeesAccrued();
+    }
+
+    @Override
+    public void setBaseFeesAccrued(long baseFeesAccrued) {
+        decodedFields |= BASE_FEES_ACCRUED;
+        super.setBaseFeesAccrued(baseFeesAccrued);
+    }
+
+    @Override
+    public PublicKey getQuoteVault() {
+        if (decode(QUOTE_VAULT)) {
+            super.setQuoteVault(SerumUtils.readQuoteVaultOffset(data));
+        }
+
+        return super.getQuoteVault();
+    }
+
+    @Override
+    public void setQuoteVault(PublicKey quoteVault) {
+        decodedFields |= QUOTE_VAULT;
+        super.setQuoteVault(quoteVault);
+    }
+
+    @Override
+    public long getQuoteDepositsTotal() {
+        if (decode(QUOTE_DEPOSITS_TOTAL)) {
+            super.setQuoteDepositsTotal(SerumUtils.readQuoteDepositsTotal(data));
+        }
+
+        return super.getQuoteDepositsTotal();
+    }
+
+    @Override
+    public void setQuoteDepositsTotal(long quoteDepositsTotal) {
+        decodedFields |= QUOTE_DEPOSITS_TOTAL;
+        super.setQuoteDepositsTotal(quoteDepositsTotal);
+    }
+
+    @Override
+    public long getQuoteFeesAccrued() {
+        if (decode(QUOTE_FEES_ACCRUED)) {
+            super.setQuoteFeesAccrued(SerumUtils.readQuoteFeesAccrued(data));
+        }
+
+        return super.getQuoteFeesAccrued();
+    }
+
+    @Override
+    public void setQuoteFeesAccrued(long quoteFeesAccrued) {
+        decodedFields |= QUOTE_FEES_ACCRUED;
+        super.setQuoteFeesAccrued(quoteFeesAccrued);
+    }
+
+    @Override
+    public long getQuoteDustThreshold() {
+        if (decode(QUOTE_DUST_THRESHOLD)) {
+            super.setQuoteDustThreshold(SerumUtils.readQuoteDustThreshold(data));
+        }
+
+        return super.getQuoteDustThreshold();
+    }
+
+    @Override
+    public void setQuoteDustThreshold(long quoteDustThreshold) {
+        decodedFields |= QUOTE_DUST_THRESHOLD;
+        super.setQuoteDustThreshold(quoteDustThreshold);
+    }
+
+    @Override
+    public PublicKey getRequestQueue() {
+        if (decode(REQUEST_QUEUE)) {
+            super.setRequestQueue(SerumUtils.readRequestQueuePubkey(data));
+        }
+
+        return super.getRequestQueue();
+    }
+
+    @Override
+    public void setRequestQueue(PublicKey requestQueue) {
+        decodedFields |= REQUEST_QUEUE;
+        super.setRequestQueue(requestQueue);
+    }
+
+    @Override
+    public PublicKey getEventQueueKey() {
+        if (decode(EVENT_QUEUE_KEY)) {
+            super.setEventQueueKey(SerumUtils.readEventQueuePubkey(data));
+        }
+
+        return super.getEventQueueKey();
+    }
+
+    @Override
+    public void setEventQueueKey(PublicKey eventQueueKey) {
+        decodedFields |= EVENT_QUEUE_KEY;
+        super.setEventQueueKey(eventQueueKey);
+    }
+
+    @Override
+    public PublicKey getBids() {
+        if (decode(BIDS)) {
+            super.setBids(SerumUtils.readBidsPubkey(data));
+        }
+
+        return super.getBids();
+    }
+
+    @Override
+    public void setBids(PublicKey bids) {
+        decodedFields |= BIDS;
+        super.setBids(bids);
+    }
+
+    @Override
+    public PublicKey getAsks() {
+        if (decode(ASKS)) {
+            super.setAsks(SerumUtils.readAsksPubkey(data));
+        }
+
+        return super.getAsks();
+    }
+
+    @Override
+    public void setAsks(PublicKey asks) {
+        decodedFields |= ASKS;
+        super.setAsks(asks);
+    }
+
+    @Override
+    public long getBaseLotSize() {
+        if (decode(BASE_LOT_SIZE)) {
+            super.setBaseLotSize(SerumUtils.readBaseLotSize(data));
+        }
+
+        return super.getBaseLotSize();
+    }
+
+    @Override
+    public void setBaseLotSize(long baseLotSize) {
+        decodedFields |= BASE_LOT_SIZE;
+        super.setBaseLotSize(baseLotSize);
+    }
+
+    @Override
+    public long getQuoteLotSize() {
+        if (decode(QUOTE_LOT_SIZE)) {
+            super.setQuoteLotSize(SerumUtils.readQuoteLotSize(data));
+        }
+
+        return super.getQuoteLotSize();
+    }
+
+    @Override
+    public void setQuoteLotSize(long quoteLotSize) {
+        decodedFields |= QUOTE_LOT_SIZE;
+        super.setQuoteLotSize(quoteLotSize);
+    }
+
+    @Override
+    public long getFeeRateBps() {
+        if (decode(FEE_RATE_BPS)) {
+            super.setFeeRateBps(SerumUtils.readFeeRateBps(data));
+        }
+
+        return super.getFeeRateBps();
+    }
+
+    @Override
+    public void setFeeRateBps(long feeRateBps) {
+        decodedFields |= FEE_RATE_BPS;
+        super.setFeeRateBps(feeRateBps);
+    }
+
+    @Override
+    public long getReferrerRebatesAccrued() {
+        if (decode(REFERRER_REBATES_ACCRUED)) {
+            super.setReferrerRebatesAccrued(SerumUtils.readReferrerRebatesAccrued(data));
+        }
+
+        return super.getReferrerRebatesAccrued();
+    }
+
+    @Override
+    public void setReferrerRebatesAccrued(long referrerRebatesAccrued) {
+        decodedFields |= REFERRER_REBATES_ACCRUED;
+        super.setReferrerRebatesAccrued(referrerRebatesAccrued);
+    }
+}
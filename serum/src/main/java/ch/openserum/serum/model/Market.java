@@ -1,40 +1,67 @@
 package ch.openserum.serum.model;
 
+import ch.openserum.codec.layout.AccountLayout;
+import ch.openserum.codec.layout.LayoutField;
+import ch.openserum.codec.layout.LayoutType;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import org.p2p.solanaj.core.PublicKey;
 
 /**
- * Class to represent a Serum market. Should be instantiated using a {@link .MarketBuilder}.
+ * Class to represent a Serum market. Should be instantiated using a {@link .MarketBuilder}. Offsets of the account
+ * data are generated from the {@link LayoutField}s into {@link MarketLayout}, with a {@link MarketView} flyweight
+ * alongside.
  */
+@AccountLayout(size = 381)
 @Getter
 @Setter
-@ToString(exclude = "eventQueue")
+@ToString(exclude = {"eventQueue", "marketScale", "vaultSigner"})
 public class Market {
 
+    @LayoutField(value = LayoutType.STRUCT, size = 8, padding = 5)
     private AccountFlags accountFlags;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey ownAddress;
+    @LayoutField(LayoutType.I64)
     private long vaultSignerNonce;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey baseMint;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey quoteMint;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey baseVault;
+    @LayoutField(LayoutType.I64)
     private long baseDepositsTotal;
+    @LayoutField(LayoutType.I64)
     private long baseFeesAccrued;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey quoteVault;
+    @LayoutField(LayoutType.I64)
     private long quoteDepositsTotal;
+    @LayoutField(LayoutType.I64)
     private long quoteFeesAccrued;
+    @LayoutField(LayoutType.I64)
     private long quoteDustThreshold;
 
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey requestQueue;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey eventQueueKey;
 
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey bids;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey asks;
 
+    @LayoutField(LayoutType.I64)
     private long baseLotSize;
+    @LayoutField(LayoutType.I64)
     private long quoteLotSize;
+    @LayoutField(LayoutType.I64)
     private long feeRateBps;
+    @LayoutField(LayoutType.I64)
     private long referrerRebatesAccrued;
 
     private OrderBook bidOrderBook;
@@ -46,70 +73,45 @@ public class Market {
     private byte baseDecimals;
     private byte quoteDecimals;
 
-    public static Market readMarket(byte[] data) {
-        Market market = new Market();
-
-        final AccountFlags accountFlags = AccountFlags.readAccountFlags(data);
-        market.setAccountFlags(accountFlags);
-
-        final PublicKey ownAddress = SerumUtils.readOwnAddressPubkey(data);
-        market.setOwnAddress(ownAddress);
-
-        final long vaultSignerNonce = SerumUtils.readVaultSignerNonce(data);
-        market.setVaultSignerNonce(vaultSignerNonce);
-
-        final PublicKey baseMint = SerumUtils.readBaseMintPubkey(data);
-        market.setBaseMint(baseMint);
-
-        final PublicKey quoteMint = SerumUtils.readQuoteMintPubkey(data);
-        market.setQuoteMint(quoteMint);
-
-        final PublicKey baseVault = SerumUtils.readBaseVaultPubkey(data);
-        market.setBaseVault(baseVault);
-
-        final long baseDepositsTotal = SerumUtils.readBaseDepositsTotal(data);
-        market.setBaseDepositsTotal(baseDepositsTotal);
-
-        final long baseFeesAccrued = SerumUtils.readBaseFeesAccrued(data);
-        market.setBaseFeesAccrued(baseFeesAccrued);
-
-        final PublicKey quoteVault = SerumUtils.readQuoteVaultOffset(data);
-        market.setQuoteVault(quoteVault);
-
-        final long quoteDepositsTotal = SerumUtils.readQuoteDepositsTotal(data);
-        market.setQuoteDepositsTotal(quoteDepositsTotal);
+    // Derived from the lot sizes and decimals, rebuilt by getMarketScale() when they change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MarketScale marketScale;
 
-        final long quoteFeesAccrued = SerumUtils.readQuoteFeesAccrued(data);
-        market.setQuoteFeesAccrued(quoteFeesAccrued);
+    // Derived from ownAddress and vaultSignerNonce, computed by getVaultSigner() or restored from a MarketCatalog
+    @Getter(AccessLevel.NONE)
+    private PublicKey vaultSigner;
 
-        final long quoteDustThreshold = SerumUtils.readQuoteDustThreshold(data);
-        market.setQuoteDustThreshold(quoteDustThreshold);
-
-        final PublicKey requestQueue = SerumUtils.readRequestQueuePubkey(data);
-        market.setRequestQueue(requestQueue);
-
-        final PublicKey eventQueue = SerumUtils.readEventQueuePubkey(data);
-        market.setEventQueueKey(eventQueue);
-
-        final PublicKey bids = SerumUtils.readBidsPubkey(data);
-        market.setBids(bids);
-
-        final PublicKey asks = SerumUtils.readAsksPubkey(data);
-        market.setAsks(asks);
-
-        final long baseLotSize = SerumUtils.readBaseLotSize(data);
-        market.setBaseLotSize(baseLotSize);
-
-        final long quoteLotSize = SerumUtils.readQuoteLotSize(data);
-        market.setQuoteLotSize(quoteLotSize);
-
-        final long feeRateBps = SerumUtils.readFeeRateBps(data);
-        market.setFeeRateBps(feeRateBps);
+    public static Market readMarket(byte[] data) {
+        return MarketLayout.decode(data, 0, new Market());
+    }
 
-        final long referrerRebatesAccrued = SerumUtils.readReferrerRebatesAccrued(data);
-        market.setReferrerRebatesAccrued(referrerRebatesAccrued);
+    /**
+     * Returns the {@link MarketScale} of this market, built once from its lot sizes and token decimals.
+     *
+     * @return conversion context for prices and sizes of this market
+     */
+    public MarketScale getMarketScale() {
+        final MarketScale current = marketScale;
+        if (current != null && current.matches(getBaseDecimals(), getQuoteDecimals(), getBaseLotSize(), getQuoteLotSize())) {
+            return current;
+        }
+
+        marketScale = MarketScale.of(this);
+        return marketScale;
+    }
 
-        return market;
+    /**
+     * Returns the vault signer of this market, derived once from its address and vault signer nonce.
+     *
+     * @return program address signing for the market's vaults
+     */
+    public PublicKey getVaultSigner() {
+        if (vaultSigner == null) {
+            vaultSigner = SerumUtils.getVaultSigner(this);
+        }
+
+        return vaultSigner;
     }
 
     // TODO - implement all of these, just updating bids, asks, and event queue.
@@ -5,25 +5,50 @@ import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
 import org.p2p.solanaj.rpc.types.AccountInfo;
 
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Builds a {@link Market} object, which can have polled data including bid/ask {@link OrderBook}s
  */
 public class MarketBuilder {
 
+    // Blocking account fetches of buildAsync(), shared by every builder without an executor of its own
+    private static final Executor IO_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "market-builder-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private RpcClient client;
     private PublicKey publicKey;
     private boolean retrieveOrderbooks = false;
     private boolean retrieveEventQueue = false;
     private boolean retrieveDecimalsOnly = false;
-    private boolean built = false;
+    private boolean reuseBuffers = false;
+    private boolean lazyDecoding = false;
+    private boolean batchRequests = false;
     private byte[] base64AccountInfo;
+    private Executor executor = IO_EXECUTOR;
+
+    // Previous decode targets, only kept when reuseBuffers is set
+    private Market market;
+    private byte[] spareBidData;
+    private byte[] spareAskData;
+    private byte[] eventQueueData;
+    private byte[] spareEventQueueData;
+
+    private MintRegistry mintRegistry = MintRegistry.getShared();
+    private MarketCatalog marketCatalog;
 
-    private Map<PublicKey, Byte> decimalsCache = new ConcurrentHashMap<>();
+    // Base64 data fetched ahead with getMultipleAccounts, consumed by the next lookup of each account
+    private final Map<PublicKey, String> prefetchedData = new ConcurrentHashMap<>();
 
     public MarketBuilder setRetrieveOrderBooks(boolean retrieveOrderbooks) {
         this.retrieveOrderbooks = retrieveOrderbooks;
@@ -57,143 +82,492 @@ public class MarketBuilder {
         return this;
     }
 
+    /**
+     * When enabled, every {@link #build()} after the first one returns the same {@link Market} and decodes into its
+     * existing {@link OrderBook}s and {@link EventQueue}. Account data is double buffered per account: an account
+     * whose bytes did not change since the last build is not decoded again, and the previous order book data stays
+     * valid until the following build (e.g. for {@link OrderBookDiff}).
+     *
+     * @param reuseBuffers true to update the previously built {@link Market} in place
+     * @return this builder
+     */
+    public MarketBuilder setReuseBuffers(boolean reuseBuffers) {
+        this.reuseBuffers = reuseBuffers;
+        return this;
+    }
+
+    public boolean isReuseBuffers() {
+        return reuseBuffers;
+    }
+
+    /**
+     * When enabled, {@link #build()} returns a {@link LazyMarket}, which only decodes the market account fields
+     * that are actually read.
+     *
+     * @param lazyDecoding true to decode market account fields on first access
+     * @return this builder
+     */
+    public MarketBuilder setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+        return this;
+    }
+
+    public boolean isLazyDecoding() {
+        return lazyDecoding;
+    }
+
+    /**
+     * Sets the registry caching mint decimals, {@link MintRegistry#getShared()} by default.
+     *
+     * @param mintRegistry mint registry
+     * @return this builder
+     */
+    public MarketBuilder setMintRegistry(MintRegistry mintRegistry) {
+        this.mintRegistry = mintRegistry;
+        return this;
+    }
+
+    public MintRegistry getMintRegistry() {
+        return mintRegistry;
+    }
+
+    /**
+     * Sets the catalog of static market data. A market found in the catalog is built without fetching its market
+     * and mint accounts, only its order books and event queue when requested. Markets fetched with their decimals
+     * are added to the catalog, ready for {@link MarketCatalog#save(java.nio.file.Path)}.
+     *
+     * @param marketCatalog market catalog, or null to always fetch the market account
+     * @return this builder
+     */
+    public MarketBuilder setMarketCatalog(MarketCatalog marketCatalog) {
+        this.marketCatalog = marketCatalog;
+        return this;
+    }
+
+    public MarketCatalog getMarketCatalog() {
+        return marketCatalog;
+    }
+
+    /**
+     * When enabled, {@link #build()} fetches the mints, order books and event queue in a single
+     * {@code getMultipleAccounts} request instead of one {@code getAccountInfo} call each. Use
+     * {@link #buildAll(List)} to batch the requests of several markets together.
+     *
+     * @param batchRequests true to fetch accounts with getMultipleAccounts
+     * @return this builder
+     */
+    public MarketBuilder setBatchRequests(boolean batchRequests) {
+        this.batchRequests = batchRequests;
+        return this;
+    }
+
+    public boolean isBatchRequests() {
+        return batchRequests;
+    }
+
+    /**
+     * Builds several markets, fetching the accounts of all of them with {@code getMultipleAccounts}, up to
+     * {@link SerumUtils#MAX_MULTIPLE_ACCOUNTS} keys per request: one round for the market accounts not fetched yet,
+     * one for the mints, order books and event queues. Polling 100 markets' order books and event queues this way
+     * takes 3 requests instead of 300.
+     *
+     * Every builder is fetched through the client of the first one.
+     *
+     * @param builders market builders, each configured as for {@link #build()}
+     * @return built markets, in the order of {@code builders}
+     */
+    public static List<Market> buildAll(List<MarketBuilder> builders) {
+        prefetch(builders);
+
+        final List<Market> markets = new ArrayList<>(builders.size());
+        for (MarketBuilder builder : builders) {
+            markets.add(builder.build());
+        }
+
+        return markets;
+    }
+
+    /**
+     * Sets the executor running the blocking RPC calls of {@link #buildAsync()}. Defaults to a shared cached pool of
+     * daemon threads, rather than the common fork-join pool, which is sized for CPU work.
+     *
+     * @param executor executor for account fetches
+     * @return this builder
+     */
+    public MarketBuilder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Same as {@link #build()}, except that the mints, order books and event queue are fetched concurrently on the
+     * {@link #setExecutor(Executor) executor} once the market account is known, so building costs two RPC round
+     * trips instead of up to six. Decoding starts when every fetch has completed. With
+     * {@link #setBatchRequests(boolean) batched requests}, every account is prefetched on the executor first, as in
+     * {@link #build()}.
+     *
+     * Like {@link #build()}, calls must not overlap: wait for the returned future before building again.
+     *
+     * @return future completed with the market, or exceptionally if a fetch fails
+     */
+    public CompletableFuture<Market> buildAsync() {
+        if (batchRequests) {
+            return CompletableFuture.runAsync(() -> prefetch(List.of(this)), executor)
+                    .thenCompose(ignored -> fetchAsync());
+        }
+
+        return fetchAsync();
+    }
+
+    private CompletableFuture<Market> fetchAsync() {
+        final boolean reload = reuseBuffers && market != null;
+        final Market cataloged = reload ? null : getCatalogedMarket();
+
+        final CompletableFuture<Market> marketFuture;
+        if (reload || cataloged != null) {
+            marketFuture = CompletableFuture.completedFuture(reload ? this.market : cataloged);
+        } else {
+            final CompletableFuture<byte[]> marketData = base64AccountInfo != null
+                    ? CompletableFuture.completedFuture(base64AccountInfo)
+                    : CompletableFuture.supplyAsync(this::retrieveAccountData, executor);
+
+            marketFuture = marketData.thenApply(data -> {
+                if (data == null) {
+                    throw new RuntimeException("Unable to read account data");
+                }
+                base64AccountInfo = data;
+
+                return readMarket(data);
+            });
+        }
+
+        return marketFuture.thenCompose(market -> {
+            // Cataloged markets already hold their decimals
+            final boolean retrieveDecimals = cataloged == null
+                    && (retrieveOrderbooks || retrieveEventQueue || retrieveDecimalsOnly);
+            final boolean reloadOrderBooks = reload && market.getBidOrderBook() != null && market.getAskOrderBook() != null;
+            final boolean reloadEventQueue = reload && market.getEventQueue() != null;
+
+            // Independent fetches, each into its own spare buffer when reloading
+            final CompletableFuture<Byte> baseDecimals = retrieveDecimals
+                    ? fetchMintDecimals(market.getBaseMint()) : CompletableFuture.completedFuture(null);
+            final CompletableFuture<Byte> quoteDecimals = retrieveDecimals
+                    ? fetchMintDecimals(market.getQuoteMint()) : CompletableFuture.completedFuture(null);
+            final CompletableFuture<byte[]> bidData = retrieveOrderbooks
+                    ? fetchAccountData(market.getBids(), reloadOrderBooks ? spareBidData : null)
+                    : CompletableFuture.completedFuture(null);
+            final CompletableFuture<byte[]> askData = retrieveOrderbooks
+                    ? fetchAccountData(market.getAsks(), reloadOrderBooks ? spareAskData : null)
+                    : CompletableFuture.completedFuture(null);
+            final CompletableFuture<byte[]> latestEventQueueData = retrieveEventQueue
+                    ? fetchAccountData(market.getEventQueueKey(), reloadEventQueue ? spareEventQueueData : null)
+                    : CompletableFuture.completedFuture(null);
+
+            return CompletableFuture.allOf(baseDecimals, quoteDecimals, bidData, askData, latestEventQueueData)
+                    .thenApply(ignored -> {
+                        if (retrieveDecimals) {
+                            market.setBaseDecimals(baseDecimals.join());
+                            market.setQuoteDecimals(quoteDecimals.join());
+                            if (!reload) {
+                                addToCatalog(market);
+                            }
+                        }
+
+                        if (retrieveOrderbooks) {
+                            if (reloadOrderBooks) {
+                                spareBidData = swapOrderBookData(market.getBidOrderBook(), bidData.join());
+                                spareAskData = swapOrderBookData(market.getAskOrderBook(), askData.join());
+                            } else {
+                                market.setBidOrderBook(readOrderBook(market, bidData.join()));
+                                market.setAskOrderBook(readOrderBook(market, askData.join()));
+                            }
+                        }
+
+                        if (retrieveEventQueue) {
+                            updateEventQueue(market, latestEventQueueData.join(), reloadEventQueue);
+                        }
+
+                        if (reuseBuffers) {
+                            this.market = market;
+                        }
+
+                        // Prefetched data left unused would be stale by the next build
+                        prefetchedData.clear();
+
+                        return market;
+                    });
+        });
+    }
+
     public Market build() {
-        // Only lookup account info one time since it never changes (except for fees accrued, not important imo)
-        if (!built) {
-            base64AccountInfo = retrieveAccountData();
+        if (batchRequests) {
+            prefetch(List.of(this));
         }
 
-        // Read market
-        if (base64AccountInfo == null) {
-            throw new RuntimeException("Unable to read account data");
+        final boolean reload = reuseBuffers && market != null;
+        final Market cataloged = reload ? null : getCatalogedMarket();
+
+        Market market;
+        if (reload) {
+            market = this.market;
+        } else if (cataloged != null) {
+            market = cataloged;
+        } else {
+            // Only lookup account info one time since it never changes (except for fees accrued, not important imo)
+            if (base64AccountInfo == null) {
+                base64AccountInfo = retrieveAccountData();
+            }
+
+            // Read market
+            if (base64AccountInfo == null) {
+                throw new RuntimeException("Unable to read account data");
+            }
+
+            market = readMarket(base64AccountInfo);
         }
 
-        Market market = Market.readMarket(base64AccountInfo);
+        // Data from the token mints, also used by SerumManager for most lightweight lookup possible
+        if (cataloged == null && (retrieveOrderbooks || retrieveEventQueue || retrieveDecimalsOnly)) {
+            market.setBaseDecimals(getCachedMintDecimals(market.getBaseMint()));
+            market.setQuoteDecimals(getCachedMintDecimals(market.getQuoteMint()));
+            if (!reload) {
+                addToCatalog(market);
+            }
+        }
 
         // Get Order books
         if (retrieveOrderbooks) {
-            // Data from the token mints
-            // first, check the cache for the byte. otherwise, make a request for it
-            byte baseDecimals;
-            byte quoteDecimals;
-
-            if (decimalsCache.containsKey(market.getBaseMint())) {
-                baseDecimals = decimalsCache.get(market.getBaseMint());
+            if (reload && market.getBidOrderBook() != null && market.getAskOrderBook() != null) {
+                spareBidData = swapOrderBookData(market.getBidOrderBook(), retrieveAccountData(market.getBids(), spareBidData));
+                spareAskData = swapOrderBookData(market.getAskOrderBook(), retrieveAccountData(market.getAsks(), spareAskData));
             } else {
-                baseDecimals = getMintDecimals(market.getBaseMint());
-                decimalsCache.put(market.getBaseMint(), baseDecimals);
+                // Fetched one after the other, see buildAsync() for concurrent fetches
+                market.setBidOrderBook(readOrderBook(market, retrieveAccountData(market.getBids())));
+                market.setAskOrderBook(readOrderBook(market, retrieveAccountData(market.getAsks())));
             }
+        }
 
-            if (decimalsCache.containsKey(market.getQuoteMint())) {
-                quoteDecimals = decimalsCache.get(market.getQuoteMint());
-            } else {
-                quoteDecimals = getMintDecimals(market.getQuoteMint());
-                decimalsCache.put(market.getQuoteMint(), quoteDecimals);
-            }
+        if (retrieveEventQueue) {
+            final boolean reloadEventQueue = reload && market.getEventQueue() != null;
+            final byte[] latest = retrieveAccountData(market.getEventQueueKey(), reloadEventQueue ? spareEventQueueData : null);
+            updateEventQueue(market, latest, reloadEventQueue);
+        }
 
-            market.setBaseDecimals(baseDecimals);
-            market.setQuoteDecimals(quoteDecimals);
+        if (reuseBuffers) {
+            this.market = market;
+        }
 
-            // TODO - multi-thread these
-            // Data from the order books
-            byte[] base64BidOrderbook = retrieveAccountData(market.getBids());
-            byte[] base64AskOrderbook = retrieveAccountData(market.getAsks());
+        // Prefetched data left unused would be stale by the next build
+        prefetchedData.clear();
 
-            // TODO - change/limit how we pass the decimals around
-            // Currently giving them to everything for testing
-            OrderBook bidOrderBook = OrderBook.readOrderBook(base64BidOrderbook);
-            OrderBook askOrderBook = OrderBook.readOrderBook(base64AskOrderbook);
+        return market;
+    }
 
-            bidOrderBook.setBaseDecimals(baseDecimals);
-            bidOrderBook.setQuoteDecimals(quoteDecimals);
-            askOrderBook.setBaseDecimals(baseDecimals);
-            askOrderBook.setQuoteDecimals(quoteDecimals);
+    /**
+     * @return new market from the catalog, or null if there is no catalog or the market is not in it
+     */
+    private Market getCatalogedMarket() {
+        return marketCatalog == null ? null : marketCatalog.get(publicKey);
+    }
 
-            bidOrderBook.setBaseLotSize(market.getBaseLotSize());
-            bidOrderBook.setQuoteLotSize(market.getQuoteLotSize());
-            askOrderBook.setBaseLotSize(market.getBaseLotSize());
-            askOrderBook.setQuoteLotSize(market.getQuoteLotSize());
+    private boolean isCataloged() {
+        return marketCatalog != null && marketCatalog.contains(publicKey);
+    }
 
-            market.setBidOrderBook(bidOrderBook);
-            market.setAskOrderBook(askOrderBook);
+    private void addToCatalog(Market market) {
+        if (marketCatalog != null) {
+            marketCatalog.put(market);
         }
+    }
 
-        if (retrieveEventQueue) {
-            byte[] base64EventQueue = retrieveAccountData(market.getEventQueueKey());
+    private Market readMarket(byte[] data) {
+        return lazyDecoding ? LazyMarket.readLazyMarket(data) : Market.readMarket(data);
+    }
 
-            // first, check the cache for the byte. otherwise, make a request for it
-            // TODO - unduplicate this code
-            byte baseDecimals;
-            byte quoteDecimals;
+    private OrderBook readOrderBook(Market market, byte[] data) {
+        // TODO - change/limit how we pass the decimals around
+        // Currently giving them to everything for testing
+        OrderBook orderBook = OrderBook.readOrderBook(data);
+        orderBook.setBaseDecimals(market.getBaseDecimals());
+        orderBook.setQuoteDecimals(market.getQuoteDecimals());
+        orderBook.setBaseLotSize(market.getBaseLotSize());
+        orderBook.setQuoteLotSize(market.getQuoteLotSize());
 
-            if (decimalsCache.containsKey(market.getBaseMint())) {
-                baseDecimals = decimalsCache.get(market.getBaseMint());
-            } else {
-                baseDecimals = getMintDecimals(market.getBaseMint());
-                decimalsCache.put(market.getBaseMint(), baseDecimals);
-            }
+        return orderBook;
+    }
 
-            if (decimalsCache.containsKey(market.getQuoteMint())) {
-                quoteDecimals = decimalsCache.get(market.getQuoteMint());
-            } else {
-                quoteDecimals = getMintDecimals(market.getQuoteMint());
-                decimalsCache.put(market.getQuoteMint(), quoteDecimals);
-            }
+    /**
+     * Swaps freshly fetched order book data in if it changed.
+     *
+     * @return the buffer that is no longer referenced by the order book, to be used as the next spare
+     */
+    private byte[] swapOrderBookData(OrderBook orderBook, byte[] latest) {
+        final byte[] current = orderBook.getSlabView().getData();
 
-            market.setBaseDecimals(baseDecimals);
-            market.setQuoteDecimals(quoteDecimals);
+        if (Arrays.equals(latest, current)) {
+            return latest;
+        }
 
-            long baseLotSize = market.getBaseLotSize();
-            long quoteLotSize = market.getQuoteLotSize();
+        orderBook.wrap(latest);
+        return current;
+    }
 
-            EventQueue eventQueue = EventQueue.readEventQueue(base64EventQueue, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+    /**
+     * Decodes freshly fetched event queue data, into the existing {@link EventQueue} when reloading.
+     */
+    private void updateEventQueue(Market market, byte[] latest, boolean reload) {
+        if (reload) {
+            spareEventQueueData = latest;
+            if (!Arrays.equals(spareEventQueueData, eventQueueData)) {
+                market.getEventQueue().reload(spareEventQueueData);
+                swapEventQueueData();
+            }
+        } else {
+            eventQueueData = latest;
+
+            EventQueue eventQueue = EventQueue.readEventQueue(
+                    eventQueueData,
+                    market.getBaseDecimals(),
+                    market.getQuoteDecimals(),
+                    market.getBaseLotSize(),
+                    market.getQuoteLotSize()
+            );
             market.setEventQueue(eventQueue);
         }
+    }
 
-        // Used by SerumManager for most lightweight lookup possible
-        if (!retrieveEventQueue && !retrieveOrderbooks && retrieveDecimalsOnly) {
-            byte baseDecimals;
-            byte quoteDecimals;
+    private CompletableFuture<byte[]> fetchAccountData(PublicKey publicKey, byte[] destination) {
+        return CompletableFuture.supplyAsync(() -> retrieveAccountData(publicKey, destination), executor);
+    }
 
-            if (decimalsCache.containsKey(market.getBaseMint())) {
-                baseDecimals = decimalsCache.get(market.getBaseMint());
-            } else {
-                baseDecimals = getMintDecimals(market.getBaseMint());
-                decimalsCache.put(market.getBaseMint(), baseDecimals);
+    private CompletableFuture<Byte> fetchMintDecimals(PublicKey tokenMint) {
+        final int decimals = mintRegistry.getCachedDecimals(tokenMint);
+        if (decimals >= 0) {
+            return CompletableFuture.completedFuture((byte) decimals);
+        }
+
+        return CompletableFuture.supplyAsync(() -> getCachedMintDecimals(tokenMint), executor);
+    }
+
+    /**
+     * Fetches every account the next build of each builder needs with getMultipleAccounts, skipping accounts that
+     * are already prefetched or never change (market accounts already read or cataloged, cached mint decimals).
+     */
+    private static void prefetch(List<MarketBuilder> builders) {
+        if (builders.isEmpty()) {
+            return;
+        }
+
+        final RpcClient client = builders.get(0).client;
+
+        // Market accounts first, they hold every other key
+        final List<PublicKey> marketKeys = new ArrayList<>();
+        for (MarketBuilder builder : builders) {
+            if (builder.base64AccountInfo == null && !builder.prefetchedData.containsKey(builder.publicKey)
+                    && !(builder.reuseBuffers && builder.market != null) && !builder.isCataloged()) {
+                marketKeys.add(builder.publicKey);
             }
+        }
 
-            if (decimalsCache.containsKey(market.getQuoteMint())) {
-                quoteDecimals = decimalsCache.get(market.getQuoteMint());
-            } else {
-                quoteDecimals = getMintDecimals(market.getQuoteMint());
-                decimalsCache.put(market.getQuoteMint(), quoteDecimals);
+        final Map<PublicKey, String> marketData = SerumUtils.getMultipleAccountsData(client, marketKeys);
+        for (MarketBuilder builder : builders) {
+            final String data = marketData.get(builder.publicKey);
+            if (data != null) {
+                builder.prefetchedData.put(builder.publicKey, data);
             }
+        }
 
-            market.setBaseDecimals(baseDecimals);
-            market.setQuoteDecimals(quoteDecimals);
+        final List<List<PublicKey>> builderKeys = new ArrayList<>(builders.size());
+        final List<PublicKey> keys = new ArrayList<>();
+        for (MarketBuilder builder : builders) {
+            final List<PublicKey> accountKeys = builder.getMissingAccountKeys();
+            builderKeys.add(accountKeys);
+            keys.addAll(accountKeys);
         }
 
-        built = true;
-        return market;
+        final Map<PublicKey, String> accountData = SerumUtils.getMultipleAccountsData(client, keys);
+        for (int i = 0; i < builders.size(); i++) {
+            for (PublicKey key : builderKeys.get(i)) {
+                final String data = accountData.get(key);
+                if (data != null) {
+                    builders.get(i).prefetchedData.put(key, data);
+                }
+            }
+        }
     }
 
     /**
-     * Retrieves decimals for a given Token Mint's {@link PublicKey} from Solana account data.
-     * @param tokenMint
-     * @return
+     * @return keys of the accounts the next build needs, besides the market account, that are not prefetched yet
      */
-    private byte getMintDecimals(PublicKey tokenMint) {
-        if (tokenMint.equals(SerumUtils.WRAPPED_SOL_MINT)) {
-            return 9;
+    private List<PublicKey> getMissingAccountKeys() {
+        final List<PublicKey> keys = new ArrayList<>();
+
+        final boolean reload = reuseBuffers && this.market != null;
+        final Market cataloged = reload ? null : getCatalogedMarket();
+
+        final Market market;
+        if (reload) {
+            market = this.market;
+        } else if (cataloged != null) {
+            market = cataloged;
+        } else if (base64AccountInfo != null) {
+            market = LazyMarket.readLazyMarket(base64AccountInfo);
+        } else if (prefetchedData.containsKey(publicKey)) {
+            base64AccountInfo = retrieveAccountData();
+            market = LazyMarket.readLazyMarket(base64AccountInfo);
+        } else {
+            // Market account missing, build() reports it
+            return keys;
+        }
+
+        if (cataloged == null && (retrieveOrderbooks || retrieveEventQueue || retrieveDecimalsOnly)) {
+            addMintKey(keys, market.getBaseMint());
+            addMintKey(keys, market.getQuoteMint());
+        }
+
+        if (retrieveOrderbooks) {
+            addAccountKey(keys, market.getBids());
+            addAccountKey(keys, market.getAsks());
         }
 
-        // RPC call to get mint's account data into decoded bytes (already base64 decoded)
-        byte[] accountData = retrieveAccountData(tokenMint);
+        if (retrieveEventQueue) {
+            addAccountKey(keys, market.getEventQueueKey());
+        }
 
-        // Deserialize accountData into the MINT_LAYOUT enum
-        byte decimals = SerumUtils.readDecimalsFromTokenMintData(accountData);
+        return keys;
+    }
+
+    private void addMintKey(List<PublicKey> keys, PublicKey tokenMint) {
+        if (mintRegistry.getCachedDecimals(tokenMint) < 0) {
+            addAccountKey(keys, tokenMint);
+        }
+    }
+
+    private void addAccountKey(List<PublicKey> keys, PublicKey publicKey) {
+        if (!prefetchedData.containsKey(publicKey) && !keys.contains(publicKey)) {
+            keys.add(publicKey);
+        }
+    }
 
-        return decimals;
+    private void swapEventQueueData() {
+        byte[] data = eventQueueData;
+        eventQueueData = spareEventQueueData;
+        spareEventQueueData = data;
+    }
+
+    private byte getCachedMintDecimals(PublicKey tokenMint) {
+        // first, check the registry for the byte. otherwise, make a request for it
+        final int decimals = mintRegistry.getCachedDecimals(tokenMint);
+        if (decimals >= 0) {
+            return (byte) decimals;
+        }
+
+        // RPC call (or prefetched data) to get mint's account data into decoded bytes
+        return mintRegistry.put(tokenMint, retrieveAccountData(tokenMint)).getDecimals();
     }
 
     private byte[] retrieveAccountData() {
@@ -201,6 +575,15 @@ public class MarketBuilder {
     }
 
     private byte[] retrieveAccountData(PublicKey publicKey) {
+        return retrieveAccountData(publicKey, null);
+    }
+
+    private byte[] retrieveAccountData(PublicKey publicKey, byte[] destination) {
+        final String prefetched = prefetchedData.remove(publicKey);
+        if (prefetched != null) {
+            return SerumUtils.decodeBase64(prefetched, destination);
+        }
+
         AccountInfo orderBook = null;
 
         try {
@@ -211,7 +594,7 @@ public class MarketBuilder {
 
         final List<String> accountData = orderBook.getValue().getData();
 
-        return Base64.getDecoder().decode(accountData.get(0));
+        return SerumUtils.decodeBase64(accountData.get(0), destination);
     }
 
     public PublicKey getPublicKey() {
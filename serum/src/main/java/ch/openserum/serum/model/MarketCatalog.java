@@ -0,0 +1,241 @@
+package ch.openserum.serum.model;
+
+import org.p2p.solanaj.core.PublicKey;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of the fields of Serum markets that never change: mints, vaults, queue and order book keys, lot sizes,
+ * fee rate, vault signer nonce and the derived vault signer, plus the token decimals. Saved to a compact binary file,
+ * it lets a {@link MarketBuilder} skip the market and mint accounts on startup and only fetch the order books and
+ * event queue.
+ *
+ * File layout, little-endian: magic and version (u32 each), market count (u32), one fixed-size record per market,
+ * then the CRC32 of everything before it (u32). Thread-safe.
+ */
+public class MarketCatalog {
+
+    private static final Logger LOGGER = Logger.getLogger(MarketCatalog.class.getName());
+
+    private static final int FILE_MAGIC = 0x544B4D53; // "SMKT"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int CHECKSUM_SIZE = 4;
+
+    // 10 pubkeys, 5 u64, account flags and both decimals
+    private static final int RECORD_SIZE = (10 * PublicKey.PUBLIC_KEY_LENGTH) + (5 * Long.BYTES) + 3;
+
+    private final Map<PublicKey, Market> markets = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or replaces the static fields of a market. Its decimals should be set, e.g. by a {@link MarketBuilder}
+     * that retrieves order books, the event queue or decimals.
+     *
+     * @param market market to snapshot, not referenced after this call returns
+     */
+    public void put(Market market) {
+        final Market snapshot = new Market();
+        copyStaticFields(market, snapshot);
+        snapshot.setVaultSigner(market.getVaultSigner());
+        markets.put(snapshot.getOwnAddress(), snapshot);
+    }
+
+    public void putAll(Collection<? extends Market> markets) {
+        markets.forEach(this::put);
+    }
+
+    /**
+     * Builds a new {@link Market} holding the static fields of a cataloged market, with its vault signer precomputed.
+     * Deposits, fees and rebates are not cataloged and read 0.
+     *
+     * @param marketAddress market address
+     * @return new market, or null if the market is not in this catalog
+     */
+    public Market get(PublicKey marketAddress) {
+        final Market snapshot = markets.get(marketAddress);
+        if (snapshot == null) {
+            return null;
+        }
+
+        final Market market = new Market();
+        copyStaticFields(snapshot, market);
+        market.setVaultSigner(snapshot.getVaultSigner());
+        return market;
+    }
+
+    public boolean contains(PublicKey marketAddress) {
+        return markets.containsKey(marketAddress);
+    }
+
+    public Collection<PublicKey> getMarketAddresses() {
+        return Collections.unmodifiableCollection(markets.keySet());
+    }
+
+    public void remove(PublicKey marketAddress) {
+        markets.remove(marketAddress);
+    }
+
+    public int size() {
+        return markets.size();
+    }
+
+    /**
+     * Adds the markets saved by {@link #save(Path)}, keeping cataloged markets that are not in the file.
+     *
+     * @param file catalog file
+     * @return number of markets read, 0 if the file does not exist
+     * @throws IOException if the file cannot be read, is not a catalog of this version or fails its checksum
+     */
+    public int load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE + CHECKSUM_SIZE || buffer.getInt(0) != FILE_MAGIC) {
+            throw new IOException("Not a market catalog file: " + file);
+        }
+
+        final int version = buffer.getInt(4);
+        if (version != FILE_VERSION) {
+            throw new IOException("Unsupported market catalog version " + version + ": " + file);
+        }
+
+        final int count = buffer.getInt(8);
+        final int checksumOffset = HEADER_SIZE + (count * RECORD_SIZE);
+        if (count < 0 || buffer.capacity() != checksumOffset + CHECKSUM_SIZE) {
+            throw new IOException("Truncated market catalog: " + file);
+        }
+
+        if (buffer.getInt(checksumOffset) != (int) checksum(buffer.array(), checksumOffset)) {
+            throw new IOException("Market catalog checksum mismatch: " + file);
+        }
+
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < count; i++) {
+            final Market market = readRecord(buffer);
+            markets.put(market.getOwnAddress(), market);
+        }
+
+        LOGGER.fine("Loaded " + count + " markets from " + file);
+        return count;
+    }
+
+    /**
+     * Writes every cataloged market to a file, replacing it atomically.
+     *
+     * @param file catalog file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        final List<Market> snapshot = new ArrayList<>(markets.values());
+        final int checksumOffset = HEADER_SIZE + (snapshot.size() * RECORD_SIZE);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(checksumOffset + CHECKSUM_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(FILE_VERSION);
+        buffer.putInt(snapshot.size());
+        for (Market market : snapshot) {
+            writeRecord(buffer, market);
+        }
+        buffer.putInt((int) checksum(buffer.array(), checksumOffset));
+
+        final Path directory = file.toAbsolutePath().getParent();
+        final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, buffer.array());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void copyStaticFields(Market source, Market destination) {
+        destination.setAccountFlags(source.getAccountFlags());
+        destination.setOwnAddress(source.getOwnAddress());
+        destination.setVaultSignerNonce(source.getVaultSignerNonce());
+        destination.setBaseMint(source.getBaseMint());
+        destination.setQuoteMint(source.getQuoteMint());
+        destination.setBaseVault(source.getBaseVault());
+        destination.setQuoteVault(source.getQuoteVault());
+        destination.setQuoteDustThreshold(source.getQuoteDustThreshold());
+        destination.setRequestQueue(source.getRequestQueue());
+        destination.setEventQueueKey(source.getEventQueueKey());
+        destination.setBids(source.getBids());
+        destination.setAsks(source.getAsks());
+        destination.setBaseLotSize(source.getBaseLotSize());
+        destination.setQuoteLotSize(source.getQuoteLotSize());
+        destination.setFeeRateBps(source.getFeeRateBps());
+        destination.setBaseDecimals(source.getBaseDecimals());
+        destination.setQuoteDecimals(source.getQuoteDecimals());
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Market market) {
+        buffer.put(market.getOwnAddress().toByteArray());
+        buffer.put(market.getVaultSigner().toByteArray());
+        buffer.put(market.getBaseMint().toByteArray());
+        buffer.put(market.getQuoteMint().toByteArray());
+        buffer.put(market.getBaseVault().toByteArray());
+        buffer.put(market.getQuoteVault().toByteArray());
+        buffer.put(market.getRequestQueue().toByteArray());
+        buffer.put(market.getEventQueueKey().toByteArray());
+        buffer.put(market.getBids().toByteArray());
+        buffer.put(market.getAsks().toByteArray());
+        buffer.putLong(market.getVaultSignerNonce());
+        buffer.putLong(market.getQuoteDustThreshold());
+        buffer.putLong(market.getBaseLotSize());
+        buffer.putLong(market.getQuoteLotSize());
+        buffer.putLong(market.getFeeRateBps());
+        buffer.put(market.getAccountFlags() == null ? (byte) 0 : market.getAccountFlags().getBitMask());
+        buffer.put(market.getBaseDecimals());
+        buffer.put(market.getQuoteDecimals());
+    }
+
+    private static Market readRecord(ByteBuffer buffer) {
+        final Market market = new Market();
+        market.setOwnAddress(readPublicKey(buffer));
+        market.setVaultSigner(readPublicKey(buffer));
+        market.setBaseMint(readPublicKey(buffer));
+        market.setQuoteMint(readPublicKey(buffer));
+        market.setBaseVault(readPublicKey(buffer));
+        market.setQuoteVault(readPublicKey(buffer));
+        market.setRequestQueue(readPublicKey(buffer));
+        market.setEventQueueKey(readPublicKey(buffer));
+        market.setBids(readPublicKey(buffer));
+        market.setAsks(readPublicKey(buffer));
+        market.setVaultSignerNonce(buffer.getLong());
+        market.setQuoteDustThreshold(buffer.getLong());
+        market.setBaseLotSize(buffer.getLong());
+        market.setQuoteLotSize(buffer.getLong());
+        market.setFeeRateBps(buffer.getLong());
+        market.setAccountFlags(new AccountFlags(buffer.get()));
+        market.setBaseDecimals(buffer.get());
+        market.setQuoteDecimals(buffer.get());
+        return market;
+    }
+
+    private static PublicKey readPublicKey(ByteBuffer buffer) {
+        final byte[] key = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+        buffer.get(key);
+        return new PublicKey(key);
+    }
+
+    private static long checksum(byte[] data, int length) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, length);
+        return crc32.getValue();
+    }
+}
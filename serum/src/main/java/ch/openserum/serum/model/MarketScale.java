@@ -0,0 +1,231 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.FixedPoint;
+
+/**
+ * Immutable conversion context of one Serum market: decimals, lot sizes and every scaling factor derived from them,
+ * computed once instead of on each conversion. Get it from {@link Market#getMarketScale()}.
+ *
+ * Prices are in quote tokens per base token, sizes in base tokens. Double conversions match the {@link SerumUtils}
+ * methods of the same name up to double rounding, fixed-point ones are exact (see {@link FixedPoint}).
+ */
+public final class MarketScale {
+
+    // Relative slack when checking a double against the tick or step grid
+    private static final double GRID_TOLERANCE = 1e-9;
+
+    private final byte baseDecimals;
+    private final byte quoteDecimals;
+    private final long baseLotSize;
+    private final long quoteLotSize;
+
+    private final double baseMultiplier;
+    private final double quoteMultiplier;
+
+    // price in lots = price * priceToLots, price = price in lots * tickSize
+    private final double priceToLots;
+    private final double tickSize;
+    private final double stepSize;
+
+    private final int priceScale;
+    private final long fixedTickSize;
+    private final boolean tickExact;
+
+    public MarketScale(byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        if (baseLotSize <= 0 || quoteLotSize <= 0) {
+            throw new IllegalArgumentException("Lot sizes must be positive: " + baseLotSize + ", " + quoteLotSize);
+        }
+
+        this.baseDecimals = baseDecimals;
+        this.quoteDecimals = quoteDecimals;
+        this.baseLotSize = baseLotSize;
+        this.quoteLotSize = quoteLotSize;
+
+        this.baseMultiplier = SerumUtils.getBaseSplTokenMultiplier(baseDecimals);
+        this.quoteMultiplier = SerumUtils.getQuoteSplTokenMultiplier(quoteDecimals);
+        this.priceToLots = (quoteMultiplier * baseLotSize) / (baseMultiplier * quoteLotSize);
+        this.tickSize = (quoteLotSize * baseMultiplier) / (baseLotSize * quoteMultiplier);
+        this.stepSize = baseLotSize / baseMultiplier;
+
+        this.priceScale = SerumUtils.getPriceScale(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+        this.fixedTickSize = SerumUtils.priceLotsToFixed(1, priceScale, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+        this.tickExact = SerumUtils.isTickExact(priceScale, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+    }
+
+    public static MarketScale of(Market market) {
+        return new MarketScale(
+                market.getBaseDecimals(),
+                market.getQuoteDecimals(),
+                market.getBaseLotSize(),
+                market.getQuoteLotSize()
+        );
+    }
+
+    /**
+     * @return true if this scale was built from the given market parameters
+     */
+    public boolean matches(byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        return this.baseDecimals == baseDecimals
+                && this.quoteDecimals == quoteDecimals
+                && this.baseLotSize == baseLotSize
+                && this.quoteLotSize == quoteLotSize;
+    }
+
+    // Double conversions, see SerumUtils
+
+    public long priceNumberToLots(double price) {
+        return Math.round(price * priceToLots);
+    }
+
+    public double priceLotsToNumber(long price) {
+        return price * tickSize;
+    }
+
+    public long baseSizeNumberToLots(double size) {
+        return Math.round(size * baseMultiplier) / baseLotSize;
+    }
+
+    public double baseSizeLotsToNumber(long size) {
+        return size * stepSize;
+    }
+
+    /**
+     * @return quote quantity locked by a bid of {@code size} at {@code price}, in native quote units
+     */
+    public long getMaxQuoteQuantity(double price, double size) {
+        return quoteLotSize * baseSizeNumberToLots(size) * priceNumberToLots(price);
+    }
+
+    /**
+     * @return true if {@code price} is a whole number of ticks, up to double rounding
+     */
+    public boolean isPriceOnTick(double price) {
+        final double lots = price * priceToLots;
+        return Math.abs(lots - Math.rint(lots)) <= GRID_TOLERANCE * Math.max(1, Math.abs(lots));
+    }
+
+    /**
+     * @return true if {@code size} is a whole number of base lots, up to double rounding
+     */
+    public boolean isSizeOnStep(double size) {
+        final double lots = size / stepSize;
+        return Math.abs(lots - Math.rint(lots)) <= GRID_TOLERANCE * Math.max(1, Math.abs(lots));
+    }
+
+    // Fixed-point conversions: prices at getPriceScale(), sizes in native base units (scale baseDecimals)
+
+    /**
+     * @return fixed-point price at {@link #getPriceScale()}
+     */
+    public long priceLotsToFixed(long price) {
+        if (tickExact) {
+            return Math.multiplyExact(price, fixedTickSize);
+        }
+
+        return SerumUtils.priceLotsToFixed(price, priceScale, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+    }
+
+    /**
+     * @param fixedPrice price at {@link #getPriceScale()}
+     * @return price in lots, rounded down to the tick below
+     */
+    public long priceFixedToLots(long fixedPrice) {
+        if (tickExact) {
+            return Math.floorDiv(fixedPrice, fixedTickSize);
+        }
+
+        return (long) Math.floor(FixedPoint.toDouble(fixedPrice, priceScale) * priceToLots);
+    }
+
+    /**
+     * @param fixedPrice price at {@link #getPriceScale()}
+     * @return true if the price is a whole number of ticks
+     */
+    public boolean isFixedPriceOnTick(long fixedPrice) {
+        return tickExact ? fixedPrice % fixedTickSize == 0 : isPriceOnTick(FixedPoint.toDouble(fixedPrice, priceScale));
+    }
+
+    /**
+     * @param nativeSize size in native base units
+     * @return size in base lots, rounded down
+     */
+    public long nativeBaseToLots(long nativeSize) {
+        return Math.floorDiv(nativeSize, baseLotSize);
+    }
+
+    public long baseLotsToNative(long size) {
+        return Math.multiplyExact(size, baseLotSize);
+    }
+
+    /**
+     * @param nativeSize size in native base units
+     * @return true if the size is a whole number of base lots
+     */
+    public boolean isNativeSizeOnStep(long nativeSize) {
+        return nativeSize % baseLotSize == 0;
+    }
+
+    public byte getBaseDecimals() {
+        return baseDecimals;
+    }
+
+    public byte getQuoteDecimals() {
+        return quoteDecimals;
+    }
+
+    public long getBaseLotSize() {
+        return baseLotSize;
+    }
+
+    public long getQuoteLotSize() {
+        return quoteLotSize;
+    }
+
+    public double getBaseMultiplier() {
+        return baseMultiplier;
+    }
+
+    public double getQuoteMultiplier() {
+        return quoteMultiplier;
+    }
+
+    /**
+     * @return price of one price lot, in quote tokens per base token
+     */
+    public double getTickSize() {
+        return tickSize;
+    }
+
+    /**
+     * @return size of one base lot, in base tokens
+     */
+    public double getStepSize() {
+        return stepSize;
+    }
+
+    /**
+     * @return scale of fixed-point prices, see {@link SerumUtils#getPriceScale(byte, byte, long, long)}
+     */
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * @return price of one price lot at {@link #getPriceScale()}
+     */
+    public long getFixedTickSize() {
+        return fixedTickSize;
+    }
+
+    @Override
+    public String toString() {
+        return "MarketScale{" +
+                "baseDecimals=" + baseDecimals +
+                ", quoteDecimals=" + quoteDecimals +
+                ", baseLotSize=" + baseLotSize +
+                ", quoteLotSize=" + quoteLotSize +
+                ", tickSize=" + FixedPoint.toString(fixedTickSize, priceScale) +
+                ", stepSize=" + FixedPoint.toString(baseLotSize, baseDecimals) +
+                '}';
+    }
+}
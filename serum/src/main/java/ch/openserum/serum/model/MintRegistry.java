@@ -0,0 +1,240 @@
+package ch.openserum.serum.model;
+
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache of {@link TokenMint}s. Decimals never change, so each mint only needs to be fetched once per
+ * process, or never with {@link #load(Path)} and {@link #save(Path)}.
+ *
+ * Every {@link MarketBuilder} uses {@link #getShared()} unless given its own registry. Thread-safe.
+ */
+public class MintRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(MintRegistry.class.getName());
+
+    private static final int FILE_MAGIC = 0x4D494E54; // "MINT"
+    private static final int FILE_VERSION = 1;
+    private static final byte WRAPPED_SOL_DECIMALS = 9;
+
+    private static final MintRegistry SHARED = new MintRegistry();
+
+    private final Map<PublicKey, TokenMint> mints = new ConcurrentHashMap<>();
+
+    /**
+     * @return registry shared by every {@link MarketBuilder} of this process
+     */
+    public static MintRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @return cached mint, or null if it was never fetched
+     */
+    public TokenMint get(PublicKey mint) {
+        return mints.get(mint);
+    }
+
+    /**
+     * Returns cached mint decimals without any RPC call. Wrapped SOL is always known.
+     *
+     * @return decimals, or -1 if the mint was never fetched
+     */
+    public int getCachedDecimals(PublicKey mint) {
+        if (mint.equals(SerumUtils.WRAPPED_SOL_MINT)) {
+            return WRAPPED_SOL_DECIMALS;
+        }
+
+        final TokenMint tokenMint = mints.get(mint);
+        return tokenMint == null ? -1 : tokenMint.getDecimals();
+    }
+
+    /**
+     * Returns mint decimals, fetching the mint on a cache miss.
+     *
+     * @param client RPC client used on a cache miss
+     * @param mint token mint
+     * @return decimals
+     */
+    public byte getDecimals(RpcClient client, PublicKey mint) {
+        final int cached = getCachedDecimals(mint);
+        if (cached >= 0) {
+            return (byte) cached;
+        }
+
+        final TokenMint tokenMint = prefetch(client, List.of(mint)).get(mint);
+        if (tokenMint == null) {
+            throw new RuntimeException("Unable to read token mint " + mint);
+        }
+
+        return tokenMint.getDecimals();
+    }
+
+    /**
+     * Fetches every mint not cached yet with {@code getMultipleAccounts}, 100 mints per request. Accounts that are
+     * not valid mints, e.g. closed ones, are logged and left out instead of failing the whole batch.
+     *
+     * @param client RPC client
+     * @param mints token mints
+     * @return the requested mints that are now cached
+     */
+    public Map<PublicKey, TokenMint> prefetch(RpcClient client, Collection<PublicKey> mints) {
+        final List<PublicKey> missing = new ArrayList<>();
+        for (PublicKey mint : mints) {
+            if (!this.mints.containsKey(mint)) {
+                missing.add(mint);
+            }
+        }
+
+        SerumUtils.getMultipleAccountsData(client, missing).forEach((mint, base64) -> {
+            try {
+                put(mint, SerumUtils.decodeBase64(base64, null));
+            } catch (RuntimeException e) {
+                LOGGER.warning("Skipping token mint " + mint + ": " + e.getMessage());
+            }
+        });
+
+        final Map<PublicKey, TokenMint> result = new HashMap<>();
+        for (PublicKey mint : mints) {
+            final TokenMint tokenMint = this.mints.get(mint);
+            if (tokenMint != null) {
+                result.put(mint, tokenMint);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Decodes and caches mint account data fetched elsewhere.
+     *
+     * @return decoded mint
+     */
+    public TokenMint put(PublicKey mint, byte[] data) {
+        final TokenMint tokenMint = TokenMint.readTokenMint(mint, data);
+        mints.put(mint, tokenMint);
+        return tokenMint;
+    }
+
+    public void put(TokenMint tokenMint) {
+        mints.put(tokenMint.getMint(), tokenMint);
+    }
+
+    /**
+     * @return every cached mint
+     */
+    public Collection<TokenMint> getMints() {
+        return Collections.unmodifiableCollection(mints.values());
+    }
+
+    public int size() {
+        return mints.size();
+    }
+
+    public void clear() {
+        mints.clear();
+    }
+
+    /**
+     * Adds the mints saved by {@link #save(Path)}, keeping cached mints that are not in the file.
+     *
+     * @param file registry file
+     * @return number of mints read, 0 if the file does not exist
+     * @throws IOException if the file cannot be read or is not a registry file
+     */
+    public int load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a mint registry file: " + file);
+            }
+
+            final int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported mint registry version " + version + ": " + file);
+            }
+
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final TokenMint tokenMint = new TokenMint();
+                tokenMint.setMint(readPublicKey(in));
+                tokenMint.setDecimals(in.readByte());
+                tokenMint.setInitialized(in.readBoolean());
+                tokenMint.setSupply(in.readLong());
+                tokenMint.setMintAuthority(in.readBoolean() ? readPublicKey(in) : null);
+                tokenMint.setFreezeAuthority(in.readBoolean() ? readPublicKey(in) : null);
+                tokenMint.setFetchedAtMillis(in.readLong());
+                mints.put(tokenMint.getMint(), tokenMint);
+            }
+
+            LOGGER.fine("Loaded " + count + " mints from " + file);
+            return count;
+        }
+    }
+
+    /**
+     * Writes every cached mint to a file, replacing it atomically.
+     *
+     * @param file registry file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        final List<TokenMint> snapshot = new ArrayList<>(mints.values());
+        final Path directory = file.toAbsolutePath().getParent();
+        final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.size());
+                for (TokenMint tokenMint : snapshot) {
+                    out.write(tokenMint.getMint().toByteArray());
+                    out.writeByte(tokenMint.getDecimals());
+                    out.writeBoolean(tokenMint.isInitialized());
+                    out.writeLong(tokenMint.getSupply());
+                    writeOptionalPublicKey(out, tokenMint.getMintAuthority());
+                    writeOptionalPublicKey(out, tokenMint.getFreezeAuthority());
+                    out.writeLong(tokenMint.getFetchedAtMillis());
+                }
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static PublicKey readPublicKey(DataInputStream in) throws IOException {
+        final byte[] key = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+        in.readFully(key);
+        return new PublicKey(key);
+    }
+
+    private static void writeOptionalPublicKey(DataOutputStream out, PublicKey publicKey) throws IOException {
+        out.writeBoolean(publicKey != null);
+        if (publicKey != null) {
+            out.write(publicKey.toByteArray());
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package ch.openserum.serum.model;
 
+import ch.openserum.codec.LayoutCodec;
+import ch.openserum.codec.layout.AccountLayout;
+import ch.openserum.codec.layout.LayoutField;
+import ch.openserum.codec.layout.LayoutType;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.utils.ByteUtils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import static ch.openserum.serum.model.SerumUtils.U64_SIZE_BYTES;
 import static ch.openserum.serum.model.SerumUtils.U128_SIZE_BYTES;
 
 /**
- * Represents a Serum Open Orders account. Generally built from {@link SerumUtils}.
+ * Represents a Serum Open Orders account. Generally built from {@link SerumUtils}. Offsets of the fixed fields are
+ * generated from the {@link LayoutField}s into {@link OpenOrdersAccountLayout}; the order slots in between are
+ * decoded here.
  */
+@AccountLayout(size = 3221)
 @Getter
 @Setter
 @ToString
@@ -35,26 +40,31 @@ public class OpenOrdersAccount {
         private float floatPrice;
     }
 
-    private static final int MARKET_OFFSET = 13;
-    private static final int OWNER_OFFSET = MARKET_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_TOKEN_FREE_OFFSET = OWNER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_TOKEN_TOTAL_OFFSET = BASE_TOKEN_FREE_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_TOKEN_FREE_OFFSET = BASE_TOKEN_TOTAL_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_TOKEN_TOTAL_OFFSET = QUOTE_TOKEN_FREE_OFFSET + U64_SIZE_BYTES;
-    private static final int FREE_SLOT_BITS_OFFSET = QUOTE_TOKEN_TOTAL_OFFSET + U64_SIZE_BYTES;
-    private static final int IS_BID_BITS_OFFSET = FREE_SLOT_BITS_OFFSET + U128_SIZE_BYTES;
-    private static final int ORDERS_OFFSET = IS_BID_BITS_OFFSET + U128_SIZE_BYTES;
-    private static final int CLIENT_IDS_OFFSET = ORDERS_OFFSET + 2048;
+    static final int SLOT_COUNT = 128;
 
+    static final int ORDERS_OFFSET = OpenOrdersAccountLayout.IS_BID_BITS_OFFSET + U128_SIZE_BYTES;
+    static final int CLIENT_IDS_OFFSET = ORDERS_OFFSET + (SLOT_COUNT * U128_SIZE_BYTES);
+
+    @LayoutField(value = LayoutType.STRUCT, size = 8, padding = 5)
     private AccountFlags accountFlags;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey market;
+    @LayoutField(LayoutType.PUBKEY)
     private PublicKey owner;
+    @LayoutField(LayoutType.I64)
     private long baseTokenFree;
+    @LayoutField(LayoutType.I64)
     private long baseTokenTotal;
+    @LayoutField(LayoutType.I64)
     private long quoteTokenFree;
+    @LayoutField(LayoutType.I64)
     private long quoteTokenTotal;
+    @LayoutField(value = LayoutType.BYTES, count = U128_SIZE_BYTES)
     private byte[] freeSlotBits;
+    @LayoutField(value = LayoutType.BYTES, count = U128_SIZE_BYTES)
     private byte[] isBidBits;
+    // Follows the order ids and client ids of every slot
+    @LayoutField(value = LayoutType.I64, padding = SLOT_COUNT * (U128_SIZE_BYTES + U64_SIZE_BYTES))
     private long referrerRebatesAccrued;
 
     // set manually
@@ -78,39 +88,11 @@ public class OpenOrdersAccount {
     }
 
     public static OpenOrdersAccount readOpenOrdersAccount(byte[] data) {
-        OpenOrdersAccount openOrdersAccount = new OpenOrdersAccount();
-
-        final AccountFlags accountFlags = AccountFlags.readAccountFlags(data);
-        openOrdersAccount.setAccountFlags(accountFlags);
-
-        final PublicKey marketPubkey = PublicKey.readPubkey(data, MARKET_OFFSET);
-        openOrdersAccount.setMarket(marketPubkey);
-
-        final PublicKey ownerPubkey = PublicKey.readPubkey(data, OWNER_OFFSET);
-        openOrdersAccount.setOwner(ownerPubkey);
-
-        // baseTokenFree = unsettled balance
-        final long baseTokenFree = Utils.readInt64(data, BASE_TOKEN_FREE_OFFSET);
-        openOrdersAccount.setBaseTokenFree(baseTokenFree);
-
-        final long baseTokenTotal = Utils.readInt64(data, BASE_TOKEN_TOTAL_OFFSET);
-        openOrdersAccount.setBaseTokenTotal(baseTokenTotal);
-
-        final long quoteTokenFree = Utils.readInt64(data, QUOTE_TOKEN_FREE_OFFSET);
-        openOrdersAccount.setQuoteTokenFree(quoteTokenFree);
-
-        final long quoteTokenTotal = Utils.readInt64(data, QUOTE_TOKEN_TOTAL_OFFSET);
-        openOrdersAccount.setQuoteTokenTotal(quoteTokenTotal);
-
-        byte[] freeSlotBits = Arrays.copyOfRange(data, FREE_SLOT_BITS_OFFSET, IS_BID_BITS_OFFSET);
-        byte[] isBidBits = Arrays.copyOfRange(data, IS_BID_BITS_OFFSET, ORDERS_OFFSET);
-        openOrdersAccount.setFreeSlotBits(freeSlotBits);
-        openOrdersAccount.setIsBidBits(isBidBits);
-
-        // orders = 128 * 16 = 2048 bytes of orders
+        final OpenOrdersAccount openOrdersAccount = OpenOrdersAccountLayout.decode(data, 0, new OpenOrdersAccount());
+        final byte[] freeSlotBits = openOrdersAccount.getFreeSlotBits();
+        final byte[] isBidBits = openOrdersAccount.getIsBidBits();
 
-        byte[] orders = Arrays.copyOfRange(data, ORDERS_OFFSET, CLIENT_IDS_OFFSET);
-        byte[] clientIds = Arrays.copyOfRange(data, CLIENT_IDS_OFFSET, CLIENT_IDS_OFFSET + 1024);
+        // orders = 128 * 16 = 2048 bytes of orders, followed by 128 * 8 = 1024 bytes of client ids
 
         final List<Long> orderIds = new ArrayList<>();
         final List<Long> prices = new ArrayList<>();
@@ -122,14 +104,14 @@ public class OpenOrdersAccount {
 
         for (int i = 0; i < 128; i++) {
             // read clientId
-            long clientId = Utils.readInt64(clientIds, i * U64_SIZE_BYTES);
-            byte[] clientOrderId = Arrays.copyOfRange(orders, i * U128_SIZE_BYTES, (i * U128_SIZE_BYTES) + U64_SIZE_BYTES);
+            long clientId = LayoutCodec.readInt64(data, CLIENT_IDS_OFFSET + (i * U64_SIZE_BYTES));
+            byte[] clientOrderId = LayoutCodec.readBytes(data, ORDERS_OFFSET + (i * U128_SIZE_BYTES), U64_SIZE_BYTES);
 
             orderIds.add(clientId);
             clientOrderIds.add(clientOrderId);
 
             // read price
-            long price = Utils.readInt64(orders, (i * U128_SIZE_BYTES) + U64_SIZE_BYTES);
+            long price = LayoutCodec.readInt64(data, ORDERS_OFFSET + (i * U128_SIZE_BYTES) + U64_SIZE_BYTES);
             boolean isFreeSlot = ByteUtils.getBit(freeSlotBits, i) == 1;
             boolean isBid = ByteUtils.getBit(isBidBits, i) == 1;
 
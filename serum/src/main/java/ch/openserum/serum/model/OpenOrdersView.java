@@ -0,0 +1,277 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static ch.openserum.serum.model.OpenOrdersAccount.CLIENT_IDS_OFFSET;
+import static ch.openserum.serum.model.OpenOrdersAccount.ORDERS_OFFSET;
+import static ch.openserum.serum.model.OpenOrdersAccount.SLOT_COUNT;
+import static ch.openserum.serum.model.OpenOrdersAccountLayout.*;
+import static ch.openserum.serum.model.SerumUtils.U64_SIZE_BYTES;
+import static ch.openserum.serum.model.SerumUtils.U128_SIZE_BYTES;
+
+/**
+ * Compact, reusable decoding of a Serum open orders account into primitive arrays.
+ *
+ * {@link OpenOrdersAccount#readOpenOrdersAccount(byte[])} builds five boxed lists of 128 entries and an
+ * {@link OpenOrdersAccount.Order} per occupied slot. This view keeps the free and bid slot bitmaps as two longs each,
+ * prices and client ids as {@code long[]} and order ids in a single {@code byte[]}, and {@link #reload(byte[])}
+ * decodes the next account into the same arrays without allocating.
+ *
+ * Slot {@code i} is bit {@code i % 64} of the low ({@code i < 64}) or high bitmap word.
+ */
+public class OpenOrdersView {
+
+    private static final int WORD_BITS = 64;
+
+    private AccountFlags accountFlags;
+    private byte accountFlagsByte;
+    private final byte[] market = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+    private final byte[] owner = new byte[PublicKey.PUBLIC_KEY_LENGTH];
+    private long baseTokenFree;
+    private long baseTokenTotal;
+    private long quoteTokenFree;
+    private long quoteTokenTotal;
+    private long referrerRebatesAccrued;
+
+    // Bitmaps: free slots, and bid (vs ask) slots
+    private long freeLow;
+    private long freeHigh;
+    private long bidLow;
+    private long bidHigh;
+
+    private final long[] prices = new long[SLOT_COUNT];
+    private final long[] clientIds = new long[SLOT_COUNT];
+    private final byte[] orderIds = new byte[SLOT_COUNT * U128_SIZE_BYTES];
+
+    public static OpenOrdersView readOpenOrdersView(byte[] data) {
+        final OpenOrdersView openOrdersView = new OpenOrdersView();
+        openOrdersView.reload(data);
+        return openOrdersView;
+    }
+
+    /**
+     * Decodes open orders account data into this view, overwriting the previous account.
+     *
+     * @param data open orders account data
+     * @return this view
+     */
+    public OpenOrdersView reload(byte[] data) {
+        if (accountFlags == null || accountFlagsByte != data[ACCOUNT_FLAGS_OFFSET]) {
+            accountFlagsByte = data[ACCOUNT_FLAGS_OFFSET];
+            accountFlags = AccountFlags.readAccountFlags(data);
+        }
+
+        LayoutCodec.readPubkeyBytes(data, MARKET_OFFSET, market, 0);
+        LayoutCodec.readPubkeyBytes(data, OWNER_OFFSET, owner, 0);
+        baseTokenFree = LayoutCodec.readInt64(data, BASE_TOKEN_FREE_OFFSET);
+        baseTokenTotal = LayoutCodec.readInt64(data, BASE_TOKEN_TOTAL_OFFSET);
+        quoteTokenFree = LayoutCodec.readInt64(data, QUOTE_TOKEN_FREE_OFFSET);
+        quoteTokenTotal = LayoutCodec.readInt64(data, QUOTE_TOKEN_TOTAL_OFFSET);
+        referrerRebatesAccrued = LayoutCodec.readInt64(data, REFERRER_REBATES_ACCRUED_OFFSET);
+
+        freeLow = LayoutCodec.readInt64(data, FREE_SLOT_BITS_OFFSET);
+        freeHigh = LayoutCodec.readInt64(data, FREE_SLOT_BITS_OFFSET + U64_SIZE_BYTES);
+        bidLow = LayoutCodec.readInt64(data, IS_BID_BITS_OFFSET);
+        bidHigh = LayoutCodec.readInt64(data, IS_BID_BITS_OFFSET + U64_SIZE_BYTES);
+
+        System.arraycopy(data, ORDERS_OFFSET, orderIds, 0, orderIds.length);
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            // order id = (price << 64) | sequence number
+            prices[slot] = LayoutCodec.readInt64(data, ORDERS_OFFSET + (slot * U128_SIZE_BYTES) + U64_SIZE_BYTES);
+            clientIds[slot] = LayoutCodec.readInt64(data, CLIENT_IDS_OFFSET + (slot * U64_SIZE_BYTES));
+        }
+
+        return this;
+    }
+
+    // Slots
+
+    public boolean isFree(int slot) {
+        return bit(freeLow, freeHigh, slot) != 0;
+    }
+
+    public boolean isBid(int slot) {
+        return bit(bidLow, bidHigh, slot) != 0;
+    }
+
+    /**
+     * @return number of slots holding an order
+     */
+    public int getOrderCount() {
+        return Long.bitCount(~freeLow) + Long.bitCount(~freeHigh);
+    }
+
+    /**
+     * Finds the first occupied slot at or after {@code fromSlot}, skipping free slots 64 at a time.
+     *
+     * @param fromSlot first slot to check
+     * @return occupied slot index, or -1 if there is none
+     */
+    public int nextOccupiedSlot(int fromSlot) {
+        if (fromSlot < WORD_BITS) {
+            final long occupiedLow = ~freeLow & (-1L << fromSlot);
+            if (occupiedLow != 0) {
+                return Long.numberOfTrailingZeros(occupiedLow);
+            }
+            fromSlot = WORD_BITS;
+        }
+
+        if (fromSlot < SLOT_COUNT) {
+            final long occupiedHigh = ~freeHigh & (-1L << (fromSlot - WORD_BITS));
+            if (occupiedHigh != 0) {
+                return WORD_BITS + Long.numberOfTrailingZeros(occupiedHigh);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Calls {@code consumer} with every occupied slot, in slot order.
+     */
+    public void forEachOccupiedSlot(IntConsumer consumer) {
+        for (long occupied = ~freeLow; occupied != 0; occupied &= occupied - 1) {
+            consumer.accept(Long.numberOfTrailingZeros(occupied));
+        }
+
+        for (long occupied = ~freeHigh; occupied != 0; occupied &= occupied - 1) {
+            consumer.accept(WORD_BITS + Long.numberOfTrailingZeros(occupied));
+        }
+    }
+
+    /**
+     * Finds the occupied slot of the order placed with {@code clientId}.
+     *
+     * @param clientId client id given when placing the order
+     * @return slot index, or -1 if no open order has this client id
+     */
+    public int findSlotByClientId(long clientId) {
+        for (int slot = nextOccupiedSlot(0); slot >= 0; slot = nextOccupiedSlot(slot + 1)) {
+            if (clientIds[slot] == clientId) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return limit price of the order in a slot, in lots
+     */
+    public long getPrice(int slot) {
+        return prices[slot];
+    }
+
+    public long getClientId(int slot) {
+        return clientIds[slot];
+    }
+
+    /**
+     * Lower 64 bits of the order id in a slot. Bids store the bitwise complement of the order's sequence number here.
+     */
+    public long getOrderSeqNum(int slot) {
+        return LayoutCodec.readInt64(orderIds, slot * U128_SIZE_BYTES);
+    }
+
+    /**
+     * Copies the 16 byte order id of a slot into the given array.
+     */
+    public void readOrderId(int slot, byte[] destination, int destinationOffset) {
+        System.arraycopy(orderIds, slot * U128_SIZE_BYTES, destination, destinationOffset, U128_SIZE_BYTES);
+    }
+
+    // Bitmaps and arrays, owned by this view and overwritten by reload()
+
+    public long getFreeSlotsLow() {
+        return freeLow;
+    }
+
+    public long getFreeSlotsHigh() {
+        return freeHigh;
+    }
+
+    public long getBidSlotsLow() {
+        return bidLow;
+    }
+
+    public long getBidSlotsHigh() {
+        return bidHigh;
+    }
+
+    public long[] getPrices() {
+        return prices;
+    }
+
+    public long[] getClientIds() {
+        return clientIds;
+    }
+
+    /**
+     * @return 128 order ids of 16 bytes each, little-endian u128
+     */
+    public byte[] getOrderIds() {
+        return orderIds;
+    }
+
+    // Header
+
+    public AccountFlags getAccountFlags() {
+        return accountFlags;
+    }
+
+    public boolean marketEquals(byte[] pubkey) {
+        return Arrays.equals(market, pubkey);
+    }
+
+    public boolean ownerEquals(byte[] pubkey) {
+        return Arrays.equals(owner, pubkey);
+    }
+
+    /**
+     * Builds the market {@link PublicKey} from a copy of the key, which stays valid after the next reload. Allocates,
+     * prefer {@link #marketEquals(byte[])} on hot paths.
+     */
+    public PublicKey getMarket() {
+        return new PublicKey(market.clone());
+    }
+
+    /**
+     * Builds the owner {@link PublicKey} from a copy of the key, which stays valid after the next reload. Allocates,
+     * prefer {@link #ownerEquals(byte[])} on hot paths.
+     */
+    public PublicKey getOwner() {
+        return new PublicKey(owner.clone());
+    }
+
+    public long getBaseTokenFree() {
+        return baseTokenFree;
+    }
+
+    public long getBaseTokenTotal() {
+        return baseTokenTotal;
+    }
+
+    public long getQuoteTokenFree() {
+        return quoteTokenFree;
+    }
+
+    public long getQuoteTokenTotal() {
+        return quoteTokenTotal;
+    }
+
+    public long getReferrerRebatesAccrued() {
+        return referrerRebatesAccrued;
+    }
+
+    private static long bit(long low, long high, int slot) {
+        if (slot < 0 || slot >= SLOT_COUNT) {
+            throw new IndexOutOfBoundsException("Open orders slot out of range: " + slot);
+        }
+
+        return (slot < WORD_BITS ? low : high) & (1L << slot);
+    }
+}
@@ -22,6 +22,12 @@ public class Order {
     private float floatQuantity;
     private PublicKey owner;
 
+    // Exact price and quantity, see FixedPoint: price in quote tokens per base token, quantity in base tokens
+    private long fixedPrice;
+    private int priceScale;
+    private long fixedQuantity;
+    private int quantityScale;
+
     // used in newOrderv3. no constructor, only setters/getters
     private long maxQuoteQuantity;
     private long clientId;
@@ -1,10 +1,11 @@
 package ch.openserum.serum.model;
 
+import ch.openserum.codec.FixedPoint;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -23,71 +24,275 @@ import java.util.List;
 public class OrderBook {
 
     private AccountFlags accountFlags;
+    private SlabView slabView;
     private Slab slab;
     private byte baseDecimals;
     private byte quoteDecimals;
     private long baseLotSize;
     private long quoteLotSize;
 
+    // Derived from the decimals and lot sizes, computed by getPriceScale() and reset by their setters
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int priceScale = -1;
+
     public static OrderBook readOrderBook(byte[] data) {
         final OrderBook orderBook = new OrderBook();
 
         final AccountFlags accountFlags = AccountFlags.readAccountFlags(data);
         orderBook.setAccountFlags(accountFlags);
 
-        final Slab slab = Slab.readOrderBookSlab(data);
-        orderBook.setSlab(slab);
+        // Slab nodes are read in place, the full Slab is only decoded if getSlab() is called
+        orderBook.setSlabView(new SlabView(data));
 
         return orderBook;
 
     }
 
+    public void setBaseDecimals(byte baseDecimals) {
+        this.baseDecimals = baseDecimals;
+        priceScale = -1;
+    }
+
+    public void setQuoteDecimals(byte quoteDecimals) {
+        this.quoteDecimals = quoteDecimals;
+        priceScale = -1;
+    }
+
+    public void setBaseLotSize(long baseLotSize) {
+        this.baseLotSize = baseLotSize;
+        priceScale = -1;
+    }
+
+    public void setQuoteLotSize(long quoteLotSize) {
+        this.quoteLotSize = quoteLotSize;
+        priceScale = -1;
+    }
+
+    /**
+     * Points this {@link OrderBook} at new account data for the same market side, reusing its {@link SlabView}.
+     *
+     * @param data order book account data
+     */
+    public void wrap(byte[] data) {
+        slabView.wrap(data);
+        slab = null;
+    }
+
+    /**
+     * Returns the fully decoded {@link Slab}, decoding it from the underlying account data on first access.
+     * Prefer {@link #getSlabView()} for allocation-free reads.
+     *
+     * @return decoded {@link Slab}
+     */
+    public Slab getSlab() {
+        if (slab == null && slabView != null) {
+            slab = Slab.readOrderBookSlab(slabView.getSlabData());
+        }
+
+        return slab;
+    }
+
     /**
      * Build's an {@link Order} {@link ArrayList} from existing data.
      *
      * @return {@link List} containing {@link Order}s built from existing the {@link OrderBook} {@link Slab}.
      */
     public ArrayList<Order> getOrders() {
-        if (slab == null) {
+        if (slabView == null) {
             return null;
         }
 
         final ArrayList<Order> orders = new ArrayList<>();
+        final int bumpIndex = slabView.getBumpIndex();
+        final int priceScale = getPriceScale();
 
-        slab.getSlabNodes().forEach(slabNode -> {
-            if (slabNode instanceof SlabLeafNode) {
-                SlabLeafNode slabLeafNode = (SlabLeafNode) slabNode;
-                orders.add(Order.builder()
-                        .price(slabLeafNode.getPrice())
-                        .quantity(slabLeafNode.getQuantity())
-                        .clientOrderId(slabLeafNode.getClientOrderId())
-                        .floatPrice(SerumUtils.priceLotsToNumber(slabLeafNode.getPrice(), baseDecimals, quoteDecimals, baseLotSize, quoteLotSize))
-                        .floatQuantity((float) ((slabLeafNode.getQuantity() * baseLotSize) / SerumUtils.getBaseSplTokenMultiplier(baseDecimals)))
-                        .owner(slabLeafNode.getOwner())
-                        .build()
-                );
+        for (int node = 0; node < bumpIndex; node++) {
+            if (slabView.isLeaf(node)) {
+                orders.add(buildOrder(node, priceScale));
             }
-        });
+        }
 
         return orders;
+    }
+
+    private Order buildOrder(int node, int priceScale) {
+        long price = slabView.getPrice(node);
+        long quantity = slabView.getQuantity(node);
 
+        // Native base units are base tokens at a scale of baseDecimals. Both saturate instead of throwing on
+        // extreme prices, the float fields are computed in double like before
+        long fixedPrice = SerumUtils.priceLotsToFixed(price, priceScale, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+        long fixedQuantity = FixedPoint.multiplyDivideSaturated(quantity, baseLotSize, 1, 0);
 
+        return Order.builder()
+                .price(price)
+                .quantity(quantity)
+                .clientOrderId(slabView.getClientOrderId(node))
+                .floatPrice(SerumUtils.priceLotsToNumber(price, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize))
+                .floatQuantity((float) ((quantity * baseLotSize) / SerumUtils.getBaseSplTokenMultiplier(baseDecimals)))
+                .fixedPrice(fixedPrice)
+                .priceScale(priceScale)
+                .fixedQuantity(fixedQuantity)
+                .quantityScale(baseDecimals)
+                .owner(slabView.getOwner(node))
+                .build();
     }
 
     /**
-     * Retrieves the top {@link Order} for bids (sorted by price descending).
-     * @return
+     * @return {@link FixedPoint} scale of {@link Order#getFixedPrice()}, the smallest one at which this market's tick
+     * size is exact. Computed once, until the decimals or lot sizes change.
+     */
+    public int getPriceScale() {
+        if (priceScale < 0) {
+            priceScale = SerumUtils.getPriceScale(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize);
+        }
+
+        return priceScale;
+    }
+
+    /**
+     * Builds the top {@link Order}s of this book in priority order: highest price first for bids, lowest price first
+     * for asks, then by time priority. Walks the critbit tree and stops after {@code count} orders, no sorting.
+     *
+     * @param count maximum number of orders to return
+     * @return {@link List} of at most {@code count} {@link Order}s, best first
+     */
+    public ArrayList<Order> getTopOrders(int count) {
+        if (slabView == null) {
+            return null;
+        }
+
+        final ArrayList<Order> orders = new ArrayList<>(Math.min(count, slabView.getLeafCount()));
+        final SlabView.LeafIterator leafIterator = slabView.leafIterator(isBids());
+        final int priceScale = getPriceScale();
+
+        while (leafIterator.hasNext() && orders.size() < count) {
+            orders.add(buildOrder(leafIterator.nextInt(), priceScale));
+        }
+
+        return orders;
+    }
+
+    /**
+     * Builds every {@link Order} in this book in priority order, see {@link #getTopOrders(int)}.
+     *
+     * @return {@link List} of {@link Order}s, best first
+     */
+    public ArrayList<Order> getSortedOrders() {
+        return getTopOrders(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Aggregates the best {@code depth} price levels of this book (L2), merging orders at the same price.
+     * Walks the critbit tree in priority order and stops as soon as {@code depth} levels are filled.
+     *
+     * @param depth maximum number of price levels
+     * @return new {@link OrderBookLevels} holding at most {@code depth} levels, best first
+     * @throws IllegalArgumentException if {@code depth} is negative
+     */
+    public OrderBookLevels getLevels(int depth) {
+        if (slabView == null) {
+            return null;
+        }
+
+        checkDepth(depth);
+        return getLevels(depth, new OrderBookLevels(depth));
+    }
+
+    /**
+     * Same as {@link #getLevels(int)}, but fills an existing {@link OrderBookLevels} so it can be reused
+     * across reloads.
+     *
+     * @param depth maximum number of price levels
+     * @param levels instance to fill
+     * @return the given {@link OrderBookLevels}
+     * @throws IllegalArgumentException if {@code depth} is negative
+     */
+    public OrderBookLevels getLevels(int depth, OrderBookLevels levels) {
+        if (slabView == null) {
+            return null;
+        }
+
+        checkDepth(depth);
+        levels.reset(depth);
+
+        final SlabView.LeafIterator leafIterator = slabView.leafIterator(isBids());
+        while (leafIterator.hasNext()) {
+            int node = leafIterator.nextInt();
+            if (!levels.add(slabView.getPrice(node), slabView.getQuantity(node), depth)) {
+                break;
+            }
+        }
+
+        levels.computeNativeUnits(baseLotSize, quoteLotSize);
+        return levels;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+    }
+
+    /**
+     * Copies every resting order of this book into primitive columns, best first, without building {@link Order}s.
+     *
+     * @return new {@link OrderBookColumns}
+     */
+    public OrderBookColumns getColumns() {
+        if (slabView == null) {
+            return null;
+        }
+
+        return getColumns(new OrderBookColumns(slabView.getLeafCount()));
+    }
+
+    /**
+     * Same as {@link #getColumns()}, but fills an existing {@link OrderBookColumns} so it can be reused
+     * across reloads.
+     *
+     * @param columns instance to fill
+     * @return the given {@link OrderBookColumns}
+     */
+    public OrderBookColumns getColumns(OrderBookColumns columns) {
+        if (slabView == null) {
+            return null;
+        }
+
+        columns.reset(slabView.getLeafCount());
+
+        final SlabView.LeafIterator leafIterator = slabView.leafIterator(isBids());
+        while (leafIterator.hasNext()) {
+            columns.add(slabView, leafIterator.nextInt());
+        }
+
+        return columns;
+    }
+
+    /**
+     * Retrieves the top {@link Order} for bids (highest price), by following the critbit tree's max path.
+     * @return best bid, or null if the book is empty
      */
     public Order getBestBid() {
-        final ArrayList<Order> orders = getOrders();
-        orders.sort(Comparator.comparingLong(Order::getPrice).reversed());
-        return orders.get(0);
+        int node = slabView.best(true);
+        return node < 0 ? null : buildOrder(node, getPriceScale());
     }
 
+    /**
+     * Retrieves the top {@link Order} for asks (lowest price), by following the critbit tree's min path.
+     * @return best ask, or null if the book is empty
+     */
     public Order getBestAsk() {
-        final ArrayList<Order> orders = getOrders();
-        orders.sort(Comparator.comparingLong(Order::getPrice));
-        return orders.get(0);
+        int node = slabView.best(false);
+        return node < 0 ? null : buildOrder(node, getPriceScale());
+    }
+
+    /**
+     * @return true if this is the bids side of a market, false for asks
+     */
+    public boolean isBids() {
+        return accountFlags != null && accountFlags.isBids();
     }
 
 }
@@ -0,0 +1,109 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import lombok.Getter;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+
+/**
+ * Every resting order of one side of an {@link OrderBook}, stored as parallel primitive arrays, best order first.
+ * Built by {@link OrderBook#getColumns(OrderBookColumns)}; an instance can be reused across reloads.
+ *
+ * Only the first {@link #getOrderCount()} entries of each array are valid.
+ * <ul>
+ *     <li>prices: price in lots (quote lots per base lot)</li>
+ *     <li>quantities: quantity in base lots</li>
+ *     <li>seqNums: lower 64 bits of the slab key (bitwise complement of the sequence number for bids)</li>
+ *     <li>clientOrderIds: client order id</li>
+ *     <li>ownerSlots: slot of the order in its open orders account</li>
+ *     <li>owners: open orders account of order {@code i} at {@code owners[i * 32]}</li>
+ * </ul>
+ */
+@Getter
+public class OrderBookColumns {
+
+    private int orderCount;
+    private long[] prices;
+    private long[] quantities;
+    private long[] seqNums;
+    private long[] clientOrderIds;
+    private byte[] ownerSlots;
+    private byte[] owners;
+
+    public OrderBookColumns() {
+        this(64);
+    }
+
+    public OrderBookColumns(int capacity) {
+        this.prices = new long[capacity];
+        this.quantities = new long[capacity];
+        this.seqNums = new long[capacity];
+        this.clientOrderIds = new long[capacity];
+        this.ownerSlots = new byte[capacity];
+        this.owners = new byte[capacity * PublicKey.PUBLIC_KEY_LENGTH];
+    }
+
+    /**
+     * Builds a {@link PublicKey} for the open orders account of an order. Allocates.
+     *
+     * @param index order index
+     * @return open orders account of the order
+     */
+    public PublicKey getOwner(int index) {
+        return LayoutCodec.readPublicKey(owners, index * PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    /**
+     * Compares the open orders account of an order against raw pubkey bytes, without allocating.
+     *
+     * @param index order index
+     * @param owner 32 byte pubkey
+     * @return true if the order belongs to the given open orders account
+     */
+    public boolean ownerEquals(int index, byte[] owner) {
+        return LayoutCodec.pubkeyEquals(owners, index * PublicKey.PUBLIC_KEY_LENGTH, owner);
+    }
+
+    /**
+     * Empties this instance and makes room for at least {@code capacity} orders.
+     */
+    void reset(int capacity) {
+        orderCount = 0;
+
+        if (prices.length < capacity) {
+            prices = Arrays.copyOf(prices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            seqNums = Arrays.copyOf(seqNums, capacity);
+            clientOrderIds = Arrays.copyOf(clientOrderIds, capacity);
+            ownerSlots = Arrays.copyOf(ownerSlots, capacity);
+            owners = Arrays.copyOf(owners, capacity * PublicKey.PUBLIC_KEY_LENGTH);
+        }
+    }
+
+    /**
+     * Appends the leaf at {@code node}. Capacity must have been reserved with {@link #reset(int)}.
+     */
+    void add(SlabView slabView, int node) {
+        prices[orderCount] = slabView.getPrice(node);
+        quantities[orderCount] = slabView.getQuantity(node);
+        seqNums[orderCount] = slabView.getSeqNum(node);
+        clientOrderIds[orderCount] = slabView.getClientOrderId(node);
+        ownerSlots[orderCount] = slabView.getOwnerSlot(node);
+        slabView.readOwner(node, owners, orderCount * PublicKey.PUBLIC_KEY_LENGTH);
+        orderCount++;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("OrderBookColumns{");
+        for (int i = 0; i < orderCount; i++) {
+            if (i > 0) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(prices[i]).append('x').append(quantities[i]);
+        }
+
+        return stringBuilder.append('}').toString();
+    }
+}
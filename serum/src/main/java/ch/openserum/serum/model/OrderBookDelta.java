@@ -0,0 +1,39 @@
+package ch.openserum.serum.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * A single change between two snapshots of the same Serum order book, produced by {@link OrderBookDiff}.
+ * Orders are identified by their 128-bit slab key: (price, seqNum), where seqNum is the lower 64 bits of the key.
+ * Bids store the bitwise complement of the order's sequence number there, so {@code ~getSeqNum()} is the sequence
+ * number of a bid.
+ */
+@Builder
+@Getter
+@ToString
+public class OrderBookDelta {
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        QUANTITY_REDUCED
+    }
+
+    private Type type;
+    private long price;
+
+    // lower 64 bits of the slab key, the complement of the sequence number for bids
+    private long seqNum;
+
+    // quantities in base lots, 0 for the side that doesn't exist
+    private long quantity;
+    private long previousQuantity;
+
+    private long clientOrderId;
+    private byte ownerSlot;
+    private PublicKey owner;
+
+}
@@ -0,0 +1,236 @@
+package ch.openserum.serum.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ch.openserum.serum.model.Slab.SLAB_NODE_OFFSET;
+import static ch.openserum.serum.model.Slab.SLAB_NODE_SIZE;
+
+/**
+ * Computes the {@link OrderBookDelta}s between two snapshots of the same Serum order book account.
+ *
+ * Nodes are compared 72 bytes at a time and unchanged nodes are skipped with a bulk byte compare. Leaves from the
+ * changed nodes are then matched on their 128-bit (price, seqNum) key rather than their slab index, since the
+ * critbit tree moves existing leaves to new nodes when it splits.
+ *
+ * Not thread-safe; scratch arrays are reused between calls.
+ */
+public class OrderBookDiff {
+
+    private final SlabView previousView = new SlabView();
+    private final SlabView currentView = new SlabView();
+    private final ChangedLeaves previousLeaves = new ChangedLeaves();
+    private final ChangedLeaves currentLeaves = new ChangedLeaves();
+
+    /**
+     * Diffs two decoded {@link OrderBook}s of the same market side.
+     *
+     * @param previous older snapshot
+     * @param current newer snapshot
+     * @return deltas ordered by key
+     */
+    public List<OrderBookDelta> diff(OrderBook previous, OrderBook current) {
+        return diff(previous.getSlabView().getSlabData(), current.getSlabView().getSlabData());
+    }
+
+    /**
+     * Diffs two raw order book account buffers of the same market side.
+     *
+     * @param previous older account data
+     * @param current newer account data
+     * @return deltas ordered by key
+     */
+    public List<OrderBookDelta> diff(byte[] previous, byte[] current) {
+        final List<OrderBookDelta> deltas = new ArrayList<>();
+
+        if (Arrays.equals(previous, current)) {
+            return deltas;
+        }
+
+        previousView.wrap(previous);
+        currentView.wrap(current);
+        previousLeaves.clear();
+        currentLeaves.clear();
+
+        int previousBumpIndex = previousView.getBumpIndex();
+        int currentBumpIndex = currentView.getBumpIndex();
+        int nodeCount = Math.max(previousBumpIndex, currentBumpIndex);
+
+        for (int node = 0; node < nodeCount; node++) {
+            int offset = SLAB_NODE_OFFSET + (node * SLAB_NODE_SIZE);
+            boolean inPrevious = node < previousBumpIndex;
+            boolean inCurrent = node < currentBumpIndex;
+
+            if (inPrevious && inCurrent && Arrays.equals(
+                    previous, offset, offset + SLAB_NODE_SIZE,
+                    current, offset, offset + SLAB_NODE_SIZE)) {
+                continue;
+            }
+
+            if (inPrevious && previousView.isLeaf(node)) {
+                previousLeaves.add(previousView, node);
+            }
+
+            if (inCurrent && currentView.isLeaf(node)) {
+                currentLeaves.add(currentView, node);
+            }
+        }
+
+        previousLeaves.sort();
+        currentLeaves.sort();
+
+        int i = 0;
+        int j = 0;
+        while (i < previousLeaves.size || j < currentLeaves.size) {
+            int compare;
+            if (i == previousLeaves.size) {
+                compare = 1;
+            } else if (j == currentLeaves.size) {
+                compare = -1;
+            } else {
+                compare = previousLeaves.compare(i, currentLeaves, j);
+            }
+
+            if (compare < 0) {
+                deltas.add(removed(previousLeaves.node(i++)));
+            } else if (compare > 0) {
+                deltas.add(added(currentLeaves.node(j++)));
+            } else {
+                int previousNode = previousLeaves.node(i++);
+                int currentNode = currentLeaves.node(j++);
+                long previousQuantity = previousView.getQuantity(previousNode);
+                long quantity = currentView.getQuantity(currentNode);
+
+                if (quantity < previousQuantity) {
+                    deltas.add(
+                            delta(OrderBookDelta.Type.QUANTITY_REDUCED, currentView, currentNode)
+                                    .quantity(quantity)
+                                    .previousQuantity(previousQuantity)
+                                    .build()
+                    );
+                } else if (quantity > previousQuantity) {
+                    // Serum never grows a resting order, treat it as a replacement
+                    deltas.add(removed(previousNode));
+                    deltas.add(added(currentNode));
+                }
+                // same quantity: the leaf only moved to another node
+            }
+        }
+
+        return deltas;
+    }
+
+    private OrderBookDelta removed(int node) {
+        return delta(OrderBookDelta.Type.REMOVED, previousView, node)
+                .previousQuantity(previousView.getQuantity(node))
+                .build();
+    }
+
+    private OrderBookDelta added(int node) {
+        return delta(OrderBookDelta.Type.ADDED, currentView, node)
+                .quantity(currentView.getQuantity(node))
+                .build();
+    }
+
+    private static OrderBookDelta.OrderBookDeltaBuilder delta(OrderBookDelta.Type type, SlabView view, int node) {
+        return OrderBookDelta.builder()
+                .type(type)
+                .price(view.getPrice(node))
+                .seqNum(view.getSeqNum(node))
+                .clientOrderId(view.getClientOrderId(node))
+                .ownerSlot(view.getOwnerSlot(node))
+                .owner(view.getOwner(node));
+    }
+
+    /**
+     * Leaves of the changed nodes of one snapshot, as parallel primitive arrays sorted by key.
+     */
+    private static class ChangedLeaves {
+
+        private long[] prices = new long[64];
+        private long[] seqNums = new long[64];
+        private int[] nodes = new int[64];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(SlabView view, int node) {
+            if (size == nodes.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                seqNums = Arrays.copyOf(seqNums, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+
+            prices[size] = view.getPrice(node);
+            seqNums[size] = view.getSeqNum(node);
+            nodes[size] = node;
+            size++;
+        }
+
+        int node(int i) {
+            return nodes[i];
+        }
+
+        int compare(int i, ChangedLeaves other, int j) {
+            int compare = Long.compareUnsigned(prices[i], other.prices[j]);
+            return compare != 0 ? compare : Long.compareUnsigned(seqNums[i], other.seqNums[j]);
+        }
+
+        void sort() {
+            sort(0, size - 1);
+        }
+
+        private void sort(int low, int high) {
+            while (low < high) {
+                int i = low;
+                int j = high;
+                int pivot = (low + high) >>> 1;
+                long pivotPrice = prices[pivot];
+                long pivotSeqNum = seqNums[pivot];
+
+                while (i <= j) {
+                    while (compareTo(i, pivotPrice, pivotSeqNum) < 0) {
+                        i++;
+                    }
+                    while (compareTo(j, pivotPrice, pivotSeqNum) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+
+                // Recurse into the smaller half, loop on the larger one
+                if (j - low < high - i) {
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+        }
+
+        private int compareTo(int i, long price, long seqNum) {
+            int compare = Long.compareUnsigned(prices[i], price);
+            return compare != 0 ? compare : Long.compareUnsigned(seqNums[i], seqNum);
+        }
+
+        private void swap(int i, int j) {
+            long price = prices[i];
+            prices[i] = prices[j];
+            prices[j] = price;
+
+            long seqNum = seqNums[i];
+            seqNums[i] = seqNums[j];
+            seqNums[j] = seqNum;
+
+            int node = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = node;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ch.openserum.serum.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated (L2) price levels of one side of an {@link OrderBook}, best level first.
+ * Built by {@link OrderBook#getLevels(int, OrderBookLevels)}; an instance can be reused across reloads.
+ *
+ * Only the first {@link #getLevelCount()} entries of each array are valid.
+ * <ul>
+ *     <li>prices: price in lots (quote lots per base lot)</li>
+ *     <li>sizes: total quantity at the price, in base lots</li>
+ *     <li>nativePrices: price in native quote units per base lot ({@code price * quoteLotSize})</li>
+ *     <li>nativeSizes: total quantity in native base units ({@code size * baseLotSize})</li>
+ * </ul>
+ */
+@Getter
+public class OrderBookLevels {
+
+    private int levelCount;
+    private long[] prices;
+    private long[] sizes;
+    private long[] nativePrices;
+    private long[] nativeSizes;
+
+    public OrderBookLevels() {
+        this(16);
+    }
+
+    public OrderBookLevels(int capacity) {
+        this.prices = new long[capacity];
+        this.sizes = new long[capacity];
+        this.nativePrices = new long[capacity];
+        this.nativeSizes = new long[capacity];
+    }
+
+    /**
+     * Empties this instance and makes room for at least {@code depth} levels.
+     */
+    void reset(int depth) {
+        levelCount = 0;
+
+        if (prices.length < depth) {
+            prices = Arrays.copyOf(prices, depth);
+            sizes = Arrays.copyOf(sizes, depth);
+            nativePrices = Arrays.copyOf(nativePrices, depth);
+            nativeSizes = Arrays.copyOf(nativeSizes, depth);
+        }
+    }
+
+    /**
+     * Adds a leaf to the last level if it has the same price, otherwise opens a new level.
+     *
+     * @return false if a new level was needed but {@code depth} levels are already filled
+     */
+    boolean add(long price, long quantity, int depth) {
+        if (levelCount > 0 && prices[levelCount - 1] == price) {
+            sizes[levelCount - 1] += quantity;
+            return true;
+        }
+
+        if (levelCount == depth) {
+            return false;
+        }
+
+        prices[levelCount] = price;
+        sizes[levelCount] = quantity;
+        levelCount++;
+        return true;
+    }
+
+    void computeNativeUnits(long baseLotSize, long quoteLotSize) {
+        for (int i = 0; i < levelCount; i++) {
+            nativePrices[i] = prices[i] * quoteLotSize;
+            nativeSizes[i] = sizes[i] * baseLotSize;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("OrderBookLevels{");
+        for (int i = 0; i < levelCount; i++) {
+            if (i > 0) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(prices[i]).append('x').append(sizes[i]);
+        }
+
+        return stringBuilder.append('}').toString();
+    }
+}
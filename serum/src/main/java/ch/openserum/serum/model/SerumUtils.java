@@ -1,17 +1,28 @@
 package ch.openserum.serum.model;
 
-import org.bitcoinj.core.Utils;
+import ch.openserum.codec.FixedPoint;
+import ch.openserum.codec.LayoutCodec;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
 import org.p2p.solanaj.rpc.types.Memcmp;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * version 2 market offsets.
@@ -60,6 +71,17 @@ public class SerumUtils {
     private static final Logger LOGGER = Logger.getLogger(SerumUtils.class.getName());
 
     private static final String PADDING = "serum";
+    private static final byte[] PADDING_BYTES = PADDING.getBytes();
+
+    private static final int[] BASE64_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
 
     // Types
     public static final int U8_SIZE_BYTES = 1;
@@ -67,29 +89,30 @@ public class SerumUtils {
     public static final int U64_SIZE_BYTES = 8;
     public static final int U128_SIZE_BYTES = 16;
 
+    // Largest scale returned by getPriceScale()
+    public static final int MAX_PRICE_SCALE = 9;
+
     // Market
     public static final long LAMPORTS_PER_SOL = 1000000000L;
-    private static final int ACCOUNT_FLAGS_SIZE_BYTES = 8;
-    private static final int ACCOUNT_FLAGS_OFFSET = 5;
-    public static final int OWN_ADDRESS_OFFSET = ACCOUNT_FLAGS_OFFSET + ACCOUNT_FLAGS_SIZE_BYTES;
-    private static final int VAULT_SIGNER_NONCE_OFFSET = OWN_ADDRESS_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_MINT_OFFSET = VAULT_SIGNER_NONCE_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_MINT_OFFSET = BASE_MINT_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_VAULT_OFFSET = QUOTE_MINT_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_DEPOSITS_TOTAL_OFFSET = BASE_VAULT_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_FEES_ACCRUED_OFFSET = BASE_DEPOSITS_TOTAL_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_VAULT_OFFSET = BASE_FEES_ACCRUED_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_DEPOSITS_TOTAL_OFFSET = QUOTE_VAULT_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int QUOTE_FEES_ACCRUED_OFFSET = QUOTE_DEPOSITS_TOTAL_OFFSET + U64_SIZE_BYTES;
-    private static final int QUOTE_DUST_THRESHOLD_OFFSET = QUOTE_FEES_ACCRUED_OFFSET + U64_SIZE_BYTES;
-    private static final int REQUEST_QUEUE_OFFSET = QUOTE_DUST_THRESHOLD_OFFSET + U64_SIZE_BYTES;
-    private static final int EVENT_QUEUE_OFFSET = REQUEST_QUEUE_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BIDS_OFFSET = EVENT_QUEUE_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int ASKS_OFFSET = BIDS_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int BASE_LOT_SIZE_OFFSET = ASKS_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int QUOTE_LOT_SIZE_OFFSET = BASE_LOT_SIZE_OFFSET + U64_SIZE_BYTES;
-    private static final int FEE_RATE_BPS_OFFSET = QUOTE_LOT_SIZE_OFFSET + U64_SIZE_BYTES;
-    private static final int REFERRER_REBATES_ACCRUED_OFFSET = FEE_RATE_BPS_OFFSET + U64_SIZE_BYTES;
+    public static final int OWN_ADDRESS_OFFSET = MarketLayout.OWN_ADDRESS_OFFSET;
+    private static final int VAULT_SIGNER_NONCE_OFFSET = MarketLayout.VAULT_SIGNER_NONCE_OFFSET;
+    private static final int BASE_MINT_OFFSET = MarketLayout.BASE_MINT_OFFSET;
+    private static final int QUOTE_MINT_OFFSET = MarketLayout.QUOTE_MINT_OFFSET;
+    private static final int BASE_VAULT_OFFSET = MarketLayout.BASE_VAULT_OFFSET;
+    private static final int BASE_DEPOSITS_TOTAL_OFFSET = MarketLayout.BASE_DEPOSITS_TOTAL_OFFSET;
+    private static final int BASE_FEES_ACCRUED_OFFSET = MarketLayout.BASE_FEES_ACCRUED_OFFSET;
+    private static final int QUOTE_VAULT_OFFSET = MarketLayout.QUOTE_VAULT_OFFSET;
+    private static final int QUOTE_DEPOSITS_TOTAL_OFFSET = MarketLayout.QUOTE_DEPOSITS_TOTAL_OFFSET;
+    private static final int QUOTE_FEES_ACCRUED_OFFSET = MarketLayout.QUOTE_FEES_ACCRUED_OFFSET;
+    private static final int QUOTE_DUST_THRESHOLD_OFFSET = MarketLayout.QUOTE_DUST_THRESHOLD_OFFSET;
+    private static final int REQUEST_QUEUE_OFFSET = MarketLayout.REQUEST_QUEUE_OFFSET;
+    private static final int EVENT_QUEUE_OFFSET = MarketLayout.EVENT_QUEUE_KEY_OFFSET;
+    private static final int BIDS_OFFSET = MarketLayout.BIDS_OFFSET;
+    private static final int ASKS_OFFSET = MarketLayout.ASKS_OFFSET;
+    private static final int BASE_LOT_SIZE_OFFSET = MarketLayout.BASE_LOT_SIZE_OFFSET;
+    private static final int QUOTE_LOT_SIZE_OFFSET = MarketLayout.QUOTE_LOT_SIZE_OFFSET;
+    private static final int FEE_RATE_BPS_OFFSET = MarketLayout.FEE_RATE_BPS_OFFSET;
+    private static final int REFERRER_REBATES_ACCRUED_OFFSET = MarketLayout.REFERRER_REBATES_ACCRUED_OFFSET;
 
     // New Order
     private static final int NEW_ORDER_STRUCT_LAYOUT = 10;
@@ -108,86 +131,89 @@ public class SerumUtils {
     private static final int TOKEN_MINT_DECIMALS_OFFSET = 44;
 
     // Open orders account
-    private static final int MARKET_FILTER_OFFSET = 13;
-    private static final int OWNER_FILTER_OFFSET = MARKET_FILTER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    private static final int MARKET_FILTER_OFFSET = OpenOrdersAccountLayout.MARKET_OFFSET;
+    private static final int OWNER_FILTER_OFFSET = OpenOrdersAccountLayout.OWNER_OFFSET;
 
     public static final PublicKey SERUM_PROGRAM_ID_V3 = new PublicKey("9xQeWvG816bUx9EPjHmaT23yvVM2ZWbrrpZb9PusVFin");
     public static final PublicKey WRAPPED_SOL_MINT = new PublicKey("So11111111111111111111111111111111111111112");
 
+    // Most keys an RPC node accepts in one getMultipleAccounts request
+    public static final int MAX_MULTIPLE_ACCOUNTS = 100;
+
     public static PublicKey readOwnAddressPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, OWN_ADDRESS_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, OWN_ADDRESS_OFFSET);
     }
 
     public static long readVaultSignerNonce(byte[] bytes) {
-        return Utils.readInt64(bytes, VAULT_SIGNER_NONCE_OFFSET);
+        return LayoutCodec.readInt64(bytes, VAULT_SIGNER_NONCE_OFFSET);
     }
 
     public static PublicKey readBaseMintPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, BASE_MINT_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, BASE_MINT_OFFSET);
     }
 
     public static PublicKey readQuoteMintPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, QUOTE_MINT_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, QUOTE_MINT_OFFSET);
     }
 
     public static PublicKey readBaseVaultPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, BASE_VAULT_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, BASE_VAULT_OFFSET);
     }
 
     public static long readBaseDepositsTotal(byte[] bytes) {
-        return Utils.readInt64(bytes, BASE_DEPOSITS_TOTAL_OFFSET);
+        return LayoutCodec.readInt64(bytes, BASE_DEPOSITS_TOTAL_OFFSET);
     }
 
     public static long readBaseFeesAccrued(byte[] bytes) {
-        return Utils.readInt64(bytes, BASE_FEES_ACCRUED_OFFSET);
+        return LayoutCodec.readInt64(bytes, BASE_FEES_ACCRUED_OFFSET);
     }
 
     public static PublicKey readQuoteVaultOffset(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, QUOTE_VAULT_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, QUOTE_VAULT_OFFSET);
     }
 
     public static long readQuoteDepositsTotal(byte[] bytes) {
-        return Utils.readInt64(bytes, QUOTE_DEPOSITS_TOTAL_OFFSET);
+        return LayoutCodec.readInt64(bytes, QUOTE_DEPOSITS_TOTAL_OFFSET);
     }
 
     public static long readQuoteFeesAccrued(byte[] bytes) {
-        return Utils.readInt64(bytes, QUOTE_FEES_ACCRUED_OFFSET);
+        return LayoutCodec.readInt64(bytes, QUOTE_FEES_ACCRUED_OFFSET);
     }
 
     public static long readQuoteDustThreshold(byte[] bytes) {
-        return Utils.readInt64(bytes, QUOTE_DUST_THRESHOLD_OFFSET);
+        return LayoutCodec.readInt64(bytes, QUOTE_DUST_THRESHOLD_OFFSET);
     }
 
     public static PublicKey readRequestQueuePubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, REQUEST_QUEUE_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, REQUEST_QUEUE_OFFSET);
     }
 
     public static PublicKey readEventQueuePubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, EVENT_QUEUE_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, EVENT_QUEUE_OFFSET);
     }
 
     public static PublicKey readBidsPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, BIDS_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, BIDS_OFFSET);
     }
 
     public static PublicKey readAsksPubkey(byte[] bytes) {
-        return PublicKey.readPubkey(bytes, ASKS_OFFSET);
+        return LayoutCodec.readPublicKey(bytes, ASKS_OFFSET);
     }
 
     public static long readBaseLotSize(byte[] bytes) {
-        return Utils.readInt64(bytes, BASE_LOT_SIZE_OFFSET);
+        return LayoutCodec.readInt64(bytes, BASE_LOT_SIZE_OFFSET);
     }
 
     public static long readQuoteLotSize(byte[] bytes) {
-        return Utils.readInt64(bytes, QUOTE_LOT_SIZE_OFFSET);
+        return LayoutCodec.readInt64(bytes, QUOTE_LOT_SIZE_OFFSET);
     }
 
     public static long readFeeRateBps(byte[] bytes) {
-        return Utils.readInt64(bytes, FEE_RATE_BPS_OFFSET);
+        return LayoutCodec.readInt64(bytes, FEE_RATE_BPS_OFFSET);
     }
 
     public static long readReferrerRebatesAccrued(byte[] bytes) {
-        return Utils.readInt64(bytes, REFERRER_REBATES_ACCRUED_OFFSET);
+        return LayoutCodec.readInt64(bytes, REFERRER_REBATES_ACCRUED_OFFSET);
     }
 
     public static void writeNewOrderStructLayout(ByteBuffer result) {
@@ -254,22 +280,71 @@ public class SerumUtils {
 
     public static void validateSerumData(byte[] accountData) {
         for (int i = 0; i < 5; i++) {
-            if (accountData[i] != PADDING.getBytes()[i]) {
+            if (accountData[i] != PADDING_BYTES[i]) {
                 throw new RuntimeException("Invalid Event Queue data.");
             }
         }
     }
 
+    /**
+     * Decodes base64 account data straight from the RPC response string into a reusable array, without the
+     * intermediate byte copies of {@code Base64.getDecoder().decode(String)}.
+     *
+     * @param encoded base64 string, with or without padding
+     * @param destination array to decode into, reused if its length matches the decoded length
+     * @return destination, or a new array if destination was null or of a different length
+     */
+    public static byte[] decodeBase64(String encoded, byte[] destination) {
+        int length = encoded.length();
+        while (length > 0 && encoded.charAt(length - 1) == '=') {
+            length--;
+        }
+
+        int decodedLength = (int) ((length * 6L) / 8);
+        if (destination == null || destination.length != decodedLength) {
+            destination = new byte[decodedLength];
+        }
+
+        int buffer = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char c = encoded.charAt(i);
+            int value = c < 128 ? BASE64_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Illegal base64 character at index " + i);
+            }
+
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                destination[position++] = (byte) (buffer >> bits);
+            }
+        }
+
+        return destination;
+    }
+
     public static double getBaseSplTokenMultiplier(byte baseDecimals) {
-        return Math.pow(10, baseDecimals);
+        return getSplTokenMultiplier(baseDecimals);
     }
 
     public static double getQuoteSplTokenMultiplier(byte quoteDecimals) {
-        return Math.pow(10, quoteDecimals);
+        return getSplTokenMultiplier(quoteDecimals);
+    }
+
+    private static double getSplTokenMultiplier(byte decimals) {
+        // Table lookup for every usual mint, decimals are a u8 on chain though
+        if (decimals >= 0 && decimals <= FixedPoint.MAX_SCALE) {
+            return FixedPoint.pow10Double(decimals);
+        }
+
+        return Math.pow(10, decimals);
     }
 
     public static float priceLotsToNumber(long price, byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
-        double top = (price * quoteLotSize * getBaseSplTokenMultiplier(baseDecimals));
+        double top = ((double) price * quoteLotSize * getBaseSplTokenMultiplier(baseDecimals));
         double bottom = (baseLotSize * getQuoteSplTokenMultiplier(quoteDecimals));
 
         return (float) (top / bottom);
@@ -286,8 +361,8 @@ public class SerumUtils {
     }
 
     public static long priceNumberToLots(float price, byte quoteDecimals, long baseLotSize, byte baseDecimals, long quoteLotSize) {
-        double top = (price * Math.pow(10, quoteDecimals) * baseLotSize);
-        double bottom = Math.pow(10, baseDecimals) * quoteLotSize;
+        double top = (price * getQuoteSplTokenMultiplier(quoteDecimals) * baseLotSize);
+        double bottom = getBaseSplTokenMultiplier(baseDecimals) * quoteLotSize;
         return Math.round(top / bottom);
     }
 
@@ -297,10 +372,126 @@ public class SerumUtils {
     }
 
     public static long baseSizeNumberToLots(float size, byte baseDecimals, long baseLotSize) {
-        double top = Math.round(size * Math.pow(10, baseDecimals));
+        double top = Math.round(size * getBaseSplTokenMultiplier(baseDecimals));
         return (long) (top / baseLotSize);
     }
 
+    /**
+     * Returns the smallest {@link FixedPoint} scale at which one price lot (the market's tick size) is exact, so that
+     * every price in lots converts to a fixed-point price without rounding. Capped at {@link #MAX_PRICE_SCALE}, which
+     * keeps prices up to about 9.2 billion representable.
+     *
+     * One price lot is worth {@code quoteLotSize * 10^baseDecimals / (baseLotSize * 10^quoteDecimals)} quote tokens
+     * per base token.
+     */
+    public static int getPriceScale(byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        if (baseLotSize <= 0 || quoteLotSize <= 0) {
+            return Math.min(quoteDecimals, MAX_PRICE_SCALE);
+        }
+
+        for (int scale = 0; scale < MAX_PRICE_SCALE; scale++) {
+            if (isTickExact(scale, baseDecimals, quoteDecimals, baseLotSize, quoteLotSize)) {
+                return scale;
+            }
+        }
+
+        return MAX_PRICE_SCALE;
+    }
+
+    /**
+     * @return true if one price lot is a whole number at the given {@link FixedPoint} scale
+     */
+    public static boolean isTickExact(int priceScale, byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        // quoteLotSize * 10^exponent must be a multiple of baseLotSize
+        final int exponent = baseDecimals + priceScale - quoteDecimals;
+        BigInteger numerator = BigInteger.valueOf(quoteLotSize);
+        BigInteger denominator = BigInteger.valueOf(baseLotSize);
+        if (exponent >= 0) {
+            numerator = numerator.multiply(BigInteger.TEN.pow(exponent));
+        } else {
+            denominator = denominator.multiply(BigInteger.TEN.pow(-exponent));
+        }
+
+        return numerator.mod(denominator).signum() == 0;
+    }
+
+    /**
+     * Converts a price in lots to a {@link FixedPoint} price in quote tokens per base token, exact when
+     * {@code priceScale} is at least {@link #getPriceScale(byte, byte, long, long)}.
+     *
+     * @return price mantissa at {@code priceScale}, saturated to {@link Long#MAX_VALUE} if it does not fit, 0 if
+     * {@code baseLotSize} is 0
+     */
+    public static long priceLotsToFixed(long price, int priceScale, byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        if (baseLotSize == 0) {
+            return 0;
+        }
+
+        // price * quoteLotSize * 10^(baseDecimals + priceScale - quoteDecimals) / baseLotSize
+        return FixedPoint.multiplyDivideSaturated(
+                price,
+                quoteLotSize,
+                baseLotSize,
+                baseDecimals + priceScale - quoteDecimals
+        );
+    }
+
+    /**
+     * Converts a trade's native amounts to a {@link FixedPoint} price in quote tokens per base token, rounding half
+     * away from zero.
+     *
+     * @param nativeQuote amount of quote tokens, in native units
+     * @param nativeBase amount of base tokens, in native units
+     * @return price mantissa at {@code priceScale}, saturated to {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE} if
+     * it does not fit, 0 if {@code nativeBase} is 0
+     */
+    public static long nativeRatioToFixed(long nativeQuote, long nativeBase, int priceScale, byte baseDecimals, byte quoteDecimals) {
+        if (nativeBase == 0) {
+            return 0;
+        }
+
+        // nativeQuote * 10^(baseDecimals + priceScale - quoteDecimals) / nativeBase
+        return FixedPoint.multiplyDivideSaturated(nativeQuote, 1, nativeBase, baseDecimals + priceScale - quoteDecimals);
+    }
+
+    /**
+     * Fetches the data of any number of accounts with {@code getMultipleAccounts}, {@link #MAX_MULTIPLE_ACCOUNTS}
+     * keys per request.
+     *
+     * @param client RPC client
+     * @param publicKeys accounts to fetch, duplicates are fetched once
+     * @return base64 account data by pubkey, without accounts that do not exist or whose request failed
+     */
+    public static Map<PublicKey, String> getMultipleAccountsData(RpcClient client, Collection<PublicKey> publicKeys) {
+        final List<PublicKey> keys = new ArrayList<>(new LinkedHashSet<>(publicKeys));
+        final Map<PublicKey, String> accountData = new HashMap<>();
+
+        for (int from = 0; from < keys.size(); from += MAX_MULTIPLE_ACCOUNTS) {
+            final List<PublicKey> chunk = keys.subList(from, Math.min(from + MAX_MULTIPLE_ACCOUNTS, keys.size()));
+
+            List<AccountInfo.Value> values = null;
+            try {
+                values = client.getApi().getMultipleAccounts(chunk);
+            } catch (RpcException e) {
+                e.printStackTrace();
+            }
+
+            if (values == null) {
+                continue;
+            }
+
+            // Values come back in request order, null for accounts that do not exist
+            for (int i = 0; i < values.size() && i < chunk.size(); i++) {
+                final AccountInfo.Value value = values.get(i);
+                if (value != null && value.getData() != null && !value.getData().isEmpty()) {
+                    accountData.put(chunk.get(i), value.getData().get(0));
+                }
+            }
+        }
+
+        return accountData;
+    }
+
     public static OpenOrdersAccount findOpenOrdersAccountForOwner(RpcClient client, PublicKey marketAddress, PublicKey ownerAddress) {
         int dataSize = 3228;
 
@@ -333,6 +524,58 @@ public class SerumUtils {
         return openOrdersAccount;
     }
 
+    /**
+     * Finds the open orders accounts of an owner on every market at once, with a single {@code getProgramAccounts}
+     * call filtered on owner and account size only, instead of one call per market.
+     *
+     * @param client RPC client
+     * @param ownerAddress owner wallet
+     * @return open orders accounts by market, in the order returned by the RPC node, empty if the call fails
+     */
+    public static Map<PublicKey, List<OpenOrdersAccount>> findOpenOrdersAccountsForOwner(RpcClient client, PublicKey ownerAddress) {
+        int dataSize = 3228;
+
+        List<ProgramAccount> programAccounts = null;
+
+        Memcmp ownerFilter = new Memcmp(OWNER_FILTER_OFFSET, ownerAddress.toBase58());
+
+        try {
+            programAccounts = client.getApi().getProgramAccounts(SERUM_PROGRAM_ID_V3, List.of(ownerFilter), dataSize);
+        } catch (RpcException e) {
+            e.printStackTrace();
+        }
+
+        if (programAccounts == null) {
+            return Collections.emptyMap();
+        }
+
+        // Decoding the base64 data dominates, so it happens on the parallel stream too
+        return programAccounts.parallelStream()
+                .map(programAccount -> readOpenOrdersAccount(
+                        PublicKey.valueOf(programAccount.getPubkey()),
+                        programAccount.getAccount().getDecodedData()
+                ))
+                .collect(Collectors.groupingBy(OpenOrdersAccount::getMarket));
+    }
+
+    /**
+     * Decodes open orders accounts in parallel and groups them by market.
+     *
+     * @param accountData account data by open orders pubkey
+     * @return open orders accounts by market, in the iteration order of {@code accountData} within each market
+     */
+    public static Map<PublicKey, List<OpenOrdersAccount>> readOpenOrdersAccounts(Map<PublicKey, byte[]> accountData) {
+        return accountData.entrySet().parallelStream()
+                .map(entry -> readOpenOrdersAccount(entry.getKey(), entry.getValue()))
+                .collect(Collectors.groupingBy(OpenOrdersAccount::getMarket));
+    }
+
+    private static OpenOrdersAccount readOpenOrdersAccount(PublicKey openOrdersKey, byte[] data) {
+        final OpenOrdersAccount openOrdersAccount = OpenOrdersAccount.readOpenOrdersAccount(data);
+        openOrdersAccount.setOwnPubkey(openOrdersKey);
+        return openOrdersAccount;
+    }
+
     public static long getLamportsNeededForSolWrapping(float price, float size, boolean isBuy, OpenOrdersAccount openOrdersAccount) {
         long lamports;
 
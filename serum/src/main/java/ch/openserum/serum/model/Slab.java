@@ -1,11 +1,8 @@
 package ch.openserum.serum.model;
 
-import org.bitcoinj.core.Utils;
+import ch.openserum.codec.LayoutCodec;
 import org.p2p.solanaj.core.PublicKey;
-import org.p2p.solanaj.utils.ByteUtils;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.ArrayList;
 
 import static ch.openserum.serum.model.SerumUtils.U8_SIZE_BYTES;
@@ -94,32 +91,32 @@ public class Slab {
     // Offsets. TODO put these in their own file
     // STARTS at 13, since accountflags from the orderbook struct ends there.
 
-    private static final int ZEROS_SIZE = 4;
-    private static final int BUMP_INDEX_OFFSET = 13;
-    private static final int FREE_LIST_LEN_OFFSET = BUMP_INDEX_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
-    private static final int FREE_LIST_HEAD_OFFSET = FREE_LIST_LEN_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
-    private static final int ROOT_OFFSET = FREE_LIST_HEAD_OFFSET + INT32_SIZE_BYTES;
-    private static final int LEAF_COUNT_OFFSET = ROOT_OFFSET + INT32_SIZE_BYTES;
-    private static final int SLAB_NODE_OFFSET = LEAF_COUNT_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
-
-    private static final int BLOB_1_SIZE = 68;
-    private static final int SLAB_NODE_SIZE = INT32_SIZE_BYTES + BLOB_1_SIZE;
-    private static final int TAG_OFFSET = 0;
-    private static final int BLOB_1_OFFSET = TAG_OFFSET + INT32_SIZE_BYTES;
-
-    private static final int PREFIX_LEN_OFFSET = 0;
-    private static final int KEY_OFFSET = PREFIX_LEN_OFFSET + INT32_SIZE_BYTES;
-    private static final int FIRST_CHILD_OFFSET = KEY_OFFSET + U128_SIZE_BYTES;
-    private static final int SECOND_CHILD_OFFSET = FIRST_CHILD_OFFSET + INT32_SIZE_BYTES;
-
-    private static final int OWNER_SLOT_OFFSET = 0;
-    private static final int FEE_TIER_OFFSET = OWNER_SLOT_OFFSET + U8_SIZE_BYTES;
-    private static final int KEY2_OFFSET = FEE_TIER_OFFSET + U8_SIZE_BYTES + 2; // 2 empty bytes
-    private static final int SEQ_NUM_OFFSET = 0;
-    private static final int PRICE_OFFSET = SEQ_NUM_OFFSET + U64_SIZE_BYTES;
-    private static final int OWNER_OFFSET = KEY2_OFFSET + U128_SIZE_BYTES;
-    private static final int QUANTITY_OFFSET = OWNER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int CLIENT_ORDER_ID_OFFSET = QUANTITY_OFFSET + U64_SIZE_BYTES;
+    static final int ZEROS_SIZE = 4;
+    static final int BUMP_INDEX_OFFSET = 13;
+    static final int FREE_LIST_LEN_OFFSET = BUMP_INDEX_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
+    static final int FREE_LIST_HEAD_OFFSET = FREE_LIST_LEN_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
+    static final int ROOT_OFFSET = FREE_LIST_HEAD_OFFSET + INT32_SIZE_BYTES;
+    static final int LEAF_COUNT_OFFSET = ROOT_OFFSET + INT32_SIZE_BYTES;
+    static final int SLAB_NODE_OFFSET = LEAF_COUNT_OFFSET + INT32_SIZE_BYTES + ZEROS_SIZE;
+
+    static final int BLOB_1_SIZE = 68;
+    static final int SLAB_NODE_SIZE = INT32_SIZE_BYTES + BLOB_1_SIZE;
+    static final int TAG_OFFSET = 0;
+    static final int BLOB_1_OFFSET = TAG_OFFSET + INT32_SIZE_BYTES;
+
+    static final int PREFIX_LEN_OFFSET = 0;
+    static final int KEY_OFFSET = PREFIX_LEN_OFFSET + INT32_SIZE_BYTES;
+    static final int FIRST_CHILD_OFFSET = KEY_OFFSET + U128_SIZE_BYTES;
+    static final int SECOND_CHILD_OFFSET = FIRST_CHILD_OFFSET + INT32_SIZE_BYTES;
+
+    static final int OWNER_SLOT_OFFSET = 0;
+    static final int FEE_TIER_OFFSET = OWNER_SLOT_OFFSET + U8_SIZE_BYTES;
+    static final int KEY2_OFFSET = FEE_TIER_OFFSET + U8_SIZE_BYTES + 2; // 2 empty bytes
+    static final int SEQ_NUM_OFFSET = 0;
+    static final int PRICE_OFFSET = SEQ_NUM_OFFSET + U64_SIZE_BYTES;
+    static final int OWNER_OFFSET = KEY2_OFFSET + U128_SIZE_BYTES;
+    static final int QUANTITY_OFFSET = OWNER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int CLIENT_ORDER_ID_OFFSET = QUANTITY_OFFSET + U64_SIZE_BYTES;
 
     private int bumpIndex;
     private int freeListLen;
@@ -146,7 +143,7 @@ public class Slab {
         int leafCount = slab.readLeafcount(data);
         slab.setLeafCount(leafCount);
 
-        byte[] slabNodeBytes = ByteUtils.readBytes(data, SLAB_NODE_OFFSET, data.length - SLAB_NODE_OFFSET);
+        byte[] slabNodeBytes = LayoutCodec.readBytes(data, SLAB_NODE_OFFSET, data.length - SLAB_NODE_OFFSET);
 
         ArrayList<SlabNode> slabNodes = slab.readSlabNodes(slabNodeBytes, bumpIndex);
         slab.setSlabNodes(slabNodes);
@@ -166,15 +163,15 @@ public class Slab {
         ArrayList<SlabNode> slabNodes = new ArrayList<>();
 
         for (int i = 0; i < bumpIndex; i++) {
-            slabNodes.add(readSlabNode(ByteUtils.readBytes(data, (SLAB_NODE_SIZE * i), SLAB_NODE_SIZE)));
+            slabNodes.add(readSlabNode(LayoutCodec.readBytes(data, (SLAB_NODE_SIZE * i), SLAB_NODE_SIZE)));
         }
 
         return slabNodes;
     }
 
     public SlabNode readSlabNode(byte[] data) {
-        int tag = readInt32(ByteUtils.readBytes(data, TAG_OFFSET, INT32_SIZE_BYTES));
-        byte[] blob1 = ByteUtils.readBytes(data, BLOB_1_OFFSET, BLOB_1_SIZE);
+        int tag = LayoutCodec.readInt32(data, TAG_OFFSET);
+        byte[] blob1 = LayoutCodec.readBytes(data, BLOB_1_OFFSET, BLOB_1_SIZE);
         SlabNode slabNode;
 
         if (tag == 0) {
@@ -182,56 +179,56 @@ public class Slab {
             slabNode = null;
         } else if (tag == 1) {
 //            System.out.println("tag 1 detected: innernode");
-            int prefixLen = readInt32(ByteUtils.readBytes(blob1, PREFIX_LEN_OFFSET, INT32_SIZE_BYTES));
+            int prefixLen = LayoutCodec.readInt32(blob1, PREFIX_LEN_OFFSET);
 //            System.out.println("prefixLen = " + prefixLen);
 
             // Only the first prefixLen high-order bits of key are meaningful\
             int numBytesToRead = (int) Math.ceil(prefixLen / 4.00);
 //            System.out.println("size of key (in bytes) = " + numBytesToRead);
 
-            byte[] key = ByteUtils.readBytes(blob1, KEY_OFFSET, numBytesToRead);
+            byte[] key = LayoutCodec.readBytes(blob1, KEY_OFFSET, numBytesToRead);
 //            System.out.println("key = " + new String(key));
 
-            int child1 = readInt32(ByteUtils.readBytes(blob1, FIRST_CHILD_OFFSET, INT32_SIZE_BYTES));
+            int child1 = LayoutCodec.readInt32(blob1, FIRST_CHILD_OFFSET);
 //            System.out.println("child1 = " + child1);
 
-            int child2 = readInt32(ByteUtils.readBytes(blob1, SECOND_CHILD_OFFSET, INT32_SIZE_BYTES));
+            int child2 = LayoutCodec.readInt32(blob1, SECOND_CHILD_OFFSET);
 //            System.out.println("child2 = " + child2);
 
             slabNode = new SlabInnerNode(prefixLen, key, child1, child2);
         } else if (tag == 2) {
 //            System.out.println("tag 2 detected: leafnode");
-            byte ownerSlot = ByteUtils.readBytes(blob1, OWNER_SLOT_OFFSET, U8_SIZE_BYTES)[0];
+            byte ownerSlot = blob1[OWNER_SLOT_OFFSET];
 //            System.out.println("ownerSlot = " + ownerSlot);
-            byte feeTier = ByteUtils.readBytes(blob1, FEE_TIER_OFFSET, U8_SIZE_BYTES)[0];
+            byte feeTier = blob1[FEE_TIER_OFFSET];
 //            System.out.println("feeTier = " + feeTier);
             // 2 empty bytes
 
             // "(price, seqNum)"
             // key starts at byte 4, u128. u128 = 128 bits = 16 * 8
-            byte[] key = ByteUtils.readBytes(blob1, KEY2_OFFSET, U128_SIZE_BYTES);
+            byte[] key = LayoutCodec.readBytes(blob1, KEY2_OFFSET, U128_SIZE_BYTES);
 //            System.out.println("key = " + new String(key));
-            long seqNum = Utils.readInt64(key, SEQ_NUM_OFFSET);
-            long price = Utils.readInt64(key, PRICE_OFFSET);
+            long seqNum = LayoutCodec.readInt64(key, SEQ_NUM_OFFSET);
+            long price = LayoutCodec.readInt64(key, PRICE_OFFSET);
 
 //            System.out.println("price = " + price);
 
 
             // Open orders account
-            PublicKey owner = PublicKey.readPubkey(blob1, OWNER_OFFSET);
+            PublicKey owner = LayoutCodec.readPublicKey(blob1, OWNER_OFFSET);
 //            System.out.println("owner = " + owner.toBase58());
 
             // In units of lot size
-            long quantity = Utils.readInt64(blob1, QUANTITY_OFFSET);
+            long quantity = LayoutCodec.readInt64(blob1, QUANTITY_OFFSET);
 //            System.out.println("quantity = " + quantity);
 
-            long clientOrderId = Utils.readInt64(blob1, CLIENT_ORDER_ID_OFFSET);
+            long clientOrderId = LayoutCodec.readInt64(blob1, CLIENT_ORDER_ID_OFFSET);
 //            System.out.println("clientOrderId = " + clientOrderId);
 
             slabNode = new SlabLeafNode(ownerSlot, feeTier, key, owner, quantity, clientOrderId, price);
         } else if (tag == 3) {
 //            System.out.println("tag 3 detected: freenode");
-            int next = readInt32(ByteUtils.readBytes(blob1, 0, INT32_SIZE_BYTES));
+            int next = LayoutCodec.readInt32(blob1, 0);
 //            System.out.println("next = " + next);
 
             slabNode = new SlabInnerNode();
@@ -264,9 +261,7 @@ public class Slab {
     }
 
     private int readLeafcount(byte[] data) {
-        final byte[] bumpIndexBytes = ByteUtils.readBytes(data, LEAF_COUNT_OFFSET, INT32_SIZE_BYTES);
-
-        return readInt32(bumpIndexBytes);
+        return LayoutCodec.readInt32(data, LEAF_COUNT_OFFSET);
     }
 
     public int getRoot() {
@@ -278,9 +273,7 @@ public class Slab {
     }
 
     private int readRoot(byte[] data) {
-        final byte[] bumpIndexBytes = ByteUtils.readBytes(data, ROOT_OFFSET, INT32_SIZE_BYTES);
-
-        return readInt32(bumpIndexBytes);
+        return LayoutCodec.readInt32(data, ROOT_OFFSET);
     }
 
     public int getFreeListHead() {
@@ -292,15 +285,11 @@ public class Slab {
     }
 
     private int readFreeListHead(byte[] data) {
-        final byte[] bumpIndexBytes = ByteUtils.readBytes(data, FREE_LIST_HEAD_OFFSET, INT32_SIZE_BYTES);
-
-        return readInt32(bumpIndexBytes);
+        return LayoutCodec.readInt32(data, FREE_LIST_HEAD_OFFSET);
     }
 
     private int readFreeListLen(byte[] data) {
-        final byte[] bumpIndexBytes = ByteUtils.readBytes(data, FREE_LIST_LEN_OFFSET, INT32_SIZE_BYTES);
-
-        return readInt32(bumpIndexBytes);
+        return LayoutCodec.readInt32(data, FREE_LIST_LEN_OFFSET);
     }
 
     public int getFreeListLen() {
@@ -320,25 +309,11 @@ public class Slab {
     }
 
     private int readBumpIndex(byte[] data) {
-        final byte[] bumpIndexBytes = ByteUtils.readBytes(data, BUMP_INDEX_OFFSET, INT32_SIZE_BYTES);
-
-        return readInt32(bumpIndexBytes);
+        return LayoutCodec.readInt32(data, BUMP_INDEX_OFFSET);
     }
 
     public int readInt32(byte[] data) {
-        // convert 4 bytes into an int.
-
-        //  create a byte buffer and wrap the array
-        ByteBuffer bb = ByteBuffer.wrap(data);
-
-        //  if the file uses little endian as apposed to network
-        //  (big endian, Java's native) format,
-        //  then set the byte order of the ByteBuffer
-        bb.order(ByteOrder.LITTLE_ENDIAN);
-
-        //  read your integers using ByteBuffer's getInt().
-        //  four bytes converted into an integer!
-        return bb.getInt(0);
+        return LayoutCodec.readInt32(data, 0);
     }
 
     public ArrayList<SlabNode> getSlabNodes() {
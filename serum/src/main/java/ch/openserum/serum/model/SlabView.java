@@ -0,0 +1,328 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static ch.openserum.serum.model.Slab.*;
+
+/**
+ * Flyweight view over the raw bytes of a Serum order book {@link Slab}.
+ *
+ * Unlike {@link Slab#readOrderBookSlab(byte[])}, nothing is copied or decoded up front. Every accessor reads
+ * straight from the wrapped account data by node index, so reading a book does not allocate.
+ * A single instance can be re-pointed at new account data with {@link #wrap(byte[])}.
+ */
+public class SlabView {
+
+    // Node variants, see SLAB_NODE_LAYOUT in Slab
+    public static final int UNINITIALIZED = 0;
+    public static final int INNER_NODE = 1;
+    public static final int LEAF_NODE = 2;
+    public static final int FREE_NODE = 3;
+    public static final int LAST_FREE_NODE = 4;
+
+    private byte[] data;
+    private int base;
+
+    public SlabView() {
+    }
+
+    public SlabView(byte[] data) {
+        wrap(data);
+    }
+
+    /**
+     * Points this view at new order book account data.
+     *
+     * @param data decoded order book account data, including the 5 byte "serum" padding
+     * @return this view
+     */
+    public SlabView wrap(byte[] data) {
+        this.data = data;
+        this.base = 0;
+        return this;
+    }
+
+    /**
+     * Points this view at order book account data held in a {@link ByteBuffer}, starting at its current position.
+     * Heap buffers are read in place, direct buffers are copied once.
+     *
+     * @param buffer buffer containing decoded order book account data
+     * @return this view
+     */
+    public SlabView wrap(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            this.data = buffer.array();
+            this.base = buffer.arrayOffset() + buffer.position();
+        } else {
+            final byte[] copy = new byte[buffer.remaining()];
+            buffer.duplicate().get(copy);
+            this.data = copy;
+            this.base = 0;
+        }
+
+        return this;
+    }
+
+    /**
+     * @return wrapped array, in which the order book data starts at {@link #getBase()}
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return offset of the order book data in {@link #getData()}, non-zero after {@link #wrap(ByteBuffer)}
+     */
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the order book data starting at index 0, copying it only when the view was wrapped at a non-zero base.
+     *
+     * @return order book account data
+     */
+    public byte[] getSlabData() {
+        return base == 0 ? data : Arrays.copyOfRange(data, base, data.length);
+    }
+
+    public int getBumpIndex() {
+        return readInt32(base + BUMP_INDEX_OFFSET);
+    }
+
+    public int getFreeListLen() {
+        return readInt32(base + FREE_LIST_LEN_OFFSET);
+    }
+
+    public int getFreeListHead() {
+        return readInt32(base + FREE_LIST_HEAD_OFFSET);
+    }
+
+    public int getRoot() {
+        return readInt32(base + ROOT_OFFSET);
+    }
+
+    public int getLeafCount() {
+        return readInt32(base + LEAF_COUNT_OFFSET);
+    }
+
+    /**
+     * Returns the variant of a node, one of {@link #UNINITIALIZED}, {@link #INNER_NODE}, {@link #LEAF_NODE},
+     * {@link #FREE_NODE} or {@link #LAST_FREE_NODE}.
+     *
+     * @param node node index
+     * @return tag of the node
+     */
+    public int getTag(int node) {
+        return readInt32(nodeOffset(node) + TAG_OFFSET);
+    }
+
+    public boolean isLeaf(int node) {
+        return getTag(node) == LEAF_NODE;
+    }
+
+    public boolean isInner(int node) {
+        return getTag(node) == INNER_NODE;
+    }
+
+    // Inner node fields
+
+    public int getPrefixLen(int node) {
+        return readInt32(blobOffset(node) + PREFIX_LEN_OFFSET);
+    }
+
+    /**
+     * Returns a child of an inner node. Child 0 holds the keys below the critbit, child 1 the keys above it.
+     *
+     * @param node inner node index
+     * @param side 0 or 1
+     * @return index of the child node
+     */
+    public int getChild(int node, int side) {
+        return readInt32(blobOffset(node) + (side == 0 ? FIRST_CHILD_OFFSET : SECOND_CHILD_OFFSET));
+    }
+
+    // Critbit traversal
+
+    /**
+     * Finds the leaf with the lowest or highest key by following the critbit tree down from the root, in O(depth).
+     * For bids, the highest key is the best bid. For asks, the lowest key is the best ask.
+     *
+     * @param max true for the highest key, false for the lowest
+     * @return leaf node index, or -1 if the slab holds no leaves
+     */
+    public int best(boolean max) {
+        if (getLeafCount() == 0) {
+            return -1;
+        }
+
+        int node = getRoot();
+        int side = max ? 1 : 0;
+        while (isInner(node)) {
+            node = getChild(node, side);
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns an iterator over leaf node indices in key order, walking the critbit tree from the root.
+     * Keys are (price, seqNum), so leaves come out sorted by price and then by time priority.
+     *
+     * @param descending true to iterate from the highest key down (bids), false from the lowest key up (asks)
+     * @return iterator over leaf node indices
+     */
+    public LeafIterator leafIterator(boolean descending) {
+        return new LeafIterator(this, descending);
+    }
+
+    /**
+     * In-order critbit iterator over leaf node indices. Holds no per-leaf state, so it can be reused for
+     * another walk with {@link #reset()}.
+     */
+    public static class LeafIterator implements PrimitiveIterator.OfInt {
+
+        // Critbit prefixes grow along every path, so depth is bounded by the 128 bit key
+        private static final int MAX_DEPTH = 129;
+
+        private final SlabView slabView;
+        private final boolean descending;
+        private int[] stack = new int[MAX_DEPTH];
+        private int size;
+
+        public LeafIterator(SlabView slabView, boolean descending) {
+            this.slabView = slabView;
+            this.descending = descending;
+            reset();
+        }
+
+        /**
+         * Restarts the walk from the root of the currently wrapped slab.
+         */
+        public void reset() {
+            size = 0;
+            if (slabView.getLeafCount() > 0) {
+                stack[size++] = slabView.getRoot();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+
+            int node = stack[--size];
+            while (slabView.isInner(node)) {
+                // Visit the near child first, come back for the far one
+                push(slabView.getChild(node, descending ? 0 : 1));
+                node = slabView.getChild(node, descending ? 1 : 0);
+            }
+
+            return node;
+        }
+
+        private void push(int node) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+
+            stack[size++] = node;
+        }
+    }
+
+    // Leaf node fields
+
+    public byte getOwnerSlot(int node) {
+        return data[blobOffset(node) + OWNER_SLOT_OFFSET];
+    }
+
+    public byte getFeeTier(int node) {
+        return data[blobOffset(node) + FEE_TIER_OFFSET];
+    }
+
+    /**
+     * Lower 64 bits of the leaf key. Bids store the bitwise complement of the order's sequence number here.
+     */
+    public long getSeqNum(int node) {
+        return LayoutCodec.readInt64(data, blobOffset(node) + KEY2_OFFSET + SEQ_NUM_OFFSET);
+    }
+
+    /**
+     * Upper 64 bits of the leaf key, the price in lots.
+     */
+    public long getPrice(int node) {
+        return LayoutCodec.readInt64(data, blobOffset(node) + KEY2_OFFSET + PRICE_OFFSET);
+    }
+
+    /**
+     * @return quantity in units of base lot size
+     */
+    public long getQuantity(int node) {
+        return LayoutCodec.readInt64(data, blobOffset(node) + QUANTITY_OFFSET);
+    }
+
+    public long getClientOrderId(int node) {
+        return LayoutCodec.readInt64(data, blobOffset(node) + CLIENT_ORDER_ID_OFFSET);
+    }
+
+    /**
+     * Copies the 32 byte open orders account of a leaf into the given array.
+     *
+     * @param node leaf node index
+     * @param destination array to copy into
+     * @param destinationOffset position in the destination array
+     */
+    public void readOwner(int node, byte[] destination, int destinationOffset) {
+        LayoutCodec.readPubkeyBytes(data, blobOffset(node) + OWNER_OFFSET, destination, destinationOffset);
+    }
+
+    /**
+     * Compares the open orders account of a leaf against raw pubkey bytes, without allocating.
+     *
+     * @param node leaf node index
+     * @param owner 32 byte pubkey
+     * @return true if the leaf belongs to the given open orders account
+     */
+    public boolean ownerEquals(int node, byte[] owner) {
+        return LayoutCodec.pubkeyEquals(data, blobOffset(node) + OWNER_OFFSET, owner);
+    }
+
+    /**
+     * Builds a {@link PublicKey} for the open orders account of a leaf. Allocates, prefer
+     * {@link #readOwner(int, byte[], int)} or {@link #ownerEquals(int, byte[])} on hot paths.
+     *
+     * @param node leaf node index
+     * @return open orders account of the leaf
+     */
+    public PublicKey getOwner(int node) {
+        return LayoutCodec.readPublicKey(data, blobOffset(node) + OWNER_OFFSET);
+    }
+
+    int nodeOffset(int node) {
+        if (node < 0 || node >= getBumpIndex()) {
+            throw new IndexOutOfBoundsException("Slab node index out of range: " + node);
+        }
+
+        return base + SLAB_NODE_OFFSET + (node * SLAB_NODE_SIZE);
+    }
+
+    private int blobOffset(int node) {
+        return nodeOffset(node) + BLOB_1_OFFSET;
+    }
+
+    private int readInt32(int offset) {
+        return LayoutCodec.readInt32(data, offset);
+    }
+}
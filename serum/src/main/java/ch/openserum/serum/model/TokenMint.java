@@ -0,0 +1,76 @@
+package ch.openserum.serum.model;
+
+import ch.openserum.codec.LayoutCodec;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * Static data of an SPL token mint. The supply is a snapshot, taken at {@code fetchedAtMillis}.
+ *
+ *   u32('mintAuthorityOption'), 0-3
+ *   publicKeyLayout('mintAuthority'), 4-35
+ *   u64('supply'), 36-43
+ *   u8('decimals'), 44
+ *   bool('isInitialized'), 45
+ *   u32('freezeAuthorityOption'), 46-49
+ *   publicKeyLayout('freezeAuthority'), 50-81
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class TokenMint {
+
+    public static final int MINT_ACCOUNT_SIZE = 82;
+
+    private static final int MINT_AUTHORITY_OPTION_OFFSET = 0;
+    private static final int MINT_AUTHORITY_OFFSET = 4;
+    private static final int SUPPLY_OFFSET = 36;
+    private static final int DECIMALS_OFFSET = 44;
+    private static final int IS_INITIALIZED_OFFSET = 45;
+    private static final int FREEZE_AUTHORITY_OPTION_OFFSET = 46;
+    private static final int FREEZE_AUTHORITY_OFFSET = 50;
+
+    private PublicKey mint;
+    private byte decimals;
+    private boolean initialized;
+    private long supply;
+
+    // null when the mint has no such authority
+    private PublicKey mintAuthority;
+    private PublicKey freezeAuthority;
+
+    private long fetchedAtMillis;
+
+    /**
+     * @param mint mint address
+     * @param data mint account data
+     * @return decoded mint
+     * @throws RuntimeException if the data is not an initialized mint account, e.g. a token account
+     */
+    public static TokenMint readTokenMint(PublicKey mint, byte[] data) {
+        if (data == null || data.length != MINT_ACCOUNT_SIZE || !LayoutCodec.readBoolean(data, IS_INITIALIZED_OFFSET)) {
+            throw new RuntimeException("Invalid token mint data for " + mint);
+        }
+
+        final TokenMint tokenMint = new TokenMint();
+        tokenMint.setMint(mint);
+        tokenMint.setDecimals(data[DECIMALS_OFFSET]);
+        tokenMint.setInitialized(LayoutCodec.readBoolean(data, IS_INITIALIZED_OFFSET));
+        tokenMint.setSupply(LayoutCodec.readInt64(data, SUPPLY_OFFSET));
+
+        if (LayoutCodec.readInt32(data, MINT_AUTHORITY_OPTION_OFFSET) != 0) {
+            tokenMint.setMintAuthority(LayoutCodec.readPublicKey(data, MINT_AUTHORITY_OFFSET));
+        }
+
+        if (LayoutCodec.readInt32(data, FREEZE_AUTHORITY_OPTION_OFFSET) != 0) {
+            tokenMint.setFreezeAuthority(LayoutCodec.readPublicKey(data, FREEZE_AUTHORITY_OFFSET));
+        }
+
+        tokenMint.setFetchedAtMillis(System.currentTimeMillis());
+        return tokenMint;
+    }
+}
@@ -25,9 +25,18 @@ public class TradeEvent {
     private long nativeFeeOrRebate;
     private long clientOrderId;
 
+    // Position of this event in the queue's history, the newest event has the queue's seqNum - 1
+    private long seqNum;
+
     private float floatPrice;
     private float floatQuantity;
 
+    // Exact price and quantity, see FixedPoint: price in quote tokens per base token, quantity in base tokens
+    private long fixedPrice;
+    private int priceScale;
+    private long fixedQuantity;
+    private int quantityScale;
+
     public TradeEvent(PublicKey openOrders, long nativeQuantityPaid, byte[] orderId, EventQueueFlags eventQueueFlags) {
         this.openOrders = openOrders;
         this.nativeQuantityPaid = nativeQuantityPaid;
@@ -47,8 +56,13 @@ public class TradeEvent {
                 ", nativeQuantityReleased=" + nativeQuantityReleased +
                 ", nativeFeeOrRebate=" + nativeFeeOrRebate +
                 ", clientOrderId=" + clientOrderId +
+                ", seqNum=" + seqNum +
                 ", floatPrice=" + floatPrice +
                 ", floatQuantity=" + floatQuantity +
+                ", fixedPrice=" + fixedPrice +
+                ", priceScale=" + priceScale +
+                ", fixedQuantity=" + fixedQuantity +
+                ", quantityScale=" + quantityScale +
                 '}';
     }
 }
@@ -0,0 +1,244 @@
+package ch.openserum.serum.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Preallocated single-producer, multi-consumer ring buffer of {@link TradeEvent}s, in the style of a disruptor.
+ *
+ * The producer, typically an {@link EventQueueCursor} poller, decodes each fill once and copies it into the next
+ * preallocated entry with {@link #publish(TradeEvent)}. Every {@link Consumer} then reads the same entries at its
+ * own pace through its own sequence. Publishing does not allocate and nothing takes a lock: the producer spins
+ * while the slowest consumer is a whole ring behind, so memory stays bounded at {@code capacity} entries.
+ *
+ * Only one thread may publish. Each consumer must be polled by a single thread.
+ */
+public class TradeTape {
+
+    private static final int ORDER_ID_SIZE = 16;
+
+    private final TradeEvent[] entries;
+    private final int mask;
+
+    // Sequence of the last published entry
+    private final Sequence published = new Sequence(-1);
+    private final AtomicReference<Consumer[]> consumers = new AtomicReference<>(new Consumer[0]);
+
+    // Producer-local: slowest consumer sequence seen by the last wrap check
+    private long gatingSequence = -1;
+
+    /**
+     * @param capacity number of entries, a power of two
+     */
+    public TradeTape(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+
+        entries = new TradeEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new TradeEvent();
+            entries[i].setOrderId(new byte[ORDER_ID_SIZE]);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Copies a trade into the next entry and makes it visible to every consumer. Waits while the slowest consumer
+     * still has to read the entry being overwritten.
+     *
+     * @param tradeEvent trade to publish, not referenced after this call returns
+     * @return sequence of the published entry
+     */
+    public long publish(TradeEvent tradeEvent) {
+        final long next = published.get() + 1;
+        final long wrapPoint = next - entries.length;
+
+        if (wrapPoint > gatingSequence) {
+            long slowest;
+            while (wrapPoint > (slowest = slowestConsumer(next - 1))) {
+                Thread.onSpinWait();
+            }
+            gatingSequence = slowest;
+        }
+
+        copy(tradeEvent, entries[(int) next & mask]);
+        published.setRelease(next);
+        return next;
+    }
+
+    /**
+     * Publishes trades in order, e.g. the result of {@link EventQueueCursor#poll(byte[])}.
+     *
+     * @param tradeEvents trades to publish
+     * @return sequence of the last published entry
+     */
+    public long publish(List<TradeEvent> tradeEvents) {
+        for (int i = 0; i < tradeEvents.size(); i++) {
+            publish(tradeEvents.get(i));
+        }
+
+        return published.get();
+    }
+
+    /**
+     * Registers a consumer, which sees every trade published after this call.
+     *
+     * @return new consumer
+     */
+    public Consumer newConsumer() {
+        final Consumer consumer = new Consumer(this, published.get());
+
+        Consumer[] current;
+        Consumer[] updated;
+        do {
+            current = consumers.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = consumer;
+        } while (!consumers.compareAndSet(current, updated));
+
+        // The producer may have wrapped past the first sequence before it saw this consumer, only entries published
+        // once it gates the producer are safe to read
+        consumer.sequence.set(published.get());
+        return consumer;
+    }
+
+    /**
+     * @return sequence of the last published entry, -1 before the first publish
+     */
+    public long getPublishedSequence() {
+        return published.get();
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    private void remove(Consumer consumer) {
+        Consumer[] current;
+        Consumer[] updated;
+        do {
+            current = consumers.get();
+            updated = Arrays.stream(current)
+                    .filter(c -> c != consumer)
+                    .toArray(Consumer[]::new);
+        } while (!consumers.compareAndSet(current, updated));
+    }
+
+    private long slowestConsumer(long minimum) {
+        long slowest = minimum;
+        for (Consumer consumer : consumers.get()) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+
+        return slowest;
+    }
+
+    private static void copy(TradeEvent source, TradeEvent destination) {
+        // PublicKey is immutable, only the order id bytes need copying
+        destination.setOpenOrders(source.getOpenOrders());
+        destination.setNativeQuantityPaid(source.getNativeQuantityPaid());
+        if (source.getOrderId() != null) {
+            System.arraycopy(source.getOrderId(), 0, destination.getOrderId(), 0, ORDER_ID_SIZE);
+        } else {
+            Arrays.fill(destination.getOrderId(), (byte) 0);
+        }
+        destination.setEventQueueFlags(source.getEventQueueFlags());
+        destination.setOpenOrdersSlot(source.getOpenOrdersSlot());
+        destination.setFeeTier(source.getFeeTier());
+        destination.setNativeQuantityReleased(source.getNativeQuantityReleased());
+        destination.setNativeFeeOrRebate(source.getNativeFeeOrRebate());
+        destination.setClientOrderId(source.getClientOrderId());
+        destination.setSeqNum(source.getSeqNum());
+        destination.setFloatPrice(source.getFloatPrice());
+        destination.setFloatQuantity(source.getFloatQuantity());
+        destination.setFixedPrice(source.getFixedPrice());
+        destination.setPriceScale(source.getPriceScale());
+        destination.setFixedQuantity(source.getFixedQuantity());
+        destination.setQuantityScale(source.getQuantityScale());
+    }
+
+    /**
+     * Called for each trade read by a {@link Consumer}.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param tradeEvent entry of the tape, only valid until the handler returns
+         * @param sequence sequence of the entry
+         */
+        void onTrade(TradeEvent tradeEvent, long sequence);
+    }
+
+    /**
+     * Reads a {@link TradeTape} through its own sequence. Until it is closed, the producer never overwrites an entry
+     * this consumer has not read yet, so a consumer that stops polling eventually stalls publishing.
+     */
+    public static class Consumer implements AutoCloseable {
+
+        private final TradeTape tape;
+
+        // Sequence of the last entry this consumer is done with
+        private final Sequence sequence;
+
+        private Consumer(TradeTape tape, long sequence) {
+            this.tape = tape;
+            this.sequence = new Sequence(sequence);
+        }
+
+        /**
+         * Hands every trade published since the previous poll to {@code handler}, oldest first.
+         *
+         * @param handler called once per trade
+         * @return number of trades handled
+         */
+        public int poll(Handler handler) {
+            final long current = sequence.get();
+            final long available = tape.published.getAcquire();
+
+            for (long next = current + 1; next <= available; next++) {
+                handler.onTrade(tape.entries[(int) next & tape.mask], next);
+            }
+
+            // Entries are only released to the producer once the whole batch is handled
+            sequence.setRelease(available);
+            return (int) (available - current);
+        }
+
+        /**
+         * @return number of published trades this consumer has not read yet
+         */
+        public long getLag() {
+            return tape.published.get() - sequence.get();
+        }
+
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        /**
+         * Stops gating the producer on this consumer.
+         */
+        @Override
+        public void close() {
+            tape.remove(this);
+        }
+    }
+
+    /**
+     * {@link AtomicLong} followed by a cache line of padding, so sequences polled by different threads do not share
+     * a cache line.
+     */
+    @SuppressWarnings("unused")
+    static final class Sequence extends AtomicLong {
+
+        private long p1, p2, p3, p4, p5, p6, p7;
+
+        Sequence(long initialValue) {
+            super(initialValue);
+        }
+    }
+}
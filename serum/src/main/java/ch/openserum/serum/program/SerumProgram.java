@@ -343,7 +343,7 @@ public class SerumProgram extends Program {
         accountMetas.add(new AccountMeta(market.getQuoteVault(), false, true));
         accountMetas.add(new AccountMeta(baseWallet, false, true));
         accountMetas.add(new AccountMeta(quoteWallet, false, true));
-        accountMetas.add(new AccountMeta(SerumUtils.getVaultSigner(market), false, false));
+        accountMetas.add(new AccountMeta(market.getVaultSigner(), false, false));
         accountMetas.add(new AccountMeta(TOKEN_PROGRAM_ID, false, false));
 
         byte[] transactionData = encodeSettleOrdersTransactionData();
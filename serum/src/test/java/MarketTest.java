@@ -1,3 +1,6 @@
+import ch.openserum.serum.manager.MarketStream;
+import ch.openserum.serum.manager.OpenOrdersRegistry;
+import ch.openserum.serum.manager.SerumManager;
 import ch.openserum.serum.model.*;
 import org.bitcoinj.core.Utils;
 import org.junit.Ignore;
@@ -8,11 +11,21 @@ import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.utils.ByteUtils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 import static org.junit.Assert.*;
@@ -161,4 +174,1292 @@ public class MarketTest {
 
     }
 
+
+    /**
+     * Uses {@link MarketBuilder#buildAsync()} to fetch the SOL/USDC order books and event queue concurrently.
+     */
+    @Test
+    public void marketBuilderAsyncTest() {
+        final PublicKey solUsdcPublicKey = new PublicKey("9wFFyRfZBsuAha4YcuxcXLKwMxJR43S7fPfQLusDBzvT");
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        try {
+            final MarketBuilder solUsdcMarketBuilder = new MarketBuilder()
+                    .setPublicKey(solUsdcPublicKey)
+                    .setClient(client)
+                    .setRetrieveOrderBooks(true)
+                    .setRetrieveEventQueue(true)
+                    .setExecutor(executor);
+
+            final Market solUsdcMarket = solUsdcMarketBuilder.buildAsync().join();
+
+            assertEquals(9, solUsdcMarket.getBaseDecimals());
+            assertEquals(6, solUsdcMarket.getQuoteDecimals());
+            assertNotNull(solUsdcMarket.getBidOrderBook());
+            assertNotNull(solUsdcMarket.getAskOrderBook());
+            assertNotNull(solUsdcMarket.getEventQueue());
+            LOGGER.info("Best bid = " + solUsdcMarket.getBidOrderBook().getBestBid());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Uses {@link MarketBuilder#buildAll(List)} to fetch the accounts of two markets with getMultipleAccounts.
+     */
+    @Test
+    public void marketBuilderBatchTest() {
+        final List<MarketBuilder> marketBuilders = new ArrayList<>();
+        for (String marketKey : List.of("9wFFyRfZBsuAha4YcuxcXLKwMxJR43S7fPfQLusDBzvT", "A8YFbxQYFVqKZaoYJLLUVcQiWP7G2MeEgW5wsAQgMvFw")) {
+            marketBuilders.add(
+                    new MarketBuilder()
+                            .setPublicKey(new PublicKey(marketKey))
+                            .setClient(client)
+                            .setRetrieveOrderBooks(true)
+                            .setRetrieveEventQueue(true)
+                            .setBatchRequests(true)
+            );
+        }
+
+        final List<Market> markets = MarketBuilder.buildAll(marketBuilders);
+        assertEquals(2, markets.size());
+
+        for (Market market : markets) {
+            assertEquals(6, market.getQuoteDecimals());
+            assertNotNull(market.getBidOrderBook());
+            assertNotNull(market.getAskOrderBook());
+            assertNotNull(market.getEventQueue());
+            LOGGER.info(market.getOwnAddress() + " best ask = " + market.getAskOrderBook().getBestAsk());
+        }
+
+        // Later builds only fetch the order books and event queues, still in one request
+        final List<Market> reloaded = MarketBuilder.buildAll(marketBuilders);
+        assertEquals(markets.get(0).getOwnAddress(), reloaded.get(0).getOwnAddress());
+        assertEquals(markets.get(1).getOwnAddress(), reloaded.get(1).getOwnAddress());
+    }
+
+    /**
+     * Verifies that {@link SlabView} reads the same leaf data as a fully decoded {@link Slab}.
+     */
+    @Test
+    public void slabViewTest() {
+        final byte[] data = buildSlabData(new long[][]{
+                // price, quantity, clientOrderId
+                {1000, 5, 11},
+                {1010, 7, 12},
+                {990, 1, 13}
+        }, 0, true);
+
+        final Slab slab = Slab.readOrderBookSlab(data);
+        final SlabView slabView = new SlabView(data);
+
+        assertEquals(slab.getBumpIndex(), slabView.getBumpIndex());
+        assertEquals(slab.getLeafCount(), slabView.getLeafCount());
+        assertEquals(slab.getRoot(), slabView.getRoot());
+
+        for (int node = 0; node < slabView.getBumpIndex(); node++) {
+            SlabNode slabNode = slab.getSlabNodes().get(node);
+            assertEquals(slabNode instanceof SlabLeafNode, slabView.isLeaf(node));
+
+            if (slabNode instanceof SlabLeafNode) {
+                SlabLeafNode leafNode = (SlabLeafNode) slabNode;
+                assertEquals(leafNode.getPrice(), slabView.getPrice(node));
+                assertEquals(leafNode.getQuantity(), slabView.getQuantity(node));
+                assertEquals(leafNode.getClientOrderId(), slabView.getClientOrderId(node));
+                assertEquals(leafNode.getOwnerSlot(), slabView.getOwnerSlot(node));
+                assertTrue(slabView.ownerEquals(node, leafNode.getOwner().toByteArray()));
+            }
+        }
+
+        // Wrapped at a non-zero position, a full decode still starts at the order book data
+        final byte[] padded = new byte[data.length + 7];
+        System.arraycopy(data, 0, padded, 7, data.length);
+        final OrderBook orderBook = OrderBook.readOrderBook(data);
+        orderBook.getSlabView().wrap((ByteBuffer) ByteBuffer.wrap(padded).position(7));
+        assertEquals(7, orderBook.getSlabView().getBase());
+        assertEquals(slab.getLeafCount(), orderBook.getSlab().getLeafCount());
+        assertArrayEquals(data, orderBook.getSlabView().getSlabData());
+    }
+
+    /**
+     * Verifies that best bid/ask and sorted orders come out of the critbit tree in priority order.
+     */
+    @Test
+    public void critbitTraversalTest() {
+        final long[][] leaves = {
+                {1000, 5, 11},
+                {1010, 7, 12},
+                {990, 1, 13},
+                {1010, 2, 14},
+                {1005, 3, 15}
+        };
+
+        final OrderBook asks = OrderBook.readOrderBook(buildSlabData(leaves, 0, false));
+        assertFalse(asks.isBids());
+        assertEquals(990, asks.getBestAsk().getPrice());
+
+        final List<Order> sortedAsks = asks.getSortedOrders();
+        assertEquals(5, sortedAsks.size());
+        assertArrayEquals(
+                new long[]{990, 1000, 1005, 1010, 1010},
+                sortedAsks.stream().mapToLong(Order::getPrice).toArray()
+        );
+        // time priority within a price level
+        assertEquals(12, sortedAsks.get(3).getClientOrderId());
+
+        final OrderBook bids = OrderBook.readOrderBook(buildSlabData(leaves, 0, true));
+        assertTrue(bids.isBids());
+        assertEquals(1010, bids.getBestBid().getPrice());
+        assertArrayEquals(
+                new long[]{1010, 1010, 1005},
+                bids.getTopOrders(3).stream().mapToLong(Order::getPrice).toArray()
+        );
+
+        final OrderBook empty = OrderBook.readOrderBook(buildSlabData(new long[0][], 0, true));
+        assertNull(empty.getBestBid());
+        assertTrue(empty.getSortedOrders().isEmpty());
+    }
+
+    /**
+     * Verifies that {@link OrderBook#getLevels(int)} merges orders at the same price and stops after N levels.
+     */
+    @Test
+    public void orderBookLevelsTest() {
+        final long[][] leaves = {
+                {1000, 5, 11},
+                {1010, 7, 12},
+                {990, 1, 13},
+                {1010, 2, 14},
+                {1005, 3, 15}
+        };
+
+        final OrderBook bids = OrderBook.readOrderBook(buildSlabData(leaves, 0, true));
+        bids.setBaseLotSize(100);
+        bids.setQuoteLotSize(10);
+
+        final OrderBookLevels levels = bids.getLevels(2);
+        assertEquals(2, levels.getLevelCount());
+        assertEquals(1010, levels.getPrices()[0]);
+        assertEquals(9, levels.getSizes()[0]);
+        assertEquals(1005, levels.getPrices()[1]);
+        assertEquals(3, levels.getSizes()[1]);
+        assertEquals(10100, levels.getNativePrices()[0]);
+        assertEquals(900, levels.getNativeSizes()[0]);
+
+        // Reused instance grows to fit a deeper snapshot
+        bids.getLevels(10, levels);
+        assertEquals(4, levels.getLevelCount());
+        assertEquals(990, levels.getPrices()[3]);
+
+        assertThrows(IllegalArgumentException.class, () -> bids.getLevels(-1));
+        assertThrows(IllegalArgumentException.class, () -> bids.getLevels(-1, levels));
+
+        // Unwrapped books return null like getOrders
+        assertNull(new OrderBook().getLevels(2));
+        assertNull(new OrderBook().getColumns());
+    }
+
+    /**
+     * Verifies that {@link OrderBookDiff} reports added, removed and partially filled orders between two snapshots.
+     */
+    @Test
+    public void orderBookDiffTest() {
+        final byte[] previous = buildSlabData(new long[][]{{1000, 5, 11}, {1010, 7, 12}, {990, 1, 13}}, 0, false);
+        final byte[] current = buildSlabData(
+                new long[][]{{1000, 5, 11}, {1010, 4, 12}, {990, 1, 13}, {1020, 2, 14}},
+                0,
+                false
+        );
+
+        final OrderBookDiff orderBookDiff = new OrderBookDiff();
+        assertTrue(orderBookDiff.diff(previous, previous).isEmpty());
+
+        List<OrderBookDelta> deltas = orderBookDiff.diff(previous, current);
+        LOGGER.info("Deltas: " + deltas);
+        assertEquals(2, deltas.size());
+        assertEquals(OrderBookDelta.Type.QUANTITY_REDUCED, deltas.get(0).getType());
+        assertEquals(1010, deltas.get(0).getPrice());
+        assertEquals(4, deltas.get(0).getQuantity());
+        assertEquals(7, deltas.get(0).getPreviousQuantity());
+        assertEquals(OrderBookDelta.Type.ADDED, deltas.get(1).getType());
+        assertEquals(1020, deltas.get(1).getPrice());
+        assertEquals(3, deltas.get(1).getSeqNum());
+
+        // (990, seqNum 2) is gone, the rest is unchanged
+        deltas = orderBookDiff.diff(current, buildSlabData(
+                new long[][]{{1000, 5, 11}, {1010, 4, 12}},
+                0,
+                false
+        ));
+        assertEquals(2, deltas.size());
+        assertEquals(OrderBookDelta.Type.REMOVED, deltas.get(0).getType());
+        assertEquals(990, deltas.get(0).getPrice());
+        assertEquals(13, deltas.get(0).getClientOrderId());
+        assertEquals(1, deltas.get(0).getPreviousQuantity());
+        assertEquals(OrderBookDelta.Type.REMOVED, deltas.get(1).getType());
+        assertEquals(1020, deltas.get(1).getPrice());
+    }
+
+    /**
+     * Verifies that {@link OrderBook#getColumns(OrderBookColumns)} fills primitive columns in priority order.
+     */
+    @Test
+    public void orderBookColumnsTest() {
+        final long[][] leaves = {
+                {1000, 5, 11},
+                {990, 1, 12},
+                {1010, 7, 13}
+        };
+
+        final OrderBook asks = OrderBook.readOrderBook(buildSlabData(leaves, 0, false));
+        final OrderBookColumns columns = new OrderBookColumns(1);
+        asks.getColumns(columns);
+
+        assertEquals(3, columns.getOrderCount());
+        assertEquals(990, columns.getPrices()[0]);
+        assertEquals(1, columns.getQuantities()[0]);
+        assertEquals(12, columns.getClientOrderIds()[0]);
+        assertEquals(1, columns.getSeqNums()[0]);
+        assertEquals(1, columns.getOwnerSlots()[0]);
+        assertEquals(1010, columns.getPrices()[2]);
+        assertEquals(asks.getSlabView().getOwner(2), columns.getOwner(2));
+        assertTrue(columns.ownerEquals(2, asks.getSlabView().getOwner(2).toByteArray()));
+        assertFalse(columns.ownerEquals(0, asks.getSlabView().getOwner(2).toByteArray()));
+    }
+
+    /**
+     * Verifies that {@link EventQueue#reload(byte[])} decodes new data into the existing {@link TradeEvent}s.
+     */
+    @Test
+    public void eventQueueReloadTest() {
+        final byte[] data = buildEventQueueData(4);
+        final EventQueue eventQueue = EventQueue.readEventQueue(data, (byte) 6, (byte) 6, 100, 10);
+
+        assertEquals(2, eventQueue.getEvents().size());
+        final TradeEvent tradeEvent = eventQueue.getEvents().get(0);
+        final PublicKey openOrders = tradeEvent.getOpenOrders();
+        assertEquals(1000, tradeEvent.getNativeQuantityPaid());
+        assertTrue(tradeEvent.getEventQueueFlags().isFill());
+
+        // Same accounts, new quantities
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putLong(37 + 16, 2000);
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putLong(37 + 88 + 16, 3000);
+        eventQueue.reload(data);
+
+        assertEquals(2, eventQueue.getEvents().size());
+        assertSame(tradeEvent, eventQueue.getEvents().get(0));
+        assertSame(openOrders, eventQueue.getEvents().get(0).getOpenOrders());
+        assertEquals(3000, eventQueue.getEvents().get(0).getNativeQuantityPaid());
+        assertEquals(2000, eventQueue.getEvents().get(1).getNativeQuantityPaid());
+    }
+
+    /**
+     * Verifies that {@link EventQueueCursor} only returns events pushed since the previous poll, across wraparound
+     * and overruns.
+     */
+    @Test
+    public void eventQueueCursorTest() {
+        final byte[] data = buildEventQueueData(4);
+        final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        final EventQueueCursor cursor = new EventQueueCursor((byte) 6, (byte) 6);
+
+        // First poll returns what is in the queue, oldest first
+        List<TradeEvent> events = cursor.poll(data);
+        assertEquals(2, events.size());
+        assertEquals(0, events.get(0).getSeqNum());
+        assertEquals(1, events.get(1).getSeqNum());
+        assertEquals(2, cursor.getSeqNum());
+
+        assertTrue(cursor.poll(data).isEmpty());
+
+        pushFillEvent(buffer, 4, 2000);
+        events = cursor.poll(data);
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getSeqNum());
+        assertEquals(2000, events.get(0).getNativeQuantityPaid());
+
+        // Crank 3 events, then push 3 more, wrapping around the ring
+        buffer.putInt(13, 3);
+        buffer.putInt(21, 0);
+        for (int i = 0; i < 3; i++) {
+            pushFillEvent(buffer, 4, 3000 + i);
+        }
+        events = cursor.poll(data);
+        assertEquals(3, events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(3 + i, events.get(i).getSeqNum());
+            assertEquals(3000 + i, events.get(i).getNativeQuantityPaid());
+        }
+        assertEquals(0, cursor.getMissedEvents());
+
+        // 6 events through 4 slots, cranking whenever the queue is full: the 2 oldest are overwritten
+        buffer.putInt(13, 2);
+        buffer.putInt(21, 0);
+        for (int i = 0; i < 6; i++) {
+            if (buffer.getInt(21) == 4) {
+                buffer.putInt(13, (buffer.getInt(13) + 1) % 4);
+                buffer.putInt(21, 3);
+            }
+            pushFillEvent(buffer, 4, 4000 + i);
+        }
+        events = cursor.poll(data);
+        assertEquals(2, cursor.getMissedEvents());
+        assertEquals(4, events.size());
+        assertEquals(8, events.get(0).getSeqNum());
+        assertEquals(4002, events.get(0).getNativeQuantityPaid());
+        assertEquals(4005, events.get(3).getNativeQuantityPaid());
+    }
+
+    /**
+     * Verifies that an {@link EventQueueFilter} selects fills by open orders account, flags and size.
+     */
+    @Test
+    public void eventQueueFilterTest() {
+        final byte[] data = buildEventQueueData(4);
+        final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        final Random random = new Random(12);
+        final byte[][] openOrders = new byte[2][32];
+        random.nextBytes(openOrders[0]);
+        random.nextBytes(openOrders[1]);
+
+        // Same first 8 bytes, only the full key tells them apart
+        final byte[] lookalike = Arrays.copyOf(openOrders[0], 32);
+        lookalike[31]++;
+
+        final byte[][] owners = {openOrders[0], openOrders[1], lookalike, openOrders[0]};
+        final int[] flags = {
+                EventQueueFlags.FILL | EventQueueFlags.BID | EventQueueFlags.MAKER,
+                EventQueueFlags.FILL,
+                EventQueueFlags.FILL | EventQueueFlags.MAKER,
+                EventQueueFlags.FILL
+        };
+        buffer.putInt(13, 0);
+        buffer.putInt(21, 0);
+        buffer.putInt(29, 0);
+        for (int i = 0; i < 4; i++) {
+            pushFillEvent(buffer, 4, 1000 * (i + 1));
+            buffer.put(37 + (i * 88), (byte) flags[i]);
+            buffer.put(37 + (i * 88) + 48, owners[i]);
+        }
+
+        final EventQueueFilter ownerFilter = new EventQueueFilter()
+                .addOpenOrders(new PublicKey(openOrders[1]))
+                .addOpenOrders(new PublicKey(openOrders[0]));
+        EventQueue eventQueue = EventQueue.readEventQueue(data, (byte) 6, (byte) 6, 100, 10, ownerFilter);
+        assertEquals(3, eventQueue.getEvents().size());
+        for (TradeEvent tradeEvent : eventQueue.getEvents()) {
+            assertNotEquals(new PublicKey(lookalike), tradeEvent.getOpenOrders());
+        }
+
+        // Takers only, bids are sized by the quantity released (10), asks by the quantity paid
+        final EventQueueFilter takerFilter = new EventQueueFilter()
+                .excludeFlags(EventQueueFlags.MAKER)
+                .setMinBaseQuantity(2000);
+        eventQueue.reload(data, takerFilter);
+        assertEquals(2, eventQueue.getEvents().size());
+        assertEquals(4000, eventQueue.getEvents().get(0).getNativeQuantityPaid());
+        assertEquals(2000, eventQueue.getEvents().get(1).getNativeQuantityPaid());
+
+        final EventQueueCursor cursor = new EventQueueCursor((byte) 6, (byte) 6);
+        final List<TradeEvent> events = cursor.poll(
+                data,
+                new EventQueueFilter().requireFlags(EventQueueFlags.BID).addOpenOrders(new PublicKey(openOrders[0]))
+        );
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getSeqNum());
+        assertEquals(4, cursor.getSeqNum());
+    }
+
+    /**
+     * Verifies that {@link EventView} exposes out events next to fills, by queue position and through
+     * {@link EventQueueCursor}.
+     */
+    @Test
+    public void eventViewTest() {
+        final byte[] data = buildEventQueueData(4);
+        final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(13, 3);
+        buffer.putInt(21, 0);
+        buffer.putInt(29, 7);
+        Arrays.fill(data, 37, data.length - 7, (byte) 0);
+
+        pushFillEvent(buffer, 4, 1000);
+
+        // Out event for a cancelled bid: 500 unlocked, nothing left locked
+        pushFillEvent(buffer, 4, 0);
+        final int outOffset = 37; // slot 0, the ring wrapped around
+        buffer.put(outOffset, (byte) (EventQueueFlags.OUT | EventQueueFlags.BID));
+        buffer.put(outOffset + 1, (byte) 200);
+        buffer.putLong(outOffset + 8, 500);
+        buffer.putLong(outOffset + 32, ~42L);
+        buffer.putLong(outOffset + 40, 20123);
+        buffer.putLong(outOffset + 80, 77);
+
+        // readEventQueue only keeps the fill
+        assertEquals(1, EventQueue.readEventQueue(data, (byte) 6, (byte) 6, 100, 10).getEvents().size());
+
+        final EventView eventView = new EventView();
+        assertEquals(2, EventView.getCount(data));
+        assertEquals(4, EventView.getAllocLen(data));
+
+        eventView.wrap(data, 0);
+        assertTrue(eventView.isFill());
+        assertEquals(3, eventView.getSlot());
+        assertEquals(7, eventView.getSeqNum());
+        assertEquals(1000, eventView.getNativeQuantityPaid());
+
+        eventView.wrap(data, 1);
+        assertTrue(eventView.isOut());
+        assertTrue(eventView.isBid());
+        assertFalse(eventView.isFill());
+        assertFalse(eventView.isMaker());
+        assertEquals(0, eventView.getSlot());
+        assertEquals(8, eventView.getSeqNum());
+        assertEquals(200, eventView.getOpenOrdersSlot());
+        assertEquals(500, eventView.getNativeQuantityReleased());
+        assertEquals(0, eventView.getNativeQuantityPaid());
+        assertEquals(42, ~eventView.getOrderSeqNum());
+        assertEquals(20123, eventView.getOrderPrice());
+        assertEquals(77, eventView.getClientOrderId());
+
+        final byte[] orderId = new byte[16];
+        eventView.readOrderId(orderId, 0);
+        assertEquals(20123, ByteBuffer.wrap(orderId).order(ByteOrder.LITTLE_ENDIAN).getLong(8));
+
+        // The cursor visits both, then only what comes next
+        final EventQueueCursor cursor = new EventQueueCursor((byte) 6, (byte) 6);
+        final List<Long> seqNums = new ArrayList<>();
+        final List<Boolean> outs = new ArrayList<>();
+        assertEquals(2, cursor.poll(data, eventView, event -> {
+            seqNums.add(event.getSeqNum());
+            outs.add(event.isOut());
+        }));
+        assertEquals(Arrays.asList(7L, 8L), seqNums);
+        assertEquals(Arrays.asList(false, true), outs);
+
+        pushFillEvent(buffer, 4, 3000);
+        seqNums.clear();
+        assertEquals(1, cursor.poll(data, eventView, event -> seqNums.add(event.getSeqNum())));
+        assertEquals(Arrays.asList(9L), seqNums);
+        assertEquals(3000, eventView.getNativeQuantityPaid());
+
+        try {
+            eventView.wrap(data, 3);
+            fail("Expected an out of range position to be rejected");
+        } catch (IndexOutOfBoundsException expected) {
+            LOGGER.info(expected.getMessage());
+        }
+    }
+
+    /**
+     * Verifies that every {@link TradeTape.Consumer} sees every published trade in order, with a tape much smaller
+     * than the number of trades.
+     */
+    @Test
+    public void tradeTapeTest() throws InterruptedException {
+        final TradeTape tradeTape = new TradeTape(8);
+
+        // Single thread: publish, then read the same entries through two consumers
+        final TradeTape.Consumer first = tradeTape.newConsumer();
+        final TradeTape.Consumer second = tradeTape.newConsumer();
+        final byte[] orderId = new byte[16];
+        orderId[15] = 9;
+        final TradeEvent source = new TradeEvent(null, 1000, orderId, EventQueueFlags.of((byte) 1));
+        assertEquals(0, tradeTape.publish(source));
+        orderId[15] = 10;
+        source.setNativeQuantityPaid(2000);
+        assertEquals(1, tradeTape.publish(source));
+
+        final List<Long> paid = new ArrayList<>();
+        assertEquals(2, first.poll((tradeEvent, sequence) -> paid.add(tradeEvent.getNativeQuantityPaid())));
+        assertEquals(Arrays.asList(1000L, 2000L), paid);
+        assertEquals(2, second.getLag());
+        assertEquals(2, second.poll((tradeEvent, sequence) -> assertEquals(9 + sequence, tradeEvent.getOrderId()[15])));
+        assertEquals(0, second.poll((tradeEvent, sequence) -> fail("Nothing new was published")));
+
+        // Consumers only see what is published after they join
+        final TradeTape.Consumer lateConsumer = tradeTape.newConsumer();
+        assertEquals(1, lateConsumer.getSequence());
+        lateConsumer.close();
+
+        try {
+            new TradeTape(12);
+            fail("Expected a capacity that is not a power of two to be rejected");
+        } catch (IllegalArgumentException expected) {
+            LOGGER.info(expected.getMessage());
+        }
+
+        // Producer and consumers on their own threads, the producer wraps the tape many times
+        final int tradeCount = 20000;
+        final TradeTape.Consumer[] consumers = {first, second, tradeTape.newConsumer()};
+        final long[] errors = new long[consumers.length];
+        final Thread[] threads = new Thread[consumers.length];
+
+        for (int i = 0; i < consumers.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                final long[] seen = {consumers[index].getSequence()};
+                while (seen[0] < tradeCount + 1) {
+                    consumers[index].poll((tradeEvent, sequence) -> {
+                        if (sequence != ++seen[0] || tradeEvent.getSeqNum() != sequence) {
+                            errors[index]++;
+                        }
+                    });
+                    Thread.onSpinWait();
+                }
+            });
+            threads[i].start();
+        }
+
+        for (long sequence = 2; sequence < tradeCount + 2; sequence++) {
+            source.setSeqNum(sequence);
+            tradeTape.publish(source);
+        }
+
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertArrayEquals(new long[consumers.length], errors);
+        assertEquals(tradeCount + 1, tradeTape.getPublishedSequence());
+    }
+
+    /**
+     * Verifies that {@link CandleAggregator} builds fixed-point bars from the maker fills of overlapping snapshots
+     * without counting a fill twice, starting after the first snapshot.
+     */
+    @Test
+    public void candleAggregatorTest() {
+        final CandleAggregator candleAggregator = new CandleAggregator(2, 1_000L, 60_000L);
+        final List<Long> closedBars = new ArrayList<>();
+        candleAggregator.addListener(candleSeries -> {
+            if (candleSeries.getIntervalMillis() == 1_000L) {
+                closedBars.add(candleSeries.getOpenTime(0));
+            }
+        });
+
+        // Newest first, like EventQueue.getEvents(). Fills already in the first snapshot are history
+        final List<TradeEvent> snapshot = new ArrayList<>(Arrays.asList(
+                trade(1, 50.0f, 1.0f, true),
+                trade(0, 50.0f, 1.0f, false)
+        ));
+        assertEquals(0, candleAggregator.onTrades(snapshot, 100_100));
+        assertEquals(1, candleAggregator.getLastSeqNum());
+        assertEquals(0, candleAggregator.getSeries(1_000L).size());
+
+        // Two makers matched by one taker at their average price
+        snapshot.add(0, trade(2, 10.0f, 3.0f, true));
+        snapshot.add(0, trade(3, 12.0f, 1.0f, true));
+        snapshot.add(0, trade(4, 10.5f, 4.0f, false));
+        assertEquals(2, candleAggregator.onTrades(snapshot, 100_500));
+
+        // The next snapshot overlaps the previous one
+        snapshot.add(0, trade(5, 8.0f, 2.0f, true));
+        assertEquals(1, candleAggregator.onTrades(snapshot, 100_900));
+        assertEquals(5, candleAggregator.getLastSeqNum());
+
+        final CandleAggregator.CandleSeries seconds = candleAggregator.getSeries(1_000L);
+        assertEquals(1, seconds.size());
+        assertFalse(seconds.isClosed(0));
+        assertEquals(100_000, seconds.getOpenTime(0));
+        assertEquals(10.0, seconds.getOpen(0), 0);
+        assertEquals(12.0, seconds.getHigh(0), 0);
+        assertEquals(8.0, seconds.getLow(0), 0);
+        assertEquals(8.0, seconds.getClose(0), 0);
+        assertEquals(6.0, seconds.getVolume(0), 0);
+        assertEquals(58.0 / 6.0, seconds.getVwap(0), 1e-9);
+        assertEquals(3, seconds.getTradeCount(0));
+
+        // Built from the exact fixed-point fields
+        assertEquals(2, seconds.getPriceScale());
+        assertEquals(6, seconds.getQuantityScale());
+        assertEquals(1200, seconds.getFixedHigh(0));
+        assertEquals(6_000_000, seconds.getFixedVolume(0));
+        assertEquals(5800, seconds.getFixedQuoteVolume(0));
+        assertEquals(967, seconds.getFixedVwap(0));
+
+        // Closing without a new fill, then rolling over the 2 bar history
+        candleAggregator.advance(101_000);
+        assertEquals(Arrays.asList(100_000L), closedBars);
+        assertTrue(seconds.isClosed(0));
+
+        assertTrue(candleAggregator.onTrade(trade(6, 9.0f, 1.0f, true), 102_100));
+        assertTrue(candleAggregator.onTrade(trade(7, 9.5f, 1.0f, true), 103_100));
+        assertFalse(candleAggregator.onTrade(trade(8, 9.5f, 1.0f, false), 103_200));
+        assertEquals(Arrays.asList(100_000L, 102_000L), closedBars);
+        assertEquals(2, seconds.size());
+        assertEquals(103_000, seconds.getOpenTime(0));
+        assertEquals(102_000, seconds.getOpenTime(1));
+        assertFalse(seconds.isClosed(0));
+        assertTrue(seconds.isClosed(1));
+
+        final CandleAggregator.CandleSeries minutes = candleAggregator.getSeries(60_000L);
+        assertEquals(1, minutes.size());
+        assertEquals(5, minutes.getTradeCount(0));
+        assertEquals(9.5, minutes.getClose(0), 0);
+        assertNull(candleAggregator.getSeries(5_000L));
+    }
+
+    private static TradeEvent trade(long seqNum, float price, float quantity, boolean maker) {
+        final TradeEvent tradeEvent = new TradeEvent();
+        tradeEvent.setSeqNum(seqNum);
+        tradeEvent.setFloatPrice(price);
+        tradeEvent.setFloatQuantity(quantity);
+        tradeEvent.setFixedPrice(Math.round(price * 100.0));
+        tradeEvent.setPriceScale(2);
+        tradeEvent.setFixedQuantity(Math.round(quantity * 1e6));
+        tradeEvent.setQuantityScale(6);
+        tradeEvent.setEventQueueFlags(EventQueueFlags.of((byte) (EventQueueFlags.FILL | (maker ? EventQueueFlags.MAKER : 0))));
+        return tradeEvent;
+    }
+
+    /**
+     * Verifies that prices in lots and fill amounts convert to exact fixed-point prices.
+     */
+    @Test
+    public void fixedPointPriceTest() {
+        // BTC/USDC: 6 and 6 decimals, 0.0001 BTC base lots and a 0.1 USDC tick
+        assertEquals(1, SerumUtils.getPriceScale((byte) 6, (byte) 6, 100, 10));
+        assertEquals(423751, SerumUtils.priceLotsToFixed(423751, 1, (byte) 6, (byte) 6, 100, 10));
+
+        // SRM/USDC: 0.0001 USDC tick, a float cannot hold 0.3001 exactly
+        assertEquals(4, SerumUtils.getPriceScale((byte) 6, (byte) 6, 100000, 10));
+        assertEquals(3001, SerumUtils.priceLotsToFixed(3001, 4, (byte) 6, (byte) 6, 100000, 10));
+
+        // Coarser scales round, unknown lot sizes fall back to the quote decimals
+        assertEquals(30, SerumUtils.priceLotsToFixed(3001, 2, (byte) 6, (byte) 6, 100000, 10));
+        assertEquals(6, SerumUtils.getPriceScale((byte) 6, (byte) 6, 0, 0));
+
+        // Extreme but legal prices saturate instead of throwing, the float price is still computed in double
+        final OrderBook asks = OrderBook.readOrderBook(buildSlabData(new long[][]{{Long.MAX_VALUE / 2, 1, 1}}, 0, false));
+        asks.setBaseDecimals((byte) 6);
+        asks.setQuoteDecimals((byte) 6);
+        asks.setBaseLotSize(1);
+        asks.setQuoteLotSize(10);
+        assertEquals(0, asks.getPriceScale());
+        final Order ask = asks.getBestAsk();
+        assertEquals(Long.MAX_VALUE, ask.getFixedPrice());
+        assertEquals(4.611686e19f, ask.getFloatPrice(), 1e13f);
+        assertEquals(Long.MIN_VALUE, SerumUtils.nativeRatioToFixed(Long.MIN_VALUE, 1, 9, (byte) 18, (byte) 0));
+
+        // The scale is cached until the lot sizes change
+        asks.setBaseLotSize(100000);
+        assertEquals(4, asks.getPriceScale());
+
+        // Decimals outside the power-of-ten table
+        assertEquals(1e20, SerumUtils.getBaseSplTokenMultiplier((byte) 20), 0);
+        assertEquals(0.1, SerumUtils.getQuoteSplTokenMultiplier((byte) -1), 0);
+
+        // Taker bid of 0.5 BTC at 42375.1, paying a 22 bps fee on top
+        final byte[] data = buildEventQueueData(4);
+        final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        Arrays.fill(data, 37, data.length - 7, (byte) 0);
+        buffer.putInt(13, 0);
+        buffer.putInt(21, 1);
+        buffer.putInt(29, 1);
+        final long quote = 21_187_550_000L;
+        final long fee = quote * 22 / 10_000;
+        buffer.put(37, (byte) (EventQueueFlags.FILL | EventQueueFlags.BID));
+        buffer.putLong(37 + 8, 500_000);
+        buffer.putLong(37 + 16, quote + fee);
+        buffer.putLong(37 + 24, fee);
+
+        final EventQueue eventQueue = EventQueue.readEventQueue(data, (byte) 6, (byte) 6, 100, 10);
+        final TradeEvent tradeEvent = eventQueue.getEvents().get(0);
+        assertEquals(423751, tradeEvent.getFixedPrice());
+        assertEquals(1, tradeEvent.getPriceScale());
+        assertEquals(500_000, tradeEvent.getFixedQuantity());
+        assertEquals(6, tradeEvent.getQuantityScale());
+        assertEquals(42375.1f, tradeEvent.getFloatPrice(), 0);
+        assertEquals(0.5f, tradeEvent.getFloatQuantity(), 0);
+
+        // The event queue caches its scale the same way
+        assertEquals(1, eventQueue.getPriceScale());
+        eventQueue.setBaseLotSize(100000);
+        assertEquals(4, eventQueue.getPriceScale());
+    }
+
+    /**
+     * Verifies that {@link MarketScale} converts like {@link SerumUtils} and validates prices and sizes.
+     */
+    @Test
+    public void marketScaleTest() {
+        final Market market = new Market();
+        market.setBaseDecimals((byte) 6);
+        market.setQuoteDecimals((byte) 6);
+        market.setBaseLotSize(100);
+        market.setQuoteLotSize(10);
+
+        final MarketScale marketScale = market.getMarketScale();
+        assertSame(marketScale, market.getMarketScale());
+        assertEquals(0.1, marketScale.getTickSize(), 1e-12);
+        assertEquals(0.0001, marketScale.getStepSize(), 1e-12);
+        assertEquals(1, marketScale.getPriceScale());
+        assertEquals(1, marketScale.getFixedTickSize());
+
+        final Random random = new Random(17);
+        for (int i = 0; i < 1000; i++) {
+            float price = 1000 + random.nextInt(1_000_000) / 10f;
+            float size = random.nextInt(100_000) / 1000f;
+
+            assertEquals(SerumUtils.priceNumberToLots(price, market), marketScale.priceNumberToLots(price));
+            assertEquals(
+                    SerumUtils.baseSizeNumberToLots(size, (byte) 6, 100),
+                    marketScale.baseSizeNumberToLots(size)
+            );
+            assertEquals(SerumUtils.getMaxQuoteQuantity(price, size, market), marketScale.getMaxQuoteQuantity(price, size));
+        }
+
+        assertTrue(marketScale.isPriceOnTick(42375.1));
+        assertFalse(marketScale.isPriceOnTick(42375.15));
+        assertTrue(marketScale.isSizeOnStep(0.5));
+        assertFalse(marketScale.isSizeOnStep(0.00005));
+
+        // Whole numbers are prices and sizes in tokens, not fixed-point values
+        assertTrue(marketScale.isPriceOnTick(42375));
+        assertTrue(marketScale.isSizeOnStep(1));
+
+        assertEquals(423751, marketScale.priceLotsToFixed(423751));
+        assertEquals(423751, marketScale.priceFixedToLots(423751));
+        assertTrue(marketScale.isFixedPriceOnTick(423751));
+        assertEquals(5000, marketScale.nativeBaseToLots(500_000));
+        assertEquals(500_000, marketScale.baseLotsToNative(5000));
+        assertFalse(marketScale.isNativeSizeOnStep(500_050));
+
+        // Changing the lot sizes rebuilds the scale
+        market.setQuoteLotSize(1);
+        assertNotSame(marketScale, market.getMarketScale());
+        assertEquals(2, market.getMarketScale().getPriceScale());
+
+        final Order order = Order.builder().floatPrice(42375.1f).floatQuantity(0.5f).build();
+        new SerumManager(null).setOrderPrices(order, market);
+        assertEquals(4237510, order.getPrice());
+        assertEquals(5000, order.getQuantity());
+        assertEquals(SerumUtils.getMaxQuoteQuantity(42375.1f, 0.5f, market), order.getMaxQuoteQuantity());
+    }
+
+    @Test
+    public void openOrdersViewTest() {
+        final ByteBuffer buffer = ByteBuffer.allocate(3228).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(5, (byte) 5); // initialized + open orders
+        final Random random = new Random(18);
+        for (int offset = 13; offset < 109; offset++) {
+            buffer.put(offset, (byte) random.nextInt());
+        }
+        buffer.putLong(3213, 77);
+
+        // Slots 3, 63, 64 and 127 are in use, 63 and 127 are bids
+        final int[] usedSlots = {3, 63, 64, 127};
+        for (int i = 0; i < 16; i++) {
+            buffer.put(109 + i, (byte) 0xFF);
+        }
+        for (int slot : usedSlots) {
+            buffer.put(109 + (slot / 8), (byte) (buffer.get(109 + (slot / 8)) & ~(1 << (slot % 8))));
+            buffer.putLong(141 + (slot * 16), random.nextLong());
+            buffer.putLong(141 + (slot * 16) + 8, 20000 + slot);
+            buffer.putLong(2189 + (slot * 8), 1000 + slot);
+        }
+        buffer.put(125 + (63 / 8), (byte) (1 << (63 % 8)));
+        buffer.put(125 + (127 / 8), (byte) (1 << (127 % 8)));
+        final byte[] data = buffer.array();
+
+        final OpenOrdersAccount account = OpenOrdersAccount.readOpenOrdersAccount(data);
+        final OpenOrdersView view = OpenOrdersView.readOpenOrdersView(data);
+
+        assertTrue(view.getAccountFlags().isOpenOrders());
+        assertEquals(account.getMarket(), view.getMarket());
+        assertEquals(account.getOwner(), view.getOwner());
+        assertTrue(view.ownerEquals(account.getOwner().toByteArray()));
+        assertFalse(view.marketEquals(account.getOwner().toByteArray()));
+        assertEquals(account.getBaseTokenFree(), view.getBaseTokenFree());
+        assertEquals(account.getBaseTokenTotal(), view.getBaseTokenTotal());
+        assertEquals(account.getQuoteTokenFree(), view.getQuoteTokenFree());
+        assertEquals(account.getQuoteTokenTotal(), view.getQuoteTokenTotal());
+        assertEquals(77, view.getReferrerRebatesAccrued());
+
+        for (int slot = 0; slot < 128; slot++) {
+            assertEquals(account.getFreeSlots().get(slot), view.isFree(slot));
+            assertEquals(account.getBidSlots().get(slot), view.isBid(slot));
+            assertEquals((long) account.getLongPrices().get(slot), view.getPrice(slot));
+            assertEquals((long) account.getOrderIds().get(slot), view.getClientId(slot));
+            assertEquals(Utils.readInt64(account.getClientOrderIds().get(slot), 0), view.getOrderSeqNum(slot));
+        }
+
+        final List<Integer> occupied = new ArrayList<>();
+        view.forEachOccupiedSlot(occupied::add);
+        assertEquals(Arrays.asList(3, 63, 64, 127), occupied);
+        assertEquals(account.getOrders().size(), view.getOrderCount());
+        assertEquals(3, view.nextOccupiedSlot(0));
+        assertEquals(64, view.nextOccupiedSlot(64));
+        assertEquals(127, view.nextOccupiedSlot(65));
+        assertEquals(-1, view.nextOccupiedSlot(128));
+
+        assertEquals(64, view.findSlotByClientId(1064));
+        assertEquals(-1, view.findSlotByClientId(1000)); // client id of a free slot
+        assertEquals(-1, view.findSlotByClientId(42));
+
+        final byte[] orderId = new byte[16];
+        view.readOrderId(127, orderId, 0);
+        assertArrayEquals(Arrays.copyOfRange(data, 141 + (127 * 16), 141 + (128 * 16)), orderId);
+
+        // Reloading reuses the arrays, keys built before keep their value
+        final long[] prices = view.getPrices();
+        final PublicKey owner = view.getOwner();
+        buffer.put(109, (byte) 0xFF);
+        buffer.put(45, (byte) (buffer.get(45) + 1));
+        assertSame(view, view.reload(data));
+        assertSame(prices, view.getPrices());
+        assertEquals(account.getOwner(), owner);
+        assertNotEquals(account.getOwner(), view.getOwner());
+        assertEquals(63, view.nextOccupiedSlot(0));
+        assertEquals(3, view.getOrderCount());
+    }
+
+    @Test
+    public void openOrdersRegistryTest() {
+        final ByteBuffer buffer = ByteBuffer.allocate(3228).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(5, (byte) 5); // initialized + open orders
+        final Random random = new Random(19);
+        for (int offset = 13; offset < 109; offset++) {
+            buffer.put(offset, (byte) random.nextInt());
+        }
+        final byte[] data = buffer.array();
+
+        final OpenOrdersAccount openOrdersAccount = OpenOrdersAccount.readOpenOrdersAccount(data);
+        final PublicKey market = openOrdersAccount.getMarket();
+        final PublicKey owner = openOrdersAccount.getOwner();
+        final PublicKey openOrdersKey = new PublicKey("EbsRGZmEyjTSpJ6tY1bJPhcnHR8jJj4Jz6LsNjkAqpmA");
+        openOrdersAccount.setOwnPubkey(openOrdersKey);
+
+        // Cache hits never reach the RPC client
+        final OpenOrdersRegistry registry = new OpenOrdersRegistry(client, 60_000L);
+        registry.put(openOrdersAccount);
+        assertSame(openOrdersAccount, registry.getOpenOrdersAccount(market, owner));
+        assertEquals(openOrdersKey, registry.getOpenOrdersKey(market, owner));
+
+        // Invalidating drops the contents only
+        registry.invalidate(market, owner);
+        assertEquals(openOrdersKey, registry.getOpenOrdersKey(market, owner));
+
+        // Account notifications refresh the contents
+        buffer.putLong(77, 123_456L);
+        final Map<String, Object> notification = Map.of("data", List.of(Base64.getEncoder().encodeToString(data), "base64"));
+        registry.newListener(market, owner, openOrdersKey).onNotificationEvent(notification);
+        final OpenOrdersAccount updated = registry.getOpenOrdersAccount(market, owner);
+        assertEquals(123_456L, updated.getBaseTokenFree());
+        assertEquals(openOrdersKey, updated.getOwnPubkey());
+
+        registry.invalidate(openOrdersKey);
+        registry.update(market, owner, openOrdersKey, data);
+        assertNotSame(updated, registry.getOpenOrdersAccount(market, owner));
+
+        // Keys recorded after creating an account, e.g. by placeOrder, are kept per owner
+        final PublicKey otherOwner = new PublicKey("GsJP1nHUZqbtmKqkdbZYfVpGw9EmLxBDJnJ2F6n6kHDD");
+        final PublicKey otherKey = new PublicKey("5nLJ22h1DUfeCfwbFxPYK8zbfbri7nA9bXoDcR8AcJjs");
+        registry.putOpenOrdersKey(market, otherOwner, otherKey);
+        assertEquals(otherKey, registry.getOpenOrdersKey(market, otherOwner));
+        assertEquals(openOrdersKey, registry.getOpenOrdersKey(market, owner));
+
+        registry.remove(market, otherOwner);
+        registry.putOpenOrdersKey(market, owner, openOrdersKey);
+        assertEquals(openOrdersKey, registry.getOpenOrdersKey(market, owner));
+        assertSame(registry, new SerumManager(client, registry).getOpenOrdersRegistry());
+    }
+
+    @Test
+    public void readOpenOrdersAccountsTest() {
+        final byte[][] markets = new byte[2][32];
+        final byte[] owner = new byte[32];
+        final Random random = new Random(20);
+        random.nextBytes(markets[0]);
+        random.nextBytes(markets[1]);
+        random.nextBytes(owner);
+
+        // Two open orders accounts on the first market, one on the second
+        final Map<PublicKey, byte[]> accountData = new LinkedHashMap<>();
+        final List<PublicKey> openOrdersKeys = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final byte[] key = new byte[32];
+            random.nextBytes(key);
+            openOrdersKeys.add(new PublicKey(key));
+
+            final ByteBuffer buffer = ByteBuffer.allocate(3228).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(5, (byte) 5);
+            buffer.position(13);
+            buffer.put(markets[i == 2 ? 1 : 0]);
+            buffer.put(owner);
+            buffer.putLong(i);
+            accountData.put(openOrdersKeys.get(i), buffer.array());
+        }
+
+        final Map<PublicKey, List<OpenOrdersAccount>> byMarket = SerumUtils.readOpenOrdersAccounts(accountData);
+        assertEquals(2, byMarket.size());
+
+        final List<OpenOrdersAccount> first = byMarket.get(new PublicKey(markets[0]));
+        assertEquals(2, first.size());
+        assertEquals(openOrdersKeys.get(0), first.get(0).getOwnPubkey());
+        assertEquals(openOrdersKeys.get(1), first.get(1).getOwnPubkey());
+        assertEquals(1, first.get(1).getBaseTokenFree());
+
+        final List<OpenOrdersAccount> second = byMarket.get(new PublicKey(markets[1]));
+        assertEquals(1, second.size());
+        assertEquals(openOrdersKeys.get(2), second.get(0).getOwnPubkey());
+        assertEquals(new PublicKey(owner), second.get(0).getOwner());
+
+        // The registry keeps the first account of each market
+        final OpenOrdersRegistry registry = new OpenOrdersRegistry(client, 60_000L);
+        registry.putAll(new PublicKey(owner), byMarket);
+        assertEquals(openOrdersKeys.get(0), registry.getOpenOrdersKey(new PublicKey(markets[0]), new PublicKey(owner)));
+        assertSame(second.get(0), registry.getOpenOrdersAccount(new PublicKey(markets[1]), new PublicKey(owner)));
+    }
+
+    @Test
+    public void mintRegistryTest() throws IOException {
+        final PublicKey usdcMint = new PublicKey("EPjFWdd5AufqSSqeM2qN1xzybapC8G4wEGGkZwyTDt1v");
+        final ByteBuffer buffer = ByteBuffer.allocate(82).order(ByteOrder.LITTLE_ENDIAN);
+        final byte[] mintAuthority = new byte[32];
+        new Random(23).nextBytes(mintAuthority);
+        buffer.putInt(0, 1);
+        buffer.position(4);
+        buffer.put(mintAuthority);
+        buffer.putLong(36, 5_000_000_000_000L);
+        buffer.put(44, (byte) 6);
+        buffer.put(45, (byte) 1);
+
+        final MintRegistry registry = new MintRegistry();
+        assertEquals(-1, registry.getCachedDecimals(usdcMint));
+        assertEquals(9, registry.getCachedDecimals(SerumUtils.WRAPPED_SOL_MINT));
+
+        final TokenMint tokenMint = registry.put(usdcMint, buffer.array());
+        assertEquals(6, tokenMint.getDecimals());
+        assertEquals(6, registry.getCachedDecimals(usdcMint));
+        assertEquals(6, registry.getDecimals(client, usdcMint));
+        assertEquals(5_000_000_000_000L, tokenMint.getSupply());
+        assertTrue(tokenMint.isInitialized());
+        assertEquals(new PublicKey(mintAuthority), tokenMint.getMintAuthority());
+        assertNull(tokenMint.getFreezeAuthority());
+
+        // Token accounts and uninitialized mints are rejected, never cached
+        final PublicKey otherMint = new PublicKey("GsJP1nHUZqbtmKqkdbZYfVpGw9EmLxBDJnJ2F6n6kHDD");
+        assertThrows(RuntimeException.class, () -> registry.put(otherMint, Arrays.copyOf(buffer.array(), 165)));
+        assertThrows(RuntimeException.class, () -> registry.put(otherMint, new byte[82]));
+        assertEquals(-1, registry.getCachedDecimals(otherMint));
+
+        // Saved mints are known after a restart without any RPC call
+        final Path file = Files.createTempFile("mints", ".bin");
+        try {
+            registry.save(file);
+
+            final MintRegistry restarted = new MintRegistry();
+            assertEquals(1, restarted.load(file));
+            final TokenMint loaded = restarted.get(usdcMint);
+            assertEquals(6, loaded.getDecimals());
+            assertEquals(tokenMint.getSupply(), loaded.getSupply());
+            assertEquals(tokenMint.getMintAuthority(), loaded.getMintAuthority());
+            assertNull(loaded.getFreezeAuthority());
+            assertEquals(tokenMint.getFetchedAtMillis(), loaded.getFetchedAtMillis());
+            assertTrue(restarted.prefetch(client, List.of(usdcMint)).containsKey(usdcMint));
+
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            assertThrows(IOException.class, () -> restarted.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals(0, registry.load(file));
+        assertSame(registry, new MarketBuilder().setMintRegistry(registry).getMintRegistry());
+    }
+
+    @Test
+    public void marketCatalogTest() throws IOException {
+        final byte[] data = new byte[388];
+        new Random(24).nextBytes(data);
+        final PublicKey marketAddress = new PublicKey("A8YFbxQYFVqKZaoYJLLUVcQiWP7G2MeEgW5wsAQgMvFw");
+        final PublicKey vaultSigner = new PublicKey("GVXRSBjFk6e6J3NbVPXohDJetcTjaeeuykUpbQF8UoMU");
+
+        final Market market = Market.readMarket(data);
+        market.setOwnAddress(marketAddress);
+        market.setVaultSigner(vaultSigner);
+        market.setBaseDecimals((byte) 9);
+        market.setQuoteDecimals((byte) 6);
+
+        final MarketCatalog catalog = new MarketCatalog();
+        assertNull(catalog.get(marketAddress));
+        catalog.put(market);
+        assertTrue(catalog.contains(marketAddress));
+
+        // Saved markets are rebuilt after a restart, vault signer included, without any RPC call
+        final Path file = Files.createTempFile("markets", ".bin");
+        try {
+            catalog.save(file);
+
+            final MarketCatalog restarted = new MarketCatalog();
+            assertEquals(1, restarted.load(file));
+
+            final Market loaded = restarted.get(marketAddress);
+            assertNotSame(market, loaded);
+            assertEquals(vaultSigner, loaded.getVaultSigner());
+            assertEquals(market.getVaultSignerNonce(), loaded.getVaultSignerNonce());
+            assertEquals(market.getBaseMint(), loaded.getBaseMint());
+            assertEquals(market.getQuoteVault(), loaded.getQuoteVault());
+            assertEquals(market.getRequestQueue(), loaded.getRequestQueue());
+            assertEquals(market.getEventQueueKey(), loaded.getEventQueueKey());
+            assertEquals(market.getBids(), loaded.getBids());
+            assertEquals(market.getAsks(), loaded.getAsks());
+            assertEquals(market.getBaseLotSize(), loaded.getBaseLotSize());
+            assertEquals(market.getQuoteLotSize(), loaded.getQuoteLotSize());
+            assertEquals(market.getFeeRateBps(), loaded.getFeeRateBps());
+            assertEquals(market.getQuoteDustThreshold(), loaded.getQuoteDustThreshold());
+            assertEquals(market.getAccountFlags().isMarket(), loaded.getAccountFlags().isMarket());
+            assertEquals(9, loaded.getBaseDecimals());
+            assertEquals(6, loaded.getQuoteDecimals());
+            assertEquals(0, loaded.getBaseDepositsTotal());
+
+            // Flipping a single byte fails the checksum
+            final byte[] corrupted = Files.readAllBytes(file);
+            corrupted[100] ^= 1;
+            Files.write(file, corrupted);
+            assertThrows(IOException.class, () -> new MarketCatalog().load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals(0, catalog.load(file));
+        assertSame(catalog, new MarketBuilder().setMarketCatalog(catalog).getMarketCatalog());
+
+        // Cataloged markets are built without fetching the market or mint accounts
+        final Market built = new MarketBuilder()
+                .setClient(client)
+                .setPublicKey(marketAddress)
+                .setMarketCatalog(catalog)
+                .setRetrieveDecimalsOnly(true)
+                .build();
+        assertEquals(vaultSigner, built.getVaultSigner());
+        assertEquals(6, built.getQuoteDecimals());
+    }
+
+    /**
+     * Verifies that {@link MarketStream} decodes notifications into the market's order books in place, reports fills
+     * once and drops updates older than the current slot.
+     */
+    @Test
+    public void marketStreamTest() {
+        final byte[] marketData = new byte[388];
+        new Random(25).nextBytes(marketData);
+        final Market market = Market.readMarket(marketData);
+        market.setBaseDecimals((byte) 6);
+        market.setQuoteDecimals((byte) 6);
+        market.setBaseLotSize(100);
+        market.setQuoteLotSize(10);
+
+        final List<Long> bookSlots = new ArrayList<>();
+        final List<Long> fillQuantities = new ArrayList<>();
+        final MarketStream marketStream = new MarketStream(market, () -> null);
+        marketStream.addListener(new MarketStream.Listener() {
+            @Override
+            public void onOrderBook(OrderBook orderBook, long slot) {
+                bookSlots.add(slot);
+            }
+
+            @Override
+            public void onFills(List<TradeEvent> fills, long slot) {
+                fills.forEach(fill -> fillQuantities.add(fill.getNativeQuantityPaid()));
+            }
+        });
+
+        // solanaj notifications carry the account value only
+        final byte[] askData = buildSlabData(new long[][]{{1000, 5, 11}, {990, 1, 12}}, 0, false);
+        marketStream.newListener(market.getAsks()).onNotificationEvent(accountNotification(askData));
+        final OrderBook asks = market.getAskOrderBook();
+        assertEquals(990, asks.getBestAsk().getPrice());
+        assertEquals(-1, marketStream.getSlot());
+
+        // Slot-aware notifications carry their context, same data is not reported again
+        final Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("context", Map.of("slot", 120L));
+        notification.put("value", accountNotification(askData));
+        marketStream.newListener(market.getAsks()).onNotificationEvent(notification);
+        assertEquals(List.of(-1L), bookSlots);
+        assertEquals(120, marketStream.getSlot());
+
+        final byte[] newAskData = buildSlabData(new long[][]{{1000, 5, 11}, {980, 2, 13}}, 2, false);
+        assertFalse(marketStream.onAccountData(market.getAsks(), 119, newAskData));
+        assertTrue(marketStream.onAccountData(market.getAsks(), 121, newAskData));
+        assertSame(asks, market.getAskOrderBook());
+        assertEquals(980, asks.getBestAsk().getPrice());
+        assertEquals(List.of(-1L, 121L), bookSlots);
+
+        final byte[] bidData = buildSlabData(new long[][]{{970, 3, 14}}, 4, true);
+        assertTrue(marketStream.onAccountData(market.getBids(), 121, bidData));
+        assertEquals(970, market.getBidOrderBook().getBestBid().getPrice());
+
+        // Fills are reported once each
+        final byte[] eventQueueData = buildEventQueueData(4);
+        marketStream.onAccountData(market.getEventQueueKey(), 122, eventQueueData.clone());
+        assertEquals(2, fillQuantities.size());
+
+        pushFillEvent(ByteBuffer.wrap(eventQueueData).order(ByteOrder.LITTLE_ENDIAN), 4, 5000);
+        marketStream.onAccountData(market.getEventQueueKey(), 123, eventQueueData.clone());
+        assertEquals(3, fillQuantities.size());
+        assertEquals(5000, (long) fillQuantities.get(2));
+        assertEquals(123, marketStream.getSlot());
+
+        assertThrows(IllegalArgumentException.class, () -> marketStream.newListener(market.getBaseMint()));
+        assertFalse(marketStream.isConnected());
+        marketStream.close();
+    }
+
+    private static Map<String, Object> accountNotification(byte[] data) {
+        return Map.of("data", List.of(Base64.getEncoder().encodeToString(data), "base64"));
+    }
+
+    /**
+     * Appends a fill event at {@code head + count} and bumps count and seqNum, like the Serum program does.
+     */
+    private static void pushFillEvent(ByteBuffer buffer, int allocLen, long nativeQuantityPaid) {
+        int head = buffer.getInt(13);
+        int count = buffer.getInt(21);
+        int offset = 37 + (((head + count) % allocLen) * 88);
+
+        buffer.put(offset, (byte) 1);
+        buffer.putLong(offset + 8, 10);
+        buffer.putLong(offset + 16, nativeQuantityPaid);
+        buffer.putInt(21, count + 1);
+        buffer.putInt(29, buffer.getInt(29) + 1);
+    }
+
+    @Test
+    public void decodeBase64Test() {
+        final byte[] data = buildEventQueueData(3);
+        byte[] destination = null;
+
+        for (int length = 0; length < 8; length++) {
+            final byte[] expected = Arrays.copyOf(data, data.length - length);
+            final String encoded = Base64.getEncoder().encodeToString(expected);
+
+            destination = SerumUtils.decodeBase64(encoded, destination);
+            assertArrayEquals(expected, destination);
+        }
+
+        final byte[] reused = SerumUtils.decodeBase64(Base64.getEncoder().encodeToString(data), null);
+        assertSame(reused, SerumUtils.decodeBase64(Base64.getEncoder().encodeToString(data), reused));
+    }
+
+    /**
+     * Verifies that a {@link LazyMarket} decodes the same values as {@link Market#readMarket(byte[])}, once.
+     */
+    @Test
+    public void lazyMarketTest() {
+        final byte[] data = new byte[388];
+        new Random(388).nextBytes(data);
+
+        final Market market = Market.readMarket(data);
+        final LazyMarket lazyMarket = LazyMarket.readLazyMarket(data);
+
+        assertEquals(market.getBids(), lazyMarket.getBids());
+        assertSame(lazyMarket.getBids(), lazyMarket.getBids());
+        assertEquals(market.getAsks(), lazyMarket.getAsks());
+        assertEquals(market.getEventQueueKey(), lazyMarket.getEventQueueKey());
+        assertEquals(market.getBaseMint(), lazyMarket.getBaseMint());
+        assertEquals(market.getQuoteVault(), lazyMarket.getQuoteVault());
+        assertEquals(market.getBaseLotSize(), lazyMarket.getBaseLotSize());
+        assertEquals(market.getQuoteLotSize(), lazyMarket.getQuoteLotSize());
+        assertEquals(market.getReferrerRebatesAccrued(), lazyMarket.getReferrerRebatesAccrued());
+        assertEquals(market.getAccountFlags().isBids(), lazyMarket.getAccountFlags().isBids());
+
+        // Explicitly set values win over the account data
+        lazyMarket.setQuoteLotSize(7);
+        lazyMarket.setAsks(lazyMarket.getBids());
+        assertEquals(7, lazyMarket.getQuoteLotSize());
+        assertEquals(lazyMarket.getBids(), lazyMarket.getAsks());
+
+        lazyMarket.setFeeRateBps(3);
+        assertEquals(3, lazyMarket.getFeeRateBps());
+    }
+
+    /**
+     * Builds event queue account data with {@code allocLen} slots, the first two holding fill events.
+     */
+    private static byte[] buildEventQueueData(int allocLen) {
+        final ByteBuffer buffer = ByteBuffer.allocate(37 + (allocLen * 88)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("serum".getBytes());
+        buffer.put(5, (byte) 17); // initialized + event queue
+        buffer.putInt(21, 2); // count
+        buffer.putInt(29, 2); // seqNum
+
+        for (int i = 0; i < 2; i++) {
+            int offset = 37 + (i * 88);
+            buffer.put(offset, (byte) (i == 0 ? 1 : 9)); // fill, fill + maker
+            buffer.putLong(offset + 8, 10);
+            buffer.putLong(offset + 16, 1000);
+            buffer.put(offset + 48, (byte) (i + 1)); // open orders
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Builds order book account data containing the given leaves, linked into a critbit tree ordered by price.
+     *
+     * @param leaves rows of {price, quantity, clientOrderId}
+     * @param seqNumStart sequence number of the first leaf
+     * @param bids true to flag the account as bids, false for asks
+     * @return raw order book account data
+     */
+    private static byte[] buildSlabData(long[][] leaves, long seqNumStart, boolean bids) {
+        int leafCount = leaves.length;
+        int nodeCount = leafCount == 0 ? 0 : (2 * leafCount) - 1;
+        final ByteBuffer buffer = ByteBuffer.allocate(45 + (Math.max(nodeCount, 1) * 72) + 7)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put("serum".getBytes());
+        buffer.put(5, (byte) (bids ? 33 : 65)); // initialized + bids/asks
+        buffer.putInt(13, nodeCount);
+        buffer.putInt(37, leafCount);
+
+        // leaves first, in the order given
+        for (int i = 0; i < leafCount; i++) {
+            int offset = 45 + (i * 72);
+            buffer.putInt(offset, 2);
+            buffer.put(offset + 4, (byte) i);
+            buffer.putLong(offset + 8, seqNumStart + i);
+            buffer.putLong(offset + 16, leaves[i][0]);
+            buffer.put(offset + 24, (byte) (i + 1)); // owner
+            buffer.putLong(offset + 56, leaves[i][1]);
+            buffer.putLong(offset + 64, leaves[i][2]);
+        }
+
+        if (leafCount > 0) {
+            // leaf indices sorted by key, then inner nodes bisecting them
+            Integer[] sorted = new Integer[leafCount];
+            for (int i = 0; i < leafCount; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, Comparator.<Integer>comparingLong(i -> leaves[i][0])
+                    .thenComparingLong(i -> seqNumStart + i));
+
+            int[] nextInner = {leafCount};
+            int root = linkSlabNodes(buffer, sorted, 0, leafCount, nextInner);
+            buffer.putInt(33, root);
+        }
+
+        return buffer.array();
+    }
+
+    private static int linkSlabNodes(ByteBuffer buffer, Integer[] sorted, int from, int to, int[] nextInner) {
+        if (to - from == 1) {
+            return sorted[from];
+        }
+
+        int node = nextInner[0]++;
+        int middle = (from + to) / 2;
+        int offset = 45 + (node * 72);
+        buffer.putInt(offset, 1);
+        buffer.putInt(offset + 24, linkSlabNodes(buffer, sorted, from, middle, nextInner));
+        buffer.putInt(offset + 28, linkSlabNodes(buffer, sorted, middle, to, nextInner));
+
+        return node;
+    }
+
 }